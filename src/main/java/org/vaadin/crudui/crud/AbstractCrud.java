@@ -1,14 +1,29 @@
 package org.vaadin.crudui.crud;
 
+import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.Composite;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.HasSize;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.VaadinSession;
 import org.vaadin.crudui.form.CrudFormFactory;
 import org.vaadin.crudui.layout.CrudLayout;
+import org.vaadin.data.filter.Filter;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 /**
  * @author Alejandro Duarte
@@ -20,11 +35,25 @@ public abstract class AbstractCrud<T> extends Composite<VerticalLayout> implemen
     protected FindAllCrudOperationListener<T> findAllOperation = Collections::emptyList;
     protected AddOperationListener<T> addOperation = t -> null;
     protected UpdateOperationListener<T> updateOperation = t -> null;
+    protected PartialUpdateOperationListener<T> partialUpdateOperation;
     protected DeleteOperationListener<T> deleteOperation = t -> { };
+    protected AddAllOperationListener<T> addAllOperation = this::addOneByOne;
+    protected UpdateAllOperationListener<T> updateAllOperation = this::updateOneByOne;
+    protected DeleteAllOperationListener<T> deleteAllOperation = this::deleteOneByOne;
 
     protected CrudLayout crudLayout;
     protected CrudFormFactory<T> crudFormFactory;
 
+    protected transient Executor executor = CrudExecutors.getDefault();
+
+    protected WriteBehindQueue<T> writeBehindQueue;
+
+    protected DetailLoader<T> detailLoader;
+    private int detailCacheSize;
+    private String detailCacheAttribute;
+
+    private UI ui;
+
     public AbstractCrud(Class<T> domainType, CrudLayout crudLayout, CrudFormFactory<T> crudFormFactory, CrudListener<T> crudListener) {
         this.domainType = domainType;
         this.crudLayout = crudLayout;
@@ -59,19 +88,87 @@ public abstract class AbstractCrud<T> extends Composite<VerticalLayout> implemen
         this.findAllOperation = (LazyFindAllCrudOperationListener<T>) () -> dataProvider;
     }
 
+    @Override
+    public void setFilterableFindAllOperation(DataProvider<T, Filter> dataProvider) {
+        this.findAllOperation = (FilterableFindAllCrudOperationListener<T>) () -> dataProvider;
+    }
+
+    /**
+     * Sets the add operation. The add-all operation is reset to add the objects one by one with it; set it
+     * afterwards to keep a batch operation.
+     */
     @Override
     public void setAddOperation(AddOperationListener<T> addOperation) {
         this.addOperation = addOperation;
+        this.addAllOperation = this::addOneByOne;
     }
 
+    /**
+     * Sets the update operation. The update-all operation is reset to update the objects one by one with it; set it
+     * afterwards to keep a batch operation.
+     */
     @Override
     public void setUpdateOperation(UpdateOperationListener<T> updateOperation) {
         this.updateOperation = updateOperation;
+        this.updateAllOperation = this::updateOneByOne;
     }
 
+    /**
+     * Sets the operation used instead of the update operation when the form factory tracks the changed properties.
+     */
+    @Override
+    public void setPartialUpdateOperation(PartialUpdateOperationListener<T> partialUpdateOperation) {
+        this.partialUpdateOperation = partialUpdateOperation;
+    }
+
+    /**
+     * Sets the delete operation. The delete-all operation is reset to delete the objects one by one with it; set it
+     * afterwards to keep a batch operation.
+     */
     @Override
     public void setDeleteOperation(DeleteOperationListener<T> deleteOperation) {
         this.deleteOperation = deleteOperation;
+        this.deleteAllOperation = this::deleteOneByOne;
+    }
+
+    @Override
+    public void setAddAllOperation(AddAllOperationListener<T> addAllOperation) {
+        this.addAllOperation = addAllOperation;
+    }
+
+    @Override
+    public void setUpdateAllOperation(UpdateAllOperationListener<T> updateAllOperation) {
+        this.updateAllOperation = updateAllOperation;
+    }
+
+    @Override
+    public void setDeleteAllOperation(DeleteAllOperationListener<T> deleteAllOperation) {
+        this.deleteAllOperation = deleteAllOperation;
+    }
+
+    /**
+     * Updates an object written by a form, with the partial update operation if the form factory reports the changed
+     * properties. The object is returned as is when no property changed.
+     */
+    protected T performUpdate(T domainObject) {
+        Set<String> changedProperties = partialUpdateOperation != null ? crudFormFactory.getChangedProperties() : null;
+        if (changedProperties == null) {
+            return updateOperation.perform(domainObject);
+        }
+
+        return changedProperties.isEmpty() ? domainObject : partialUpdateOperation.perform(domainObject, changedProperties);
+    }
+
+    protected Collection<T> addOneByOne(Collection<T> domainObjects) {
+        return domainObjects.stream().map(addOperation::perform).collect(Collectors.toList());
+    }
+
+    protected Collection<T> updateOneByOne(Collection<T> domainObjects) {
+        return domainObjects.stream().map(updateOperation::perform).collect(Collectors.toList());
+    }
+
+    protected void deleteOneByOne(Collection<T> domainObjects) {
+        domainObjects.forEach(deleteOperation::perform);
     }
 
     @Override
@@ -82,6 +179,239 @@ public abstract class AbstractCrud<T> extends Composite<VerticalLayout> implemen
         setDeleteOperation(deleteOperation);
     }
 
+    /**
+     * Sets the executor used to run background work: asynchronous fetches and counts, read-ahead, imports and
+     * write-behind. The listener callbacks run there without the session lock, so they must not read or change UI
+     * state, such as the values of fields, the current UI or the current {@code VaadinSession}; the crud applies their
+     * results with {@code UI.access}. Defaults to the bounded {@link CrudExecutors#getDefault() shared executor}.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Enables write-behind for update operations. Updated objects are shown right away and queued; repeated updates
+     * of the same object are coalesced and the queue is flushed with the update-all operation on the executor after
+     * the given delay or when the batch is full. The update-all operation receives copies of the queued objects taken
+     * while holding the session lock. If a flush fails, the objects are rolled back to the values they had
+     * before being queued and the error is shown with {@link CrudFormFactory#showError(CrudOperation, Exception)}.
+     * The UI must use server push for rolled back rows to show up before the next round trip.
+     *
+     * @param delay     milliseconds to wait after the first queued update before flushing
+     * @param batchSize number of queued updates that triggers a flush without waiting, or 0 to disable write-behind
+     */
+    public void setWriteBehind(long delay, int batchSize) {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.flush();
+        }
+
+        writeBehindQueue = batchSize > 0 ? new WriteBehindQueue<>(domainType, delay, batchSize, this::getId, this::flushWriteBehind) : null;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehindQueue != null;
+    }
+
+    /**
+     * Flushes the queued updates now, if write-behind is enabled.
+     */
+    public void flushWriteBehind() {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.flush();
+        }
+    }
+
+    /**
+     * Writes a batch of queued updates. Copies of the queued objects are taken while holding the session lock and
+     * written on the executor; the objects are rolled back, if the write fails, while holding the lock again.
+     */
+    protected void flushWriteBehind(List<WriteBehindQueue.PendingWrite<T>> batch) {
+        UI ui = this.ui;
+        runLocked(ui, () -> {
+            List<T> domainObjects = batch.stream().map(WriteBehindQueue.PendingWrite::getDomainObject).collect(Collectors.toList());
+            List<T> copies = batch.stream().map(WriteBehindQueue.PendingWrite::copy).collect(Collectors.toList());
+
+            executor.execute(() -> {
+                try {
+                    List<T> updatedObjects = new ArrayList<>(updateAllOperation.perform(copies));
+                    runLocked(ui, () -> {
+                        for (int i = 0; i < domainObjects.size(); i++) {
+                            writeBehindSucceeded(domainObjects.get(i), i < updatedObjects.size() ? updatedObjects.get(i) : null);
+                        }
+                        writeBehindFlushed(domainObjects.size());
+                    });
+                } catch (Exception e) {
+                    runLocked(ui, () -> {
+                        batch.forEach(WriteBehindQueue.PendingWrite::rollback);
+                        domainObjects.forEach(this::writeBehindFailed);
+                        crudFormFactory.showError(CrudOperation.UPDATE, e);
+                    });
+                }
+            });
+        });
+    }
+
+    /**
+     * Runs a command while holding the session lock of the UI: right away if the current thread holds it or if the
+     * crud has no UI, with {@link UI#access(Command)} otherwise.
+     */
+    private void runLocked(UI ui, Command command) {
+        if (ui == null || ui.getSession() == null || ui.getSession().hasLock()) {
+            command.execute();
+        } else {
+            access(ui, command);
+        }
+    }
+
+    protected void access(UI ui, Command command) {
+        if (ui != null) {
+            try {
+                ui.access(command);
+            } catch (UIDetachedException ignore) {
+            }
+        }
+    }
+
+    /**
+     * Called in the UI thread after a queued update has been written.
+     *
+     * @param domainObject  the queued object
+     * @param updatedObject the object returned by the update-all operation, may be null
+     */
+    protected void writeBehindSucceeded(T domainObject, T updatedObject) {
+    }
+
+    /**
+     * Called in the UI thread after a batch of queued updates has been written, following
+     * {@link #writeBehindSucceeded(Object, Object)} for each object of the batch.
+     *
+     * @param count the number of objects written
+     */
+    protected void writeBehindFlushed(int count) {
+    }
+
+    /**
+     * Called in the UI thread after a queued update failed and the object was rolled back.
+     */
+    protected void writeBehindFailed(T domainObject) {
+    }
+
+    /**
+     * Returns the identity used to coalesce queued updates of the same object.
+     */
+    protected Object getId(T domainObject) {
+        return domainObject;
+    }
+
+    /**
+     * Loads the complete object of a row with the given loader before it is shown in a form. The last loaded objects
+     * are kept in a cache of the session, shared by the cruds that use the same loader, and evicted when they are
+     * updated or deleted.
+     *
+     * @param detailLoader the loader, or null to show the rows of the grid in the forms
+     * @param cacheSize    the number of objects cached per session, or 0 to load the object every time
+     */
+    public void setDetailLoader(DetailLoader<T> detailLoader, int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative!");
+        }
+
+        this.detailLoader = detailLoader;
+        this.detailCacheSize = cacheSize;
+        this.detailCacheAttribute = detailLoader != null ? DetailLoader.class.getName() + "@" + System.identityHashCode(detailLoader) : null;
+    }
+
+    public DetailLoader<T> getDetailLoader() {
+        return detailLoader;
+    }
+
+    /**
+     * Returns the complete object for a row before it is shown in a form, using the detail loader if set, or the lazy
+     * find-all operation.
+     */
+    protected T fetchDetails(T row) {
+        if (row == null) {
+            return null;
+        }
+
+        if (detailLoader == null) {
+            if (findAllOperation instanceof LazyFindAllCrudOperationListener) {
+                return ((LazyFindAllCrudOperationListener<T>) findAllOperation).fetchDetails(row);
+            }
+
+            return row;
+        }
+
+        Object id = detailLoader.getId(row);
+        Map<Object, T> cache = getDetailCache();
+        T details = cache != null ? cache.get(id) : null;
+
+        if (details == null) {
+            details = detailLoader.load(id);
+            if (details == null) {
+                return row;
+            }
+
+            if (cache != null) {
+                cache.put(id, details);
+            }
+        }
+
+        return details;
+    }
+
+    /**
+     * Removes the cached complete object of a row, if any.
+     */
+    protected void evictDetails(T row) {
+        Map<Object, T> cache = detailLoader != null && row != null ? getDetailCache() : null;
+        if (cache != null) {
+            cache.remove(detailLoader.getId(row));
+        }
+    }
+
+    /**
+     * Removes all the cached complete objects of this session.
+     */
+    protected void clearDetails() {
+        Map<Object, T> cache = detailLoader != null ? getDetailCache() : null;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, T> getDetailCache() {
+        VaadinSession session = VaadinSession.getCurrent();
+        if (session == null || detailCacheSize == 0) {
+            return null;
+        }
+
+        DetailCache<T> cache = (DetailCache<T>) session.getAttribute(detailCacheAttribute);
+        if (cache == null || cache.maxSize != detailCacheSize) {
+            cache = new DetailCache<>(detailCacheSize);
+            session.setAttribute(detailCacheAttribute, cache);
+        }
+
+        return cache;
+    }
+
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        ui = attachEvent.getUI();
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        flushWriteBehind();
+        super.onDetach(detachEvent);
+    }
+
     @Override
     public CrudFormFactory<T> getCrudFormFactory() {
         return crudFormFactory;
@@ -92,12 +422,36 @@ public abstract class AbstractCrud<T> extends Composite<VerticalLayout> implemen
         setAddOperation(crudListener::add);
         setUpdateOperation(crudListener::update);
         setDeleteOperation(crudListener::delete);
+        setPartialUpdateOperation(crudListener instanceof PartialUpdateOperationListener ? (PartialUpdateOperationListener<T>) crudListener : null);
 
-        if (LazyCrudListener.class.isAssignableFrom(crudListener.getClass())) {
-            setFindAllOperation((LazyFindAllCrudOperationListener<T>) ((LazyCrudListener) crudListener)::getDataProvider);
+        if (BatchCrudListener.class.isAssignableFrom(crudListener.getClass())) {
+            BatchCrudListener<T> batchCrudListener = (BatchCrudListener<T>) crudListener;
+            setAddAllOperation(batchCrudListener::addAll);
+            setUpdateAllOperation(batchCrudListener::updateAll);
+            setDeleteAllOperation(batchCrudListener::deleteAll);
+        }
+
+        if (LazyFindAllCrudOperationListener.class.isAssignableFrom(crudListener.getClass())) {
+            setFindAllOperation((LazyFindAllCrudOperationListener<T>) crudListener);
         } else {
             setFindAllOperation(crudListener::findAll);
         }
     }
 
+    private static class DetailCache<T> extends LinkedHashMap<Object, T> {
+
+        private final int maxSize;
+
+        private DetailCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, T> eldest) {
+            return size() > maxSize;
+        }
+
+    }
+
 }
@@ -0,0 +1,14 @@
+package org.vaadin.crudui.crud;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * Adds several objects at once and returns the added objects.
+ */
+@FunctionalInterface
+public interface AddAllOperationListener<T> extends Serializable {
+
+    Collection<T> perform(Collection<T> domainObjects);
+
+}
@@ -0,0 +1,24 @@
+package org.vaadin.crudui.crud;
+
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link CrudListener} that can add, update and delete several objects in one call, for example in a single
+ * transaction. The default implementations call the single-object methods one by one.
+ */
+public interface BatchCrudListener<T> extends CrudListener<T> {
+
+    default Collection<T> addAll(Collection<T> domainObjectsToAdd) {
+        return domainObjectsToAdd.stream().map(this::add).collect(Collectors.toList());
+    }
+
+    default Collection<T> updateAll(Collection<T> domainObjectsToUpdate) {
+        return domainObjectsToUpdate.stream().map(this::update).collect(Collectors.toList());
+    }
+
+    default void deleteAll(Collection<T> domainObjectsToDelete) {
+        domainObjectsToDelete.forEach(this::delete);
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.vaadin.crudui.crud;
+
+/**
+ * Defines how lazy listeners count the items shown in a CRUD.
+ */
+public enum CountMode {
+
+    /**
+     * Counts the items every time the size is requested.
+     */
+    EXACT,
+
+    /**
+     * Counts the items once per filter and keeps the result until the CRUD is refreshed. With incremental updates, add
+     * and delete operations adjust the cached count locally; otherwise they refresh the CRUD, which counts again.
+     */
+    CACHED,
+
+    /**
+     * Like {@link #CACHED}, but counts the items on the executor of the CRUD while a provisional size is used. The
+     * count runs without the session lock, so it must not read or change UI state.
+     */
+    ASYNC,
+
+    /**
+     * Uses the estimate returned by {@link LazyFindAllCrudOperationListener#getEstimatedCount(com.vaadin.flow.data.provider.Query)},
+     * which is the exact count for listeners that don't override it.
+     */
+    ESTIMATED,
+
+    /**
+     * Never counts the items. The grid grows by a page while the fetched pages come back full and stops when a short
+     * page arrives, and the row count shows the items found so far.
+     */
+    NONE;
+
+}
@@ -3,6 +3,7 @@ package org.vaadin.crudui.crud;
 import com.vaadin.flow.data.provider.DataProvider;
 import org.vaadin.crudui.form.CrudFormFactory;
 import org.vaadin.crudui.layout.CrudLayout;
+import org.vaadin.data.filter.Filter;
 
 /**
  * @author Alejandro Duarte
@@ -25,12 +26,22 @@ public interface Crud<T> {
 
     void setFindAllOperation(DataProvider<T, ?> dataProvider);
 
+    void setFilterableFindAllOperation(DataProvider<T, Filter> dataProvider);
+
     void setAddOperation(AddOperationListener<T> addOperation);
 
     void setUpdateOperation(UpdateOperationListener<T> updateOperation);
 
+    void setPartialUpdateOperation(PartialUpdateOperationListener<T> partialUpdateOperation);
+
     void setDeleteOperation(DeleteOperationListener<T> deleteOperation);
 
+    void setAddAllOperation(AddAllOperationListener<T> addAllOperation);
+
+    void setUpdateAllOperation(UpdateAllOperationListener<T> updateAllOperation);
+
+    void setDeleteAllOperation(DeleteAllOperationListener<T> deleteAllOperation);
+
     void setOperations(FindAllCrudOperationListener<T> findAllOperation,
                        AddOperationListener<T> addOperation,
                        UpdateOperationListener<T> updateOperation,
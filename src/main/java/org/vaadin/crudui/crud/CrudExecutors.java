@@ -0,0 +1,72 @@
+package org.vaadin.crudui.crud;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Creates the executors used by the cruds for background work. Their threads are daemons that end after a few seconds
+ * without work, so that they do not keep the web application's class loader alive after it is undeployed.
+ */
+public final class CrudExecutors {
+
+    private static final long IDLE_SECONDS = 10;
+
+    private static final int DEFAULT_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final ExecutorService defaultExecutor = newExecutor("crud-background", DEFAULT_THREADS);
+
+    private CrudExecutors() {
+    }
+
+    /**
+     * Returns the executor shared by the cruds that don't set their own, with at most twice as many threads as
+     * processors, and no less than four. Tasks wait in a queue while all the threads are busy, so that blocking
+     * back-end calls don't take the threads of the common fork-join pool.
+     */
+    public static ExecutorService getDefault() {
+        return defaultExecutor;
+    }
+
+    /**
+     * Returns an executor with at most the given number of threads, whose threads end when they have no task.
+     *
+     * @param threadName the name of the threads, followed by their number
+     * @param threads    the maximum number of threads
+     */
+    public static ExecutorService newExecutor(String threadName, int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, IDLE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads(() -> threadName + "-" + threadNumber.incrementAndGet()));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Returns a single-threaded scheduler whose thread ends when it has no scheduled task.
+     *
+     * @param threadName the name of the scheduler thread
+     */
+    public static ScheduledExecutorService newScheduler(String threadName) {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, daemonThreads(() -> threadName));
+        scheduler.setKeepAliveTime(IDLE_SECONDS, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    private static ThreadFactory daemonThreads(Supplier<String> names) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, names.get());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
@@ -0,0 +1,14 @@
+package org.vaadin.crudui.crud;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * Deletes several objects at once.
+ */
+@FunctionalInterface
+public interface DeleteAllOperationListener<T> extends Serializable {
+
+    void perform(Collection<T> domainObjects);
+
+}
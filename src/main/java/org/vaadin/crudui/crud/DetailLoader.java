@@ -0,0 +1,39 @@
+package org.vaadin.crudui.crud;
+
+import com.vaadin.flow.function.SerializableFunction;
+
+import java.io.Serializable;
+
+/**
+ * Loads the complete object of a grid row by its id when a form is opened, so that the rows of the grid can be
+ * lightweight summaries.
+ *
+ * @param <T> the domain type
+ */
+public interface DetailLoader<T> extends Serializable {
+
+    /**
+     * Returns the id of a grid row.
+     */
+    Object getId(T row);
+
+    /**
+     * Returns the complete object with the given id, or null if it does not exist anymore.
+     */
+    T load(Object id);
+
+    static <T> DetailLoader<T> of(SerializableFunction<T, ?> idGetter, SerializableFunction<Object, T> loader) {
+        return new DetailLoader<T>() {
+            @Override
+            public Object getId(T row) {
+                return idGetter.apply(row);
+            }
+
+            @Override
+            public T load(Object id) {
+                return loader.apply(id);
+            }
+        };
+    }
+
+}
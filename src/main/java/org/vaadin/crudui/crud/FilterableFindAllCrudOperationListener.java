@@ -0,0 +1,15 @@
+package org.vaadin.crudui.crud;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import org.vaadin.data.filter.Filter;
+
+/**
+ * A lazy find-all operation whose data provider receives the {@link Filter} set on the crud in every query, so that
+ * it can be translated into the back-end query instead of being read from the filter fields.
+ */
+public interface FilterableFindAllCrudOperationListener<T> extends LazyFindAllCrudOperationListener<T> {
+
+    @Override
+    DataProvider<T, Filter> getDataProvider();
+
+}
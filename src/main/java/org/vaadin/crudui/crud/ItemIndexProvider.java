@@ -0,0 +1,17 @@
+package org.vaadin.crudui.crud;
+
+import com.vaadin.flow.data.provider.Query;
+
+/**
+ * A lazy find-all operation that can tell the position of an item among the rows of a query, so that the crud can
+ * scroll to the item without fetching the rows before it.
+ */
+public interface ItemIndexProvider<T> {
+
+    /**
+     * Returns the position of the item among the rows matching the filter of the query, in the order of its sort
+     * orders, or -1 if the item is not among them or its position cannot be told.
+     */
+    int getItemIndex(T item, Query<T, ?> query);
+
+}
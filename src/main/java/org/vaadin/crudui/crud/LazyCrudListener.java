@@ -7,7 +7,7 @@ import java.util.Collection;
 /**
  * @author Alejandro Duarte
  */
-public interface LazyCrudListener<T> extends CrudListener<T> {
+public interface LazyCrudListener<T> extends CrudListener<T>, LazyFindAllCrudOperationListener<T> {
 
     default Collection<T> findAll() {
         throw new UnsupportedOperationException("Use fetch and count methods instead.");
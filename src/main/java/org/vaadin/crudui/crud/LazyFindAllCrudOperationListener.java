@@ -1,8 +1,10 @@
 package org.vaadin.crudui.crud;
 
 import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
 
 import java.util.Collection;
+import java.util.Set;
 
 /**
  * @author Alejandro Duarte
@@ -14,4 +16,32 @@ public interface LazyFindAllCrudOperationListener<T> extends FindAllCrudOperatio
     }
 
     DataProvider<T, ?> getDataProvider();
+
+    default CountMode getCountMode() {
+        return CountMode.EXACT;
+    }
+
+    /**
+     * Returns an estimate of the number of items matching the query, used with {@link CountMode#ESTIMATED}. Listeners
+     * that can estimate the count cheaply override it; by default the items are counted exactly.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    default int getEstimatedCount(Query<T, ?> query) {
+        return ((DataProvider) getDataProvider()).size(query);
+    }
+
+    /**
+     * Called by the crud before the rows are fetched with the properties of the visible grid columns, so that the
+     * rows can be fetched with a projection of these properties only.
+     */
+    default void setVisibleProperties(Set<String> visibleProperties) {
+    }
+
+    /**
+     * Returns the complete object for a row that was fetched with a projection. Called before a form is opened.
+     */
+    default T fetchDetails(T row) {
+        return row;
+    }
+
 }
@@ -0,0 +1,20 @@
+package org.vaadin.crudui.crud;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * Updates only the given properties of an object, so that the back-end can issue narrow updates instead of merging
+ * the whole object with its associations.
+ */
+@FunctionalInterface
+public interface PartialUpdateOperationListener<T> extends Serializable {
+
+    /**
+     * @param domainObject      the object, with the new values already written
+     * @param changedProperties the properties changed in the form, never empty
+     * @return the updated object
+     */
+    T perform(T domainObject, Set<String> changedProperties);
+
+}
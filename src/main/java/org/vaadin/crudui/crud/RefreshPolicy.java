@@ -0,0 +1,14 @@
+package org.vaadin.crudui.crud;
+
+import java.io.Serializable;
+
+/**
+ * Tells whether an operation changed the ordering or the membership of the listed items in a way that requires
+ * reloading all of them instead of patching the affected item only.
+ */
+@FunctionalInterface
+public interface RefreshPolicy<T> extends Serializable {
+
+    boolean isFullRefreshRequired(CrudOperation operation, T domainObject);
+
+}
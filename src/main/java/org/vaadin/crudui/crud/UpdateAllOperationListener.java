@@ -0,0 +1,14 @@
+package org.vaadin.crudui.crud;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * Updates several objects at once and returns the updated objects.
+ */
+@FunctionalInterface
+public interface UpdateAllOperationListener<T> extends Serializable {
+
+    Collection<T> perform(Collection<T> domainObjects);
+
+}
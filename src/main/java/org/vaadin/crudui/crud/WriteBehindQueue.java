@@ -0,0 +1,196 @@
+package org.vaadin.crudui.crud;
+
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.internal.BeanUtil;
+import org.vaadin.data.bean.BeanProperties;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queues updated objects and hands them to a flusher in batches, after a delay or as soon as the batch is full.
+ * Repeated updates of the same object (as identified by the id function) are coalesced into one write. Every queued
+ * write keeps a copy of the properties the object had before it was first queued, so that it can be rolled back if
+ * the write fails. The queued objects are shown and edited in the UI, so the flusher should only read them, and
+ * restore them, while holding the session lock.
+ *
+ * @param <T> the domain type
+ */
+public class WriteBehindQueue<T> implements Serializable {
+
+    private static final ScheduledExecutorService scheduler = CrudExecutors.newScheduler("crud-write-behind");
+
+    private final Class<T> domainType;
+    private final long delay;
+    private final int batchSize;
+    private final SerializableFunction<T, Object> idFunction;
+    private final SerializableConsumer<List<PendingWrite<T>>> flusher;
+    private final Map<Object, PendingWrite<T>> pendingWrites = new LinkedHashMap<>();
+    private transient ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * @param domainType the domain type, used to copy the properties of the queued objects
+     * @param delay      milliseconds to wait after the first queued write before flushing
+     * @param batchSize  number of queued writes that triggers a flush without waiting
+     * @param idFunction returns the identity used to coalesce the writes of the same object
+     * @param flusher    writes a batch, called on the scheduler thread or on the thread that fills the batch
+     */
+    public WriteBehindQueue(Class<T> domainType, long delay, int batchSize, SerializableFunction<T, Object> idFunction, SerializableConsumer<List<PendingWrite<T>>> flusher) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Delay must not be less than zero!");
+        }
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must not be less than one!");
+        }
+
+        this.domainType = domainType;
+        this.delay = delay;
+        this.batchSize = batchSize;
+        this.idFunction = idFunction;
+        this.flusher = flusher;
+    }
+
+    /**
+     * Takes a copy of the properties of the object, to be passed to {@link #enqueue(Object, Map)} once the object has
+     * been modified.
+     */
+    public Map<String, Object> snapshot(T domainObject) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        for (PropertyDescriptor descriptor : getWritableProperties()) {
+            try {
+                snapshot.put(descriptor.getName(), descriptor.getReadMethod().invoke(domainObject));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot read property " + descriptor.getName() + " from " + domainType.getName(), e);
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Queues the write of an object. If the object is already queued, the original snapshot is kept.
+     *
+     * @param domainObject the modified object
+     * @param snapshot     the properties of the object before it was modified
+     */
+    public void enqueue(T domainObject, Map<String, Object> snapshot) {
+        List<PendingWrite<T>> batch = null;
+
+        synchronized (pendingWrites) {
+            Object id = idFunction.apply(domainObject);
+            PendingWrite<T> pending = pendingWrites.remove(id);
+            pendingWrites.put(id, new PendingWrite<>(domainObject, pending != null ? pending.snapshot : snapshot));
+
+            if (pendingWrites.size() >= batchSize) {
+                batch = drain();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (batch != null) {
+            flusher.accept(batch);
+        }
+    }
+
+    /**
+     * Hands all the queued writes to the flusher now.
+     */
+    public void flush() {
+        List<PendingWrite<T>> batch;
+        synchronized (pendingWrites) {
+            batch = drain();
+        }
+
+        if (!batch.isEmpty()) {
+            flusher.accept(batch);
+        }
+    }
+
+    public int size() {
+        synchronized (pendingWrites) {
+            return pendingWrites.size();
+        }
+    }
+
+    private List<PendingWrite<T>> drain() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+
+        List<PendingWrite<T>> batch = new ArrayList<>(pendingWrites.values());
+        pendingWrites.clear();
+        return batch;
+    }
+
+    private List<PropertyDescriptor> getWritableProperties() {
+        try {
+            List<PropertyDescriptor> properties = new ArrayList<>();
+            for (PropertyDescriptor descriptor : BeanUtil.getBeanPropertyDescriptors(domainType)) {
+                if (descriptor.getReadMethod() != null && descriptor.getWriteMethod() != null) {
+                    properties.add(descriptor);
+                }
+            }
+
+            return properties;
+        } catch (IntrospectionException e) {
+            throw new IllegalArgumentException("Cannot introspect " + domainType.getName(), e);
+        }
+    }
+
+    /**
+     * A queued write of an object, with the properties to restore if it fails.
+     *
+     * @param <T> the domain type
+     */
+    public static class PendingWrite<T> implements Serializable {
+
+        private final T domainObject;
+        private final Map<String, Object> snapshot;
+
+        private PendingWrite(T domainObject, Map<String, Object> snapshot) {
+            this.domainObject = domainObject;
+            this.snapshot = snapshot;
+        }
+
+        public T getDomainObject() {
+            return domainObject;
+        }
+
+        /**
+         * Returns a new object with the current values of the writable properties of the queued object, to be written
+         * without holding the session lock, see {@link BeanProperties#copy(Object)}.
+         */
+        public T copy() {
+            return BeanProperties.copy(domainObject);
+        }
+
+        /**
+         * Restores the properties the object had before it was queued.
+         */
+        public void rollback() {
+            try {
+                for (PropertyDescriptor descriptor : BeanUtil.getBeanPropertyDescriptors(domainObject.getClass())) {
+                    if (descriptor.getWriteMethod() != null && snapshot.containsKey(descriptor.getName())) {
+                        descriptor.getWriteMethod().invoke(domainObject, snapshot.get(descriptor.getName()));
+                    }
+                }
+            } catch (IntrospectionException | ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot roll back " + domainObject, e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,110 @@
+package org.vaadin.crudui.crud.event;
+
+import com.vaadin.flow.function.SerializableConsumer;
+import org.vaadin.crudui.crud.CrudExecutors;
+import org.vaadin.crudui.crud.CrudOperation;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects change events and hands them to a flusher at most once per delay. Events of the same id are coalesced: an
+ * update after an add stays an add of the newer object, a delete after an add cancels both, and an add after a delete
+ * becomes an update.
+ *
+ * @param <T> the domain type
+ */
+public class ChangeEventBuffer<T> implements Serializable {
+
+    private static final ScheduledExecutorService scheduler = CrudExecutors.newScheduler("crud-change-events");
+
+    private final long delay;
+    private final SerializableConsumer<List<CrudChangeEvent<T>>> flusher;
+    private final Map<Object, CrudChangeEvent<T>> pendingEvents = new LinkedHashMap<>();
+    private transient ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * @param delay   milliseconds to wait after the first buffered event before flushing
+     * @param flusher handles the coalesced events, called on the scheduler thread
+     */
+    public ChangeEventBuffer(long delay, SerializableConsumer<List<CrudChangeEvent<T>>> flusher) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Delay must not be less than zero!");
+        }
+
+        this.delay = delay;
+        this.flusher = flusher;
+    }
+
+    public void add(CrudChangeEvent<T> event) {
+        synchronized (pendingEvents) {
+            Object key = event.getId() != null ? event.getId() : new Object();
+            CrudChangeEvent<T> previous = pendingEvents.remove(key);
+            CrudChangeEvent<T> coalesced = coalesce(previous, event);
+            if (coalesced != null) {
+                pendingEvents.put(key, coalesced);
+            }
+
+            if (scheduledFlush == null && !pendingEvents.isEmpty()) {
+                scheduledFlush = scheduler.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Hands the buffered events to the flusher now.
+     */
+    public void flush() {
+        List<CrudChangeEvent<T>> events;
+        synchronized (pendingEvents) {
+            events = drain();
+        }
+
+        if (!events.isEmpty()) {
+            flusher.accept(events);
+        }
+    }
+
+    /**
+     * Discards the buffered events.
+     */
+    public void clear() {
+        synchronized (pendingEvents) {
+            drain();
+        }
+    }
+
+    private CrudChangeEvent<T> coalesce(CrudChangeEvent<T> previous, CrudChangeEvent<T> event) {
+        if (previous == null) {
+            return event;
+        }
+
+        if (previous.getOperation() == CrudOperation.ADD) {
+            return event.getOperation() == CrudOperation.DELETE ? null : event.withOperation(CrudOperation.ADD);
+        }
+
+        if (previous.getOperation() == CrudOperation.DELETE && event.getOperation() == CrudOperation.ADD) {
+            return event.withOperation(CrudOperation.UPDATE);
+        }
+
+        return event;
+    }
+
+    private List<CrudChangeEvent<T>> drain() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+
+        List<CrudChangeEvent<T>> events = new ArrayList<>(pendingEvents.values());
+        pendingEvents.clear();
+        return events;
+    }
+
+}
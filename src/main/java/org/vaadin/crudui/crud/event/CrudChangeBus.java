@@ -0,0 +1,92 @@
+package org.vaadin.crudui.crud.event;
+
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.shared.Registration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers {@link CrudChangeEvent}s to the subscribers of their domain type in this JVM, and through a
+ * {@link CrudChangeTransport}, if set, to the other nodes. Subscribers are called in the publishing thread, so they
+ * should only queue the event, as {@link ChangeEventBuffer} does.
+ */
+public class CrudChangeBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrudChangeBus.class);
+
+    private static final CrudChangeBus defaultBus = new CrudChangeBus();
+
+    private final Map<Class<?>, List<SerializableConsumer<CrudChangeEvent<?>>>> subscribers = new ConcurrentHashMap<>();
+    private volatile CrudChangeTransport transport;
+
+    /**
+     * Returns the bus shared by the whole application.
+     */
+    public static CrudChangeBus getDefault() {
+        return defaultBus;
+    }
+
+    /**
+     * Sets the transport to other nodes, stopping the previous one.
+     *
+     * @param transport the transport, or null to deliver the events in this JVM only
+     */
+    public synchronized void setTransport(CrudChangeTransport transport) {
+        if (this.transport != null) {
+            this.transport.stop();
+        }
+
+        this.transport = transport;
+        if (transport != null) {
+            transport.start(this::deliver);
+        }
+    }
+
+    public CrudChangeTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Delivers the event to the local subscribers and sends it to the other nodes.
+     */
+    public void publish(CrudChangeEvent<?> event) {
+        deliver(event);
+
+        CrudChangeTransport transport = this.transport;
+        if (transport != null) {
+            transport.send(event);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Registration subscribe(Class<T> domainType, SerializableConsumer<CrudChangeEvent<T>> subscriber) {
+        SerializableConsumer<CrudChangeEvent<?>> listener = event -> subscriber.accept((CrudChangeEvent<T>) event);
+        subscribers.computeIfAbsent(domainType, type -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> subscribers.get(domainType).remove(listener);
+    }
+
+    /**
+     * Delivers the event to the subscribers of its domain type in this JVM. A failing subscriber is logged and doesn't
+     * keep the others from being notified.
+     */
+    protected void deliver(CrudChangeEvent<?> event) {
+        List<SerializableConsumer<CrudChangeEvent<?>>> listeners = subscribers.get(event.getDomainType());
+        if (listeners == null) {
+            return;
+        }
+
+        for (SerializableConsumer<CrudChangeEvent<?>> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                logger.error("Cannot deliver " + event, e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package org.vaadin.crudui.crud.event;
+
+import org.vaadin.crudui.crud.CrudOperation;
+
+import java.io.Serializable;
+
+/**
+ * A change of a domain object made through a crud, published on a {@link CrudChangeBus} so that the cruds of other
+ * sessions showing the same domain type can update the affected row.
+ *
+ * @param <T> the domain type
+ */
+public class CrudChangeEvent<T> implements Serializable {
+
+    private final Class<T> domainType;
+    private final CrudOperation operation;
+    private final Object id;
+    private final T domainObject;
+    private final String origin;
+
+    /**
+     * @param domainType   the domain type
+     * @param operation    {@link CrudOperation#ADD}, {@link CrudOperation#UPDATE} or {@link CrudOperation#DELETE}
+     * @param id           the id of the object, as returned by the data provider of the grid
+     * @param domainObject the added or updated object, or null if the receivers must fetch the rows again
+     * @param origin       identifies the publisher, so that it can ignore its own events
+     */
+    public CrudChangeEvent(Class<T> domainType, CrudOperation operation, Object id, T domainObject, String origin) {
+        if (operation == CrudOperation.READ) {
+            throw new IllegalArgumentException("Reads are not changes!");
+        }
+
+        this.domainType = domainType;
+        this.operation = operation;
+        this.id = id;
+        this.domainObject = domainObject;
+        this.origin = origin;
+    }
+
+    public Class<T> getDomainType() {
+        return domainType;
+    }
+
+    public CrudOperation getOperation() {
+        return operation;
+    }
+
+    public Object getId() {
+        return id;
+    }
+
+    public T getDomainObject() {
+        return domainObject;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    CrudChangeEvent<T> withOperation(CrudOperation operation) {
+        return new CrudChangeEvent<>(domainType, operation, id, domainObject, origin);
+    }
+
+    @Override
+    public String toString() {
+        return operation + " " + domainType.getSimpleName() + " " + id;
+    }
+
+}
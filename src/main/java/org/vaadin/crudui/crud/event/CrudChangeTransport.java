@@ -0,0 +1,25 @@
+package org.vaadin.crudui.crud.event;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries the events of a {@link CrudChangeBus} to the other nodes of a cluster, for example through a message broker
+ * or a database notification channel. The events and their domain objects must be serialized by the transport.
+ */
+public interface CrudChangeTransport {
+
+    /**
+     * Starts receiving the events published on other nodes.
+     *
+     * @param receiver delivers a received event to the local subscribers
+     */
+    void start(Consumer<CrudChangeEvent<?>> receiver);
+
+    /**
+     * Sends an event published on this node to the other nodes.
+     */
+    void send(CrudChangeEvent<?> event);
+
+    void stop();
+
+}
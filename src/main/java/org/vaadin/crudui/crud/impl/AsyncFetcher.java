@@ -0,0 +1,93 @@
+package org.vaadin.crudui.crud.impl;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.function.SerializableBiConsumer;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.function.SerializableSupplier;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Fetches the items of a grid in the background and hands them to the UI thread, discarding the results of fetches
+ * superseded by a newer one. Holds the item to select once the items have arrived.
+ *
+ * @param <T> the domain type
+ */
+class AsyncFetcher<T> implements Serializable {
+
+    private final SerializableConsumer<Boolean> fetchingListener;
+    private int generation;
+    private boolean fetching;
+    private T pendingSelection;
+
+    /**
+     * @param fetchingListener shows or hides the loading state when a fetch starts or ends
+     */
+    AsyncFetcher(SerializableConsumer<Boolean> fetchingListener) {
+        this.fetchingListener = fetchingListener;
+    }
+
+    boolean isFetching() {
+        return fetching;
+    }
+
+    /**
+     * Sets the item to select once the running fetch completes.
+     */
+    void setPendingSelection(T pendingSelection) {
+        this.pendingSelection = pendingSelection;
+    }
+
+    /**
+     * Discards the result of the running fetch, if any.
+     */
+    void cancel() {
+        generation++;
+        pendingSelection = null;
+        setFetching(false);
+    }
+
+    /**
+     * Runs the find-all operation on the executor. Unless cancelled meanwhile, the items and the pending selection are
+     * handed to the listener with {@link UI#access}, and failures are thrown there.
+     */
+    void fetch(UI ui, Executor executor, SerializableSupplier<Collection<T>> findAll,
+               SerializableBiConsumer<Collection<T>, T> itemsListener) {
+        setFetching(true);
+        int fetchGeneration = generation;
+
+        CompletableFuture.supplyAsync(findAll::get, executor).whenComplete((items, throwable) -> {
+            try {
+                ui.access(() -> {
+                    if (fetchGeneration != generation) {
+                        return;
+                    }
+
+                    setFetching(false);
+                    T pending = pendingSelection;
+                    pendingSelection = null;
+                    if (throwable != null) {
+                        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                        throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+                    }
+
+                    itemsListener.accept(items, pending);
+                });
+            } catch (UIDetachedException ignore) {
+            }
+        });
+    }
+
+    private void setFetching(boolean fetching) {
+        if (this.fetching != fetching) {
+            this.fetching = fetching;
+            fetchingListener.accept(fetching);
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+package org.vaadin.crudui.crud.impl;
+
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.shared.Registration;
+import org.vaadin.crudui.crud.CrudOperation;
+import org.vaadin.crudui.crud.event.ChangeEventBuffer;
+import org.vaadin.crudui.crud.event.CrudChangeBus;
+import org.vaadin.crudui.crud.event.CrudChangeEvent;
+import org.vaadin.data.bean.BeanProperties;
+import org.vaadin.data.filter.Filter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * Publishes the changes made in a grid on a {@link CrudChangeBus}, and buffers the changes published by other grids
+ * until they are handed to the grid. The domain objects received are copied, so that the grid of each session holds
+ * its own instances.
+ *
+ * @param <T> the domain type
+ */
+class ChangeBusBinding<T> implements Serializable {
+
+    private final Class<T> domainType;
+    private final String origin = UUID.randomUUID().toString();
+    private CrudChangeBus changeBus;
+    private long delay;
+    private ChangeEventBuffer<T> buffer;
+    private Registration registration;
+
+    ChangeBusBinding(Class<T> domainType) {
+        this.domainType = domainType;
+    }
+
+    /**
+     * Sets the bus, unsubscribing from the previous one.
+     */
+    void setChangeBus(CrudChangeBus changeBus, long delay) {
+        unsubscribe();
+        this.changeBus = changeBus;
+        this.delay = delay;
+    }
+
+    CrudChangeBus getChangeBus() {
+        return changeBus;
+    }
+
+    /**
+     * Subscribes to the bus, if set and not subscribed yet.
+     *
+     * @param applier handles the coalesced changes of other grids, called on the scheduler thread of the buffer
+     */
+    void subscribe(SerializableConsumer<List<CrudChangeEvent<T>>> applier) {
+        if (changeBus == null || registration != null) {
+            return;
+        }
+
+        ChangeEventBuffer<T> buffer = new ChangeEventBuffer<>(delay, applier);
+        this.buffer = buffer;
+        registration = changeBus.subscribe(domainType, event -> {
+            if (!origin.equals(event.getOrigin())) {
+                buffer.add(copy(event));
+            }
+        });
+    }
+
+    void unsubscribe() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+
+        if (buffer != null) {
+            buffer.clear();
+            buffer = null;
+        }
+    }
+
+    /**
+     * Returns a change event of the grid, published on the bus if set.
+     */
+    CrudChangeEvent<T> publish(CrudOperation operation, Object id, T domainObject) {
+        CrudChangeEvent<T> event = new CrudChangeEvent<>(domainType, operation, id, domainObject, origin);
+        if (changeBus != null) {
+            changeBus.publish(event);
+        }
+
+        return event;
+    }
+
+    /**
+     * Returns whether every event tells the id and, unless it is a deletion, the domain object, so that the changes can
+     * be applied row by row.
+     */
+    boolean isComplete(List<CrudChangeEvent<T>> events) {
+        return events.stream().allMatch(event -> event.getId() != null
+                && (event.getDomainObject() != null || event.getOperation() == CrudOperation.DELETE));
+    }
+
+    /**
+     * Applies complete events to in-memory items: replaces the items with the same id, adds the new ones and removes
+     * the deleted ones, as well as the ones that don't pass the filter the items were loaded with.
+     *
+     * @param loadedFilter the filter the items were loaded with, or null if they are all loaded
+     * @param indexOf      returns the position of the item with an id, or -1
+     * @param idProvider   returns the id of an item
+     */
+    void applyTo(List<T> items, List<CrudChangeEvent<T>> events, Filter loadedFilter, ToIntFunction<Object> indexOf,
+                 SerializableFunction<T, ?> idProvider) {
+        List<T> added = new ArrayList<>();
+        Set<Object> deletedIds = new HashSet<>();
+        for (CrudChangeEvent<T> event : events) {
+            T domainObject = event.getDomainObject();
+            if (event.getOperation() == CrudOperation.DELETE || (loadedFilter != null && !loadedFilter.test(domainObject))) {
+                deletedIds.add(event.getId());
+                continue;
+            }
+
+            int index = indexOf.applyAsInt(event.getId());
+            if (index >= 0) {
+                items.set(index, domainObject);
+            } else {
+                added.add(domainObject);
+            }
+        }
+
+        items.addAll(added);
+        if (!deletedIds.isEmpty()) {
+            items.removeIf(item -> deletedIds.contains(idProvider.apply(item)));
+        }
+    }
+
+    /**
+     * Returns by how many rows complete events change the size of lazy rows shown with a filter, or nothing if the
+     * rows must be counted again because the filter doesn't tell whether an updated or deleted item was shown.
+     *
+     * @param filter the filter of the rows, or null if they are not filtered
+     */
+    OptionalInt getSizeChange(List<CrudChangeEvent<T>> events, Filter filter) {
+        int sizeChange = 0;
+        for (CrudChangeEvent<T> event : events) {
+            T domainObject = event.getDomainObject();
+            boolean shown = filter == null || (domainObject != null && filter.test(domainObject));
+            if (event.getOperation() == CrudOperation.ADD) {
+                sizeChange += shown ? 1 : 0;
+            } else if (filter != null && (event.getOperation() != CrudOperation.DELETE || domainObject == null)) {
+                return OptionalInt.empty();
+            } else if (event.getOperation() == CrudOperation.DELETE) {
+                sizeChange -= shown ? 1 : 0;
+            }
+        }
+
+        return OptionalInt.of(sizeChange);
+    }
+
+    /**
+     * Returns the event with a copy of its domain object, or without the object if it cannot be copied, so that the
+     * grid is refreshed instead.
+     */
+    private CrudChangeEvent<T> copy(CrudChangeEvent<T> event) {
+        T domainObject = event.getDomainObject();
+        if (domainObject == null) {
+            return event;
+        }
+
+        T copy;
+        try {
+            copy = BeanProperties.copy(domainObject);
+        } catch (IllegalArgumentException e) {
+            copy = null;
+        }
+
+        return new CrudChangeEvent<>(event.getDomainType(), event.getOperation(), event.getId(), copy, event.getOrigin());
+    }
+
+}
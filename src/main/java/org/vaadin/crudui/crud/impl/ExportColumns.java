@@ -0,0 +1,85 @@
+package org.vaadin.crudui.crud.impl;
+
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.data.renderer.Renderer;
+import com.vaadin.flow.function.SerializableSupplier;
+import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.shared.util.SharedUtil;
+import org.vaadin.data.export.DataProviderExporter;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the headers and values the columns of a grid are exported with, and serves the exported items as a download.
+ *
+ * @param <T> the domain type
+ */
+class ExportColumns<T> implements Serializable {
+
+    private final Map<Grid.Column<T>, String> headers = new HashMap<>();
+    private final Map<Grid.Column<T>, ValueProvider<T, ?>> valueProviders = new HashMap<>();
+
+    void setColumn(Grid.Column<T> column, String header, ValueProvider<T, ?> valueProvider) {
+        if (header != null) {
+            headers.put(column, header);
+        }
+
+        if (valueProvider != null) {
+            valueProviders.put(column, valueProvider);
+        }
+    }
+
+    /**
+     * Returns the header set for a column, or the human friendly name of its key.
+     */
+    String getHeader(Grid.Column<T> column) {
+        String header = headers.get(column);
+        if (header != null) {
+            return header;
+        }
+
+        return column.getKey() != null ? SharedUtil.propertyIdToHumanFriendly(column.getKey()) : "";
+    }
+
+    /**
+     * Returns the value provider set for a column, or the one its renderer shows, or null if the column cannot be
+     * exported.
+     */
+    ValueProvider<T, ?> getValueProvider(Grid.Column<T> column) {
+        ValueProvider<T, ?> valueProvider = valueProviders.get(column);
+        if (valueProvider != null) {
+            return valueProvider;
+        }
+
+        Renderer<T> renderer = column.getRenderer();
+        Map<String, ValueProvider<T, ?>> rendererValueProviders = renderer != null ? renderer.getValueProviders() : null;
+        return rendererValueProviders != null && rendererValueProviders.size() == 1
+                ? rendererValueProviders.values().iterator().next() : null;
+    }
+
+    /**
+     * Returns a resource that writes the items of the exporter built for each download. The exporter is built while
+     * holding the session lock, and fetches each page while holding it again.
+     */
+    StreamResource buildResource(String fileName, char delimiter, boolean gzip,
+                                 SerializableSupplier<DataProviderExporter<T, ?>> exporterBuilder) {
+        StreamResource resource = new StreamResource(fileName, (outputStream, session) -> {
+            DataProviderExporter<T, ?> exporter;
+            session.lock();
+            try {
+                exporter = exporterBuilder.get().setDelimiter(delimiter).setGzip(gzip).setLock(session.getLockInstance());
+            } finally {
+                session.unlock();
+            }
+
+            exporter.write(outputStream);
+        });
+        resource.setContentType(gzip ? "application/gzip" : delimiter == DataProviderExporter.TSV ? "text/tab-separated-values" : "text/csv");
+
+        return resource;
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.vaadin.crudui.crud.impl;
+
+import com.vaadin.flow.component.HasValue;
+import com.vaadin.flow.data.value.HasValueChangeMode;
+import com.vaadin.flow.data.value.ValueChangeMode;
+import com.vaadin.flow.function.SerializableFunction;
+import org.vaadin.data.filter.Filter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Holds the filter fields of a grid with the last values applied, and combines them with the filter set on the grid.
+ * Field values are normalized before being compared, so that the grid is refreshed only when the effective value of
+ * the filters changes.
+ */
+class FilterFields implements Serializable {
+
+    private final List<HasValue<?, ?>> fields = new ArrayList<>();
+    private final List<SerializableFunction<Object, Filter>> filterFactories = new ArrayList<>();
+    private List<Object> values = new ArrayList<>();
+    private Filter filter;
+    private int debounceTimeout = 400;
+    private boolean refreshPending;
+
+    /**
+     * Adds a field, switching text fields left with the default {@link ValueChangeMode#ON_CHANGE} mode to a lazy mode
+     * with the debounce timeout.
+     */
+    @SuppressWarnings("unchecked")
+    <V> void add(HasValue<?, V> field, SerializableFunction<V, Filter> filterFactory) {
+        if (field instanceof HasValueChangeMode && ((HasValueChangeMode) field).getValueChangeMode() == ValueChangeMode.ON_CHANGE) {
+            HasValueChangeMode valueChangeMode = (HasValueChangeMode) field;
+            valueChangeMode.setValueChangeMode(ValueChangeMode.LAZY);
+            valueChangeMode.setValueChangeTimeout(debounceTimeout);
+        }
+
+        fields.add(field);
+        filterFactories.add((SerializableFunction<Object, Filter>) filterFactory);
+        values = readValues();
+    }
+
+    void setDebounceTimeout(int debounceTimeout) {
+        this.debounceTimeout = debounceTimeout;
+    }
+
+    /**
+     * Marks a refresh as pending.
+     *
+     * @return whether none was pending yet
+     */
+    boolean requestRefresh() {
+        if (refreshPending) {
+            return false;
+        }
+
+        refreshPending = true;
+        return true;
+    }
+
+    /**
+     * Applies the given field values and clears the pending refresh.
+     *
+     * @return whether the values changed
+     */
+    boolean applyValues(List<Object> values) {
+        refreshPending = false;
+        if (values.equals(this.values)) {
+            return false;
+        }
+
+        this.values = values;
+        return true;
+    }
+
+    /**
+     * @return whether the filter changed
+     */
+    boolean setFilter(Filter filter) {
+        if (Objects.equals(this.filter, filter)) {
+            return false;
+        }
+
+        this.filter = filter;
+        return true;
+    }
+
+    Filter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Returns whether every field has a filter factory, so that the filters tell the items shown.
+     */
+    boolean isFilteredByFactories() {
+        return !filterFactories.contains(null);
+    }
+
+    /**
+     * Returns whether a field without a filter factory has a value, so that only the find-all operation can tell the
+     * items shown.
+     */
+    boolean hasValueWithoutFactory() {
+        for (int i = 0; i < filterFactories.size() && i < values.size(); i++) {
+            if (filterFactories.get(i) == null && values.get(i) != null) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the filter combined with the filters of the applied field values, or null if there is none.
+     */
+    Filter getEffectiveFilter() {
+        List<Filter> filters = new ArrayList<>();
+        filters.add(filter);
+
+        for (int i = 0; i < filterFactories.size() && i < values.size(); i++) {
+            SerializableFunction<Object, Filter> filterFactory = filterFactories.get(i);
+            Object value = values.get(i);
+            if (filterFactory != null && value != null) {
+                filters.add(filterFactory.apply(value));
+            }
+        }
+
+        return Filter.and(filters.toArray(new Filter[0]));
+    }
+
+    /**
+     * Returns the current values of the fields, trimmed, with empty strings and collections as null.
+     */
+    List<Object> readValues() {
+        List<Object> values = new ArrayList<>(fields.size());
+        for (HasValue<?, ?> field : fields) {
+            Object value = field.getValue();
+            if (value instanceof String) {
+                value = ((String) value).trim();
+                value = ((String) value).isEmpty() ? null : value;
+            } else if (value instanceof Collection && ((Collection<?>) value).isEmpty()) {
+                value = null;
+            }
+            values.add(value);
+        }
+
+        return values;
+    }
+
+}
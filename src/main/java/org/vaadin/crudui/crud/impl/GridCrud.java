@@ -4,20 +4,68 @@ import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.ClickEvent;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentEventListener;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.HasValue;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Anchor;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.upload.Upload;
+import com.vaadin.flow.component.upload.receivers.FileBuffer;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.ListDataProvider;
 import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.value.ValueChangeMode;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializablePredicate;
+import com.vaadin.flow.function.SerializableSupplier;
+import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.StreamResource;
 import lombok.Getter;
 import lombok.Setter;
 import org.vaadin.crudui.crud.*;
+import org.vaadin.crudui.crud.event.CrudChangeBus;
+import org.vaadin.crudui.crud.event.CrudChangeEvent;
 import org.vaadin.crudui.form.CrudFormFactory;
 import org.vaadin.crudui.form.impl.form.factory.DefaultCrudFormFactory;
 import org.vaadin.crudui.layout.CrudLayout;
 import org.vaadin.crudui.layout.impl.WindowBasedCrudLayout;
+import org.vaadin.data.bean.BeanProperties;
+import org.vaadin.data.export.DataProviderExporter;
+import org.vaadin.data.filter.Filter;
+import org.vaadin.data.filter.FilteringDataProvider;
+import org.vaadin.data.importer.DelimitedImporter;
+import org.vaadin.data.importer.ImportReport;
+import org.vaadin.data.provider.CacheStatistics;
+import org.vaadin.data.provider.CancellationStatistics;
+import org.vaadin.data.provider.CancellationToken;
+import org.vaadin.data.provider.CountCachingDataProvider;
+import org.vaadin.data.provider.IndexedListDataProvider;
+import org.vaadin.data.snapshot.SharedSnapshotCache;
+import org.vaadin.data.snapshot.SnapshotView;
 
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static lombok.AccessLevel.PROTECTED;
 
@@ -30,6 +78,42 @@ public class GridCrud<T> extends AbstractCrud<T> {
     @Setter
     private String rowCountCaption = "%d items(s) found";
     @Getter(PROTECTED)
+    @Setter
+    private String estimatedRowCountCaption = "About %d items(s) found";
+    @Getter(PROTECTED)
+    @Setter
+    private String partialRowCountCaption = "%d+ items(s) found";
+    @Getter(PROTECTED)
+    @Setter
+    private String countingCaption = "Counting items...";
+    @Getter(PROTECTED)
+    @Setter
+    private String deleteAllConfirmationCaption = "Are you sure you want to delete %d items?";
+    @Getter(PROTECTED)
+    @Setter
+    private String deleteAllCaption = "Delete %d items";
+    @Getter(PROTECTED)
+    @Setter
+    private String deletedAllMessage = "%d items deleted";
+    @Getter(PROTECTED)
+    @Setter
+    private String deleteAllButtonCaption = "Yes, delete";
+    @Getter(PROTECTED)
+    @Setter
+    private String cancelButtonCaption = "Cancel";
+    @Getter(PROTECTED)
+    @Setter
+    private String importCaption = "Import";
+    @Getter(PROTECTED)
+    @Setter
+    private String importingCaption = "%d items(s) imported, %d rejected...";
+    @Getter(PROTECTED)
+    @Setter
+    private String importedCaption = "%d items(s) imported, %d rejected";
+    @Getter(PROTECTED)
+    @Setter
+    private String rejectedRowsCaption = "Download rejected rows";
+    @Getter(PROTECTED)
     @Setter(PROTECTED)
     private String savedMessage = "Item saved";
     @Getter(PROTECTED)
@@ -37,6 +121,12 @@ public class GridCrud<T> extends AbstractCrud<T> {
     private String deletedMessage = "Item deleted";
     @Getter(PROTECTED)
     @Setter(PROTECTED)
+    private String queuedMessage = "Item queued for saving";
+    @Getter(PROTECTED)
+    @Setter(PROTECTED)
+    private String writtenBehindMessage = "%d item(s) saved";
+    @Getter(PROTECTED)
+    @Setter(PROTECTED)
     private boolean showNotifications = true;
 
     @Getter(PROTECTED)
@@ -59,6 +149,46 @@ public class GridCrud<T> extends AbstractCrud<T> {
 
     private boolean clickRowToUpdate;
 
+    private boolean multiSelect;
+
+    private final FilterFields filterFields = new FilterFields();
+
+    private FilteringDataProvider<T> filteringDataProvider;
+
+    private boolean incrementalUpdates;
+
+    private RefreshPolicy<T> refreshPolicy = (operation, domainObject) -> false;
+
+    private ListDataProvider<T> inMemoryDataProvider;
+
+    private DataProvider<T, ?> backEndDataProvider;
+
+    private final LazyQueryChain<T> lazyQueries = new LazyQueryChain<>();
+
+    private final RowCount<T> rowCount = new RowCount<>();
+
+    private boolean asyncFetch;
+
+    private final AsyncFetcher<T> fetcher = new AsyncFetcher<>(this::setFetching);
+
+    private final ChangeBusBinding<T> changeBusBinding = new ChangeBusBinding<>(domainType);
+
+    private int maxIncrementalChanges = 50;
+
+    private SharedSnapshotBinding<T> sharedSnapshot;
+
+    private boolean indexedInMemoryData;
+
+    private final ExportColumns<T> exportColumns = new ExportColumns<>();
+
+    private HybridLoader<T> hybridLoader;
+
+    private final ItemIdLookup<T> itemIds = new ItemIdLookup<>();
+
+    private List<T> selectionToRestore;
+
+    private boolean restoringSelection;
+
     public GridCrud(Class<T> domainType) {
         this(domainType, new WindowBasedCrudLayout(), new DefaultCrudFormFactory<>(domainType), null);
     }
@@ -132,6 +262,283 @@ public class GridCrud<T> extends AbstractCrud<T> {
     protected void onAttach(AttachEvent attachEvent) {
         super.onAttach(attachEvent);
         refreshGrid();
+        subscribeToChanges(attachEvent.getUI());
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        unsubscribeFromChanges();
+        if (sharedSnapshot != null) {
+            sharedSnapshot.release();
+        }
+        super.onDetach(detachEvent);
+    }
+
+    /**
+     * Shows the items returned by a loader from a snapshot shared by the grids of every session that use the same key,
+     * instead of each grid holding its own copy. The loader is called only when no attached grid holds the snapshot,
+     * or when the refresh button is clicked, and replaces the find-all operation. Changes made in the crud are applied
+     * to the snapshot; set a {@link #setChangeBus(CrudChangeBus, long) change bus} for the other grids to show them
+     * right away. Forms edit a {@link BeanProperties#copy(Object) copy} of the shared item, which replaces it in the
+     * snapshot once saved; set an {@link #setIdGetter(SerializableFunction) id getter}, unless the items are equal by
+     * id, for the copy to be recognized as the same item.
+     * <p>
+     * The loader is kept by the application-wide cache and called from any session, so it must not refer to the
+     * session, the UI or this crud, for example {@code () -> userService.findAll()} with a singleton service. Use a key
+     * that names the rows the loader returns, for example the domain type, or a list of the domain type and the tenant
+     * when users see different rows.
+     *
+     * @param snapshotCache the cache, for example {@link SharedSnapshotCache#getDefault()}, or null to fetch the items
+     *                      for this grid only with the find-all operation
+     * @param key           names the rows returned by the loader
+     * @param loader        loads all the rows of the key
+     */
+    public void setSharedSnapshot(SharedSnapshotCache snapshotCache, Object key, SerializableSupplier<Collection<T>> loader) {
+        setSharedSnapshot(snapshotCache, key, loader, null);
+    }
+
+    /**
+     * Shows the items returned by a loader from a shared snapshot, as {@link #setSharedSnapshot(SharedSnapshotCache,
+     * Object, SerializableSupplier)} does, and adds the items received from the change bus to the snapshot if they pass
+     * the membership test, instead of loading the rows again.
+     *
+     * @param membership tells whether an item belongs to the rows of the key, must not refer to the session either
+     */
+    public void setSharedSnapshot(SharedSnapshotCache snapshotCache, Object key, SerializableSupplier<Collection<T>> loader,
+                                  SerializablePredicate<T> membership) {
+        if (sharedSnapshot != null) {
+            sharedSnapshot.release();
+        }
+
+        sharedSnapshot = snapshotCache != null ? new SharedSnapshotBinding<>(snapshotCache, key, domainType, loader, membership) : null;
+    }
+
+    /**
+     * Sorts and filters the items of non-lazy find-all operations through indexes built once per sorted column and
+     * filter, instead of comparing the items on every fetch. Columns must be sorted by the properties named by their
+     * keys. Takes effect on the next {@link #refreshGrid()}.
+     *
+     * @see IndexedListDataProvider
+     */
+    public void setIndexedInMemoryData(boolean indexedInMemoryData) {
+        this.indexedInMemoryData = indexedInMemoryData;
+    }
+
+    public boolean isIndexedInMemoryData() {
+        return indexedInMemoryData;
+    }
+
+    protected boolean isSharedSnapshot() {
+        return sharedSnapshot != null && inMemoryDataProvider != null && sharedSnapshot.isView(inMemoryDataProvider.getItems());
+    }
+
+    /**
+     * Returns a copy of a row of the shared snapshot to be edited by a form, so that the items shown by the other
+     * sessions change only through the snapshot once the operation succeeds. Returns the object itself if it is not a
+     * shared row, for example when a detail loader returned another object, or if the copy would not be recognized as
+     * the same item.
+     */
+    protected T copyIfShared(T row, T domainObject) {
+        if (row == null || domainObject != row || !isSharedSnapshot()) {
+            return domainObject;
+        }
+
+        return sharedSnapshot.copy(row, this::getId);
+    }
+
+    /**
+     * Shows the current version of the shared snapshot in the rows, keeping the data provider of the grid.
+     */
+    protected void refreshSharedSnapshot() {
+        if (sharedSnapshot.update()) {
+            itemIds.invalidate();
+            inMemoryDataProvider.refreshAll();
+        }
+    }
+
+    /**
+     * Publishes the changes made in this crud on the given bus, and applies the changes published by other cruds of
+     * the same domain type to the rows of the grid. Received changes are coalesced and applied at most once per delay,
+     * and the grid is refreshed instead when more than {@link #setMaxIncrementalChanges(int) a few} arrive at once.
+     * Received domain objects are copied with {@link BeanProperties#copy(Object)}, which unwraps
+     * JPA proxies, and the grid is refreshed instead for objects that cannot be copied. The UI must use server push for
+     * the changes to show up before the next round trip.
+     *
+     * @param changeBus the bus, for example {@link CrudChangeBus#getDefault()}, or null to stop publishing and applying
+     *                  changes
+     * @param delay     milliseconds to wait after a received change before applying it with the ones that follow
+     */
+    public void setChangeBus(CrudChangeBus changeBus, long delay) {
+        changeBusBinding.setChangeBus(changeBus, delay);
+
+        if (isAttached()) {
+            getUI().ifPresent(this::subscribeToChanges);
+        }
+    }
+
+    public CrudChangeBus getChangeBus() {
+        return changeBusBinding.getChangeBus();
+    }
+
+    /**
+     * Sets the number of received changes above which the grid is refreshed instead of updated row by row.
+     */
+    public void setMaxIncrementalChanges(int maxIncrementalChanges) {
+        this.maxIncrementalChanges = maxIncrementalChanges;
+    }
+
+    protected void subscribeToChanges(UI ui) {
+        changeBusBinding.subscribe(events -> access(ui, () -> applyChanges(events)));
+    }
+
+    protected void unsubscribeFromChanges() {
+        changeBusBinding.unsubscribe();
+    }
+
+    /**
+     * Publishes a change made in this crud, if a change bus is set.
+     */
+    protected void publishChange(CrudOperation operation, T domainObject) {
+        if (domainObject == null) {
+            return;
+        }
+
+        CrudChangeEvent<T> event = changeBusBinding.publish(operation, getId(domainObject), domainObject);
+        if (sharedSnapshot != null) {
+            sharedSnapshot.apply(event, changeBusBinding.getChangeBus());
+        }
+    }
+
+    /**
+     * Applies changes published by other cruds, in the UI thread. Lazy rows are counted again when the filter doesn't
+     * tell whether a changed item is shown.
+     */
+    protected void applyChanges(List<CrudChangeEvent<T>> events) {
+        for (CrudChangeEvent<T> event : events) {
+            if (event.getDomainObject() != null) {
+                evictDetails(event.getDomainObject());
+            } else {
+                clearDetails();
+            }
+        }
+
+        if (isSharedSnapshot()) {
+            refreshSharedSnapshot();
+            return;
+        }
+
+        if (!changeBusBinding.isComplete(events) || events.size() > maxIncrementalChanges || (inMemoryDataProvider == null && rowCount.getDataProvider() == null)
+                || isFilteredByListener()) {
+            refreshGrid();
+            return;
+        }
+
+        if (inMemoryDataProvider != null) {
+            applyInMemoryChanges(events);
+        } else {
+            applyLazyChanges(events);
+        }
+    }
+
+    private void applyInMemoryChanges(List<CrudChangeEvent<T>> events) {
+        List<T> items = (List<T>) inMemoryDataProvider.getItems();
+        Filter loadedFilter = isHybridInMemory() ? hybridLoader.getLoadedFilter() : null;
+        changeBusBinding.applyTo(items, events, loadedFilter, id -> indexOfId(items, id), this::getId);
+        itemIds.invalidate();
+        inMemoryDataProvider.refreshAll();
+    }
+
+    private void applyLazyChanges(List<CrudChangeEvent<T>> events) {
+        OptionalInt sizeChange = changeBusBinding.getSizeChange(events, getEffectiveFilter());
+
+        invalidatePageCache();
+        CountCachingDataProvider<T, ?> countCaching = rowCount.getDataProvider();
+        if (!sizeChange.isPresent()) {
+            countCaching.invalidateSize();
+            countCaching.refreshRows();
+        } else if (sizeChange.getAsInt() != 0) {
+            countCaching.adjustSize(sizeChange.getAsInt());
+            countCaching.refreshRows();
+        } else {
+            events.forEach(event -> grid.getDataProvider().refreshItem(event.getDomainObject()));
+        }
+    }
+
+    /**
+     * Returns whether the rows are filtered by the find-all operation itself, so that only the back-end can tell which
+     * items are shown: the values of the filter fields without a filter factory, and the filters of lazy listeners that are not
+     * {@link FilterableFindAllCrudOperationListener filterable}.
+     */
+    protected boolean isFilteredByListener() {
+        return filterFields.hasValueWithoutFactory()
+                || (inMemoryDataProvider == null && filteringDataProvider == null && getEffectiveFilter() != null);
+    }
+
+    /**
+     * Returns the position of the in-memory item with the given id, or -1 if there is none. With an
+     * {@link #setIdGetter(SerializableFunction) id getter}, the positions are looked up in an index of the items.
+     */
+    protected int indexOfId(List<T> items, Object id) {
+        return itemIds.indexOf(items, id, this::getId);
+    }
+
+    /**
+     * Identifies the items by the given id, for example {@code User::getId}, instead of their {@code equals} and
+     * {@code hashCode}. The id is used by the data provider of the grid, so that selections and refreshed rows match
+     * instances fetched again, to look up in-memory items, and to select the same items again after
+     * {@link #refreshGrid()} without closing the open form. Takes effect on the next refresh.
+     *
+     * @param idGetter returns the id of an item, or null to use the items themselves
+     */
+    public void setIdGetter(SerializableFunction<T, ?> idGetter) {
+        itemIds.setIdGetter(idGetter);
+    }
+
+    public SerializableFunction<T, ?> getIdGetter() {
+        return itemIds.getIdGetter();
+    }
+
+    protected <F> DataProvider<T, F> identify(DataProvider<T, F> dataProvider) {
+        return itemIds.identify(dataProvider);
+    }
+
+    /**
+     * Sets the data provider of the grid and selects again the items selected before the refresh. The selection
+     * listener ignores the items deselected and selected again meanwhile, so that open forms are kept, and only hides
+     * the form if none of them is found anymore.
+     */
+    protected void setGridDataProvider(DataProvider<T, ?> dataProvider) {
+        boolean restoring = selectionToRestore != null && !selectionToRestore.isEmpty();
+        restoringSelection = restoring;
+        try {
+            grid.setDataProvider(dataProvider);
+            restoreSelection();
+        } finally {
+            restoringSelection = false;
+        }
+
+        if (restoring) {
+            if (grid.getSelectedItems().isEmpty()) {
+                gridSelectionChanged();
+            } else {
+                updateButtons();
+            }
+        }
+    }
+
+    /**
+     * Selects again the items selected before a refresh, with the instances of the new in-memory items if any.
+     */
+    protected void restoreSelection() {
+        List<T> selected = selectionToRestore;
+        selectionToRestore = null;
+        if (selected == null || selected.isEmpty()) {
+            return;
+        }
+
+        List<T> current = inMemoryDataProvider != null
+                ? itemIds.findCurrent(new ArrayList<>(inMemoryDataProvider.getItems()), selected) : selected;
+        current.forEach(grid::select);
     }
 
     @Override
@@ -155,37 +562,812 @@ public class GridCrud<T> extends AbstractCrud<T> {
     }
 
     public void refreshGrid() {
-        if (LazyFindAllCrudOperationListener.class.isAssignableFrom(findAllOperation.getClass())) {
-            LazyFindAllCrudOperationListener findAll = (LazyFindAllCrudOperationListener) findAllOperation;
+        fetcher.cancel();
+        if (hybridLoader != null) {
+            hybridLoader.reset();
+        }
+        if (getIdGetter() != null && selectionToRestore == null) {
+            selectionToRestore = new ArrayList<>(grid.getSelectedItems());
+        }
+
+        if (sharedSnapshot != null) {
+            setItems(sharedSnapshot.acquire(getIdGetter(), changeBusBinding.getChangeBus()));
+
+        } else if (LazyFindAllCrudOperationListener.class.isAssignableFrom(findAllOperation.getClass())) {
+            LazyFindAllCrudOperationListener<T> findAll = (LazyFindAllCrudOperationListener<T>) findAllOperation;
+            findAll.setVisibleProperties(getVisibleProperties());
+
+            if (hybridLoader != null && loadInMemory(findAll)) {
+                return;
+            }
 
-            grid.setDataProvider(findAll.getDataProvider());
+            inMemoryDataProvider = null;
+            rowCount.startLazy(findAll.getCountMode());
+            backEndDataProvider = findAll.getDataProvider();
+
+            if (findAll instanceof FilterableFindAllCrudOperationListener) {
+                DataProvider<T, Filter> filterable = ((FilterableFindAllCrudOperationListener<T>) findAll).getDataProvider();
+                filteringDataProvider = new FilteringDataProvider<>(decorateDataProvider(identify(filterable), findAll), getEffectiveFilter());
+                setGridDataProvider(filteringDataProvider);
+            } else {
+                filteringDataProvider = null;
+                setGridDataProvider(decorateDataProvider(identify(backEndDataProvider), findAll));
+            }
+
+        } else if (asyncFetch && UI.getCurrent() != null) {
+            fetchAsync(UI.getCurrent());
 
         } else {
-            Collection<T> items = findAllOperation.findAll();
-            grid.setItems(items);
+            setItems(findAllOperation.findAll());
+        }
+    }
+
+    /**
+     * Loads the items of lazy find-all operations into memory when there are no more than the given number, so that
+     * small results are sorted and filtered without round trips to the back-end, and pages them lazily otherwise. The
+     * items are not counted for this: one item more than the threshold is fetched on refresh, unless the estimate of a
+     * listener with {@link CountMode#ESTIMATED} is above the threshold. Filter changes are passed to the lazy data
+     * provider, and the items are loaded into memory once the grid counts no more than the threshold with the new
+     * filter. Items in memory are filtered locally when all of them are loaded and the filter only compares visible
+     * columns, which are the properties lazy listeners may fetch alone.
+     *
+     * @param inMemoryThreshold the maximum number of items to load, or 0 to always page lazily
+     */
+    public void setInMemoryThreshold(int inMemoryThreshold) {
+        if (inMemoryThreshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative!");
+        }
+
+        hybridLoader = inMemoryThreshold > 0 ? new HybridLoader<>(inMemoryThreshold) : null;
+    }
+
+    public int getInMemoryThreshold() {
+        return hybridLoader != null ? hybridLoader.getThreshold() : 0;
+    }
+
+    /**
+     * Returns whether the items of the lazy find-all operation are currently held in memory.
+     */
+    public boolean isHybridInMemory() {
+        return hybridLoader != null && hybridLoader.isInMemory();
+    }
+
+    /**
+     * Loads all the items of a lazy find-all operation into memory if they are no more than the threshold.
+     *
+     * @return whether the items were loaded
+     */
+    protected boolean loadInMemory(LazyFindAllCrudOperationListener<T> findAll) {
+        Filter effectiveFilter = findAll instanceof FilterableFindAllCrudOperationListener ? getEffectiveFilter() : null;
+        CountMode mode = rowCount.resolve(findAll.getCountMode());
+
+        List<T> items = hybridLoader.load(findAll, effectiveFilter, mode, getVisibleProperties());
+        if (items == null) {
+            return false;
+        }
+
+        setItems(items);
+        return true;
+    }
+
+    /**
+     * Loads the lazy items into memory, if the size counted by the grid for the current filter is no more than the
+     * threshold.
+     */
+    protected void loadInMemoryIfBelowThreshold(CountCachingDataProvider<T, ?> countCaching) {
+        if (hybridLoader == null || !rowCount.isCurrent(countCaching) || filteringDataProvider == null) {
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        int size = ((CountCachingDataProvider<T, Filter>) countCaching).getCachedSize(filteringDataProvider.getFilter());
+        if (hybridLoader.isBelowThreshold(size)) {
+            refreshGrid();
+        }
+    }
+
+    protected void setItems(Collection<T> items) {
+        rowCount.startInMemory();
+        lazyQueries.reset();
+        filteringDataProvider = null;
+        Collection<T> collection = incrementalUpdates && !(items instanceof SnapshotView) ? new ArrayList<>(items) : items;
+        inMemoryDataProvider = indexedInMemoryData ? new IndexedListDataProvider<>(domainType, collection, getLocale()) : DataProvider.ofCollection(collection);
+        backEndDataProvider = inMemoryDataProvider;
+        setInMemoryFilter(getEffectiveFilter());
+        itemIds.invalidate();
+        setGridDataProvider(identify(inMemoryDataProvider));
+    }
+
+    protected void fetchAsync(UI ui) {
+        fetcher.fetch(ui, executor, findAllOperation::findAll, (items, pending) -> {
+            setItems(items);
+            if (pending != null) {
+                T current = findCurrent(pending);
+                if (current != null) {
+                    selectAndScrollTo(current);
+                }
+            }
+            if (rowCount.takePending()) {
+                showRowCount();
+            }
+        });
+    }
+
+    /**
+     * Shows or hides the loading state while the items are fetched in the background.
+     */
+    protected void setFetching(boolean fetching) {
+        grid.setEnabled(!fetching);
+        findAllButton.setEnabled(!fetching);
+    }
+
+    public boolean isFetching() {
+        return fetcher.isFetching();
+    }
+
+    /**
+     * Enables or disables asynchronous fetching. When enabled, {@link FindAllCrudOperationListener#findAll()} runs on
+     * the crud's executor instead of the request thread and the grid is disabled until the items arrive. Results of a
+     * refresh superseded by a newer one are discarded. Lazy listeners keep fetching their pages on demand; combine
+     * them with {@link CountMode#ASYNC} to move the count off the request thread. The UI must use server push for the
+     * items to show up before the next round trip.
+     */
+    public void setAsyncFetch(boolean asyncFetch) {
+        this.asyncFetch = asyncFetch;
+    }
+
+    public boolean isAsyncFetch() {
+        return asyncFetch;
+    }
+
+    protected <F> DataProvider<T, F> decorateDataProvider(DataProvider<T, F> dataProvider, LazyFindAllCrudOperationListener<T> findAll) {
+        DataProvider<T, F> decorated = lazyQueries.decorate(dataProvider, executor, grid.getPageSize());
+        if (dataProvider.isInMemory()) {
+            return dataProvider;
+        }
+
+        boolean cacheCount = incrementalUpdates || hybridLoader != null;
+        return rowCount.decorate(decorated, cacheCount, countCaching -> configureCount(countCaching, findAll));
+    }
+
+    protected <F> void configureCount(CountCachingDataProvider<T, F> countCaching, LazyFindAllCrudOperationListener<T> findAll) {
+        CountMode activeCountMode = rowCount.getActiveCountMode();
+        if (activeCountMode == CountMode.ESTIMATED) {
+            countCaching.setCounter(findAll::getEstimatedCount);
+
+        } else if (activeCountMode == CountMode.NONE) {
+            UI ui = UI.getCurrent();
+            countCaching.setGrowingSize(grid.getPageSize(), size -> sizeChanged(ui, countCaching));
+
+        } else if (activeCountMode == CountMode.ASYNC) {
+            UI ui = UI.getCurrent();
+            if (ui != null) {
+                countCaching.setAsyncCount(executor, grid.getPageSize(), size -> ui.access(() -> {
+                    if (rowCount.isCurrent(countCaching)) {
+                        countCaching.refreshRows();
+                        if (rowCount.takePending()) {
+                            showNotification(String.format(rowCountCaption, size));
+                        }
+                        loadInMemoryIfBelowThreshold(countCaching);
+                    }
+                }), failure -> ui.access(() -> {
+                    if (rowCount.isCurrent(countCaching)) {
+                        rowCount.setPending(false);
+                        throw failure;
+                    }
+                }));
+            }
+        }
+    }
+
+    /**
+     * Refreshes the rows when the size of a count-free data provider changes. Sizes that change while the grid
+     * fetches its rows are applied before the response is sent, other ones with {@link UI#access}.
+     */
+    protected void sizeChanged(UI ui, CountCachingDataProvider<T, ?> countCaching) {
+        UI current = UI.getCurrent();
+        if (current != null && current.getSession().hasLock()) {
+            current.beforeClientResponse(grid, context -> {
+                if (rowCount.isCurrent(countCaching)) {
+                    countCaching.refreshRows();
+                }
+            });
+        } else if (ui != null) {
+            try {
+                ui.access(() -> {
+                    if (rowCount.isCurrent(countCaching)) {
+                        countCaching.refreshRows();
+                    }
+                });
+            } catch (UIDetachedException ignore) {
+            }
         }
     }
 
+    /**
+     * Sets how lazy listeners count the items. Asynchronous counts are pushed to the browser when the UI uses server
+     * push, otherwise they show up on the next round trip.
+     *
+     * @param countMode the count mode, or null to use the one returned by the lazy listener
+     */
+    public void setCountMode(CountMode countMode) {
+        rowCount.setCountMode(countMode);
+    }
+
+    public CountMode getCountMode() {
+        return rowCount.getCountMode();
+    }
+
+    /**
+     * Caches the rows fetched from lazy data providers in blocks of the given size. The cache is dropped when the
+     * grid is refreshed and after add and delete operations.
+     *
+     * @param blockSize  the number of rows per block, or 0 to disable the cache
+     * @param maxBlocks  the maximum number of blocks to keep, least recently used blocks are evicted first
+     * @param timeToLive milliseconds after which a block is fetched again, or 0 to keep blocks until evicted
+     */
+    public void setPageCache(int blockSize, int maxBlocks, long timeToLive) {
+        lazyQueries.setPageCache(blockSize, maxBlocks, timeToLive);
+    }
+
+    /**
+     * Cancels the lazy queries that take longer than the given time. Fetch and count callbacks get the
+     * {@link CancellationToken} of their query with {@link CancellationToken#current()} and can abort the database
+     * query with it. A fetch of the grid that times out shows no rows instead of an error, and is run again on the
+     * next refresh.
+     *
+     * @param queryTimeout milliseconds after which a query is cancelled, or 0 for no timeout
+     */
+    public void setQueryTimeout(long queryTimeout) {
+        lazyQueries.setQueryTimeout(queryTimeout);
+    }
+
+    /**
+     * Cancels the running lazy fetches whose rows are no longer needed: when the grid is refreshed, when the sort
+     * changes, and when the user scrolls far away from the rows being fetched. Pages prefetched in the background
+     * never cancel a fetch the grid is waiting on.
+     */
+    public void setCancelSupersededQueries(boolean cancelSupersededQueries) {
+        lazyQueries.setCancelSupersededQueries(cancelSupersededQueries);
+    }
+
+    public CancellationStatistics getQueryStatistics() {
+        return lazyQueries.getQueryStatistics();
+    }
+
+    /**
+     * Prefetches the pages that follow the requested one in the scrolling direction, on the crud's executor. The
+     * number of pages fetched ahead adapts to the back-end latency. Prefetched pages are fetched without the session
+     * lock, so the lazy listener must not read or change UI state, such as the values of filter fields.
+     *
+     * @param maxDepth the maximum number of pages to fetch ahead, or 0 to disable read-ahead
+     */
+    public void setReadAhead(int maxDepth) {
+        lazyQueries.setReadAhead(maxDepth);
+    }
+
+    public CacheStatistics getPageCacheStatistics() {
+        return lazyQueries.getPageCacheStatistics();
+    }
+
+    /**
+     * Enables or disables incremental updates. When enabled, add, update and delete operations patch the affected
+     * item in the grid instead of reloading all the items, unless the {@link RefreshPolicy} asks for a full refresh.
+     */
+    public void setIncrementalUpdates(boolean incrementalUpdates) {
+        this.incrementalUpdates = incrementalUpdates;
+    }
+
+    public boolean isIncrementalUpdates() {
+        return incrementalUpdates;
+    }
+
+    public void setRefreshPolicy(RefreshPolicy<T> refreshPolicy) {
+        this.refreshPolicy = refreshPolicy;
+    }
+
+    protected boolean isFullRefreshRequired(CrudOperation operation, T domainObject) {
+        return !incrementalUpdates || domainObject == null || refreshPolicy.isFullRefreshRequired(operation, domainObject);
+    }
+
+    protected void itemAdded(T domainObject) {
+        if (isSharedSnapshot()) {
+            refreshSharedSnapshot();
+        } else if (inMemoryDataProvider != null) {
+            inMemoryDataProvider.getItems().add(domainObject);
+            itemIds.invalidate();
+            inMemoryDataProvider.refreshAll();
+        } else if (rowCount.getDataProvider() != null) {
+            invalidatePageCache();
+            rowCount.getDataProvider().adjustSize(1);
+            rowCount.getDataProvider().refreshRows();
+        } else {
+            refreshGrid();
+        }
+    }
+
+    protected void itemUpdated(T domainObject, T updatedObject) {
+        if (isSharedSnapshot()) {
+            refreshSharedSnapshot();
+            return;
+        }
+
+        if (inMemoryDataProvider != null && domainObject != updatedObject) {
+            List<T> items = (List<T>) inMemoryDataProvider.getItems();
+            int index = getIdGetter() != null ? indexOfId(items, getId(domainObject)) : items.indexOf(domainObject);
+            if (index >= 0) {
+                items.set(index, updatedObject);
+            }
+        }
+
+        grid.getDataProvider().refreshItem(updatedObject);
+    }
+
+    @Override
+    protected Object getId(T domainObject) {
+        SerializableFunction<T, ?> idGetter = getIdGetter();
+        return idGetter != null ? idGetter.apply(domainObject) : grid.getDataProvider().getId(domainObject);
+    }
+
+    @Override
+    protected void writeBehindSucceeded(T domainObject, T updatedObject) {
+        publishChange(CrudOperation.UPDATE, updatedObject != null ? updatedObject : domainObject);
+        if (updatedObject != null && updatedObject != domainObject) {
+            itemUpdated(domainObject, updatedObject);
+        }
+    }
+
+    @Override
+    protected void writeBehindFlushed(int count) {
+        showNotification(String.format(writtenBehindMessage, count));
+    }
+
+    @Override
+    protected void writeBehindFailed(T domainObject) {
+        grid.getDataProvider().refreshItem(domainObject);
+    }
+
+    protected void invalidatePageCache() {
+        lazyQueries.invalidate();
+    }
+
+    protected void itemRemoved(T domainObject) {
+        itemsRemoved(Collections.singletonList(domainObject));
+    }
+
+    protected void itemsRemoved(Collection<T> domainObjects) {
+        if (isSharedSnapshot()) {
+            refreshSharedSnapshot();
+        } else if (inMemoryDataProvider != null) {
+            inMemoryDataProvider.getItems().removeAll(domainObjects);
+            itemIds.invalidate();
+            inMemoryDataProvider.refreshAll();
+        } else if (rowCount.getDataProvider() != null) {
+            invalidatePageCache();
+            rowCount.getDataProvider().adjustSize(-domainObjects.size());
+            rowCount.getDataProvider().refreshRows();
+        } else {
+            refreshGrid();
+        }
+    }
+
+    /**
+     * Adds a toolbar button that downloads the listed items as delimited text. The export uses the visible columns and
+     * the current sort, and fetches the items page by page from the data provider without going through the grid
+     * caches, holding the session lock while fetching each page.
+     *
+     * @param fileName  the name of the downloaded file
+     * @param delimiter the column delimiter, for example {@link DataProviderExporter#CSV} or {@link DataProviderExporter#TSV}
+     * @param gzip      whether to compress the file
+     * @return the anchor holding the button
+     */
+    public Anchor addExportButton(String fileName, char delimiter, boolean gzip) {
+        StreamResource resource = exportColumns.buildResource(fileName, delimiter, gzip, this::buildExporter);
+
+        Button exportButton = new Button(VaadinIcon.DOWNLOAD.create());
+        exportButton.getElement().setAttribute("title", "Export");
+
+        Anchor anchor = new Anchor(resource, "");
+        anchor.getElement().setAttribute("download", true);
+        anchor.add(exportButton);
+        crudLayout.addToolbarComponent(anchor);
+
+        return anchor;
+    }
+
+    /**
+     * Sets the header and the value a column is exported with. The grid doesn't tell the header set with
+     * {@link Grid.Column#setHeader(String)}, so columns use the human friendly name of their key unless given here,
+     * and columns whose renderer has no single value provider, such as component columns, are exported only if given a
+     * value provider here.
+     *
+     * @param header        the header, or null to keep the default
+     * @param valueProvider the value provider, or null to keep the default
+     */
+    public void setExportColumn(Grid.Column<T> column, String header, ValueProvider<T, ?> valueProvider) {
+        exportColumns.setColumn(column, header, valueProvider);
+    }
+
+    /**
+     * Returns an exporter for the listed items with the visible columns and the current sort. Must be called while
+     * holding the session lock.
+     */
+    @SuppressWarnings("unchecked")
+    protected DataProviderExporter<T, ?> buildExporter() {
+        DataProviderExporter<T, ?> exporter;
+        if (filteringDataProvider != null) {
+            exporter = new DataProviderExporter<>((DataProvider<T, Filter>) backEndDataProvider)
+                    .setFilter(filteringDataProvider.getFilter());
+        } else {
+            DataProvider<T, ?> dataProvider = backEndDataProvider != null ? backEndDataProvider : grid.getDataProvider();
+            exporter = new DataProviderExporter<>(dataProvider);
+        }
+
+        exporter.setSortOrders(getQuerySortOrders(), getInMemorySorting());
+
+        for (Grid.Column<T> column : grid.getColumns()) {
+            ValueProvider<T, ?> valueProvider = column.isVisible() ? getExportValueProvider(column) : null;
+            if (valueProvider != null) {
+                exporter.addColumn(getExportHeader(column), valueProvider);
+            }
+        }
+
+        return exporter;
+    }
+
+    protected String getExportHeader(Grid.Column<T> column) {
+        return exportColumns.getHeader(column);
+    }
+
+    /**
+     * Returns the value provider a column is exported with: the one set with {@link #setExportColumn}, or the one its
+     * renderer shows, or null if the column cannot be exported.
+     */
+    protected ValueProvider<T, ?> getExportValueProvider(Grid.Column<T> column) {
+        return exportColumns.getValueProvider(column);
+    }
+
+    /**
+     * Returns the current sort of the grid as back-end sort orders.
+     */
+    public List<QuerySortOrder> getQuerySortOrders() {
+        return grid.getSortOrder().stream()
+                .flatMap(order -> order.getSorted().getSortOrder(order.getDirection()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Scrolls the grid to an item, if its position under the current filter and sort can be told.
+     */
+    public void scrollTo(T domainObject) {
+        int index = domainObject != null ? getItemIndex(domainObject) : -1;
+        if (index >= 0) {
+            grid.getElement().callJsFunction("scrollToIndex", index);
+        }
+    }
+
+    /**
+     * Returns the position of an item under the current filter and sort, or -1 if it is not listed or its position
+     * cannot be told. In-memory items are looked up by id and placed without sorting them, through the indexes of an
+     * {@link IndexedListDataProvider} if enabled; lazy find-all operations must implement {@link ItemIndexProvider}.
+     */
+    @SuppressWarnings("unchecked")
+    protected int getItemIndex(T domainObject) {
+        Object id = getId(domainObject);
+
+        if (inMemoryDataProvider != null) {
+            int position = indexOfId((List<T>) inMemoryDataProvider.getItems(), id);
+            if (position < 0) {
+                return -1;
+            }
+
+            Query<T, SerializablePredicate<T>> query = new Query<>(0, Integer.MAX_VALUE, getQuerySortOrders(), getInMemorySorting(), null);
+            return inMemoryDataProvider instanceof IndexedListDataProvider
+                    ? ((IndexedListDataProvider<T>) inMemoryDataProvider).getSortedIndex(position, query)
+                    : IndexedListDataProvider.getSortedIndex(inMemoryDataProvider, position, query);
+        }
+
+        if (findAllOperation instanceof ItemIndexProvider) {
+            Filter effectiveFilter = filteringDataProvider != null ? getEffectiveFilter() : null;
+            Query<T, Filter> query = new Query<>(0, Integer.MAX_VALUE, getQuerySortOrders(), null, effectiveFilter);
+            return ((ItemIndexProvider<T>) findAllOperation).getItemIndex(domainObject, query);
+        }
+
+        return -1;
+    }
+
+    protected Comparator<T> getInMemorySorting() {
+        return grid.getSortOrder().stream()
+                .map(order -> (Comparator<T>) order.getSorted().getComparator(order.getDirection()))
+                .reduce(Comparator::thenComparing)
+                .orElse(null);
+    }
+
+    /**
+     * Adds a toolbar button that imports items from an uploaded CSV file. The columns are matched by header to the
+     * properties of the add form and converted and validated like the form fields would. Valid rows are stored in
+     * batches with the add-all operation on the crud's executor, and a dialog shows the progress and offers the
+     * rejected rows for download. The uploaded file is deleted once imported. The UI must use server push for the
+     * progress to show up.
+     *
+     * @param delimiter the column delimiter, for example {@link DataProviderExporter#CSV} or {@link DataProviderExporter#TSV}
+     * @param batchSize the number of items passed to each add-all call
+     * @return the upload component
+     */
+    public Upload addImportButton(char delimiter, int batchSize) {
+        if (!crudFormFactory.isTextConversionSupported()) {
+            throw new IllegalStateException("The form factory must convert values from text to import items!");
+        }
+
+        FileBuffer buffer = new FileBuffer();
+        Upload upload = new Upload(buffer);
+        upload.setMaxFiles(1);
+        upload.setDropAllowed(false);
+        upload.setAcceptedFileTypes(".csv", ".tsv", ".txt", "text/csv", "text/tab-separated-values", "text/plain");
+
+        Button importButton = new Button(VaadinIcon.UPLOAD.create());
+        importButton.getElement().setAttribute("title", "Import");
+        upload.setUploadButton(importButton);
+
+        upload.addSucceededListener(event -> {
+            File file = buffer.getFileData() != null ? buffer.getFileData().getFile() : null;
+            importItems(buffer.getInputStream(), event.getContentLength(), delimiter, batchSize, () -> {
+                if (file != null) {
+                    file.delete();
+                }
+            });
+        });
+        crudLayout.addToolbarComponent(upload);
+
+        return upload;
+    }
+
+    /**
+     * Imports the items read from a stream on the executor.
+     *
+     * @param cleanup run on the executor once the stream has been read, for example to delete the uploaded file
+     */
+    protected void importItems(InputStream inputStream, long contentLength, char delimiter, int batchSize, Command cleanup) {
+        Locale locale = getLocale();
+        DelimitedImporter<T> importer = new DelimitedImporter<>(domainType, crudFormFactory.getVisibleProperties(CrudOperation.ADD),
+                (property, value) -> crudFormFactory.convertFromString(CrudOperation.ADD, property, value, locale),
+                items -> addAllOperation.perform(items))
+                .setDelimiter(delimiter)
+                .setBatchSize(batchSize);
+
+        ItemImport<T> itemImport = new ItemImport<>(importer, importingCaption, importedCaption, rejectedRowsCaption);
+        crudLayout.showDialog(importCaption, itemImport.getContent());
+        itemImport.start(UI.getCurrent(), executor, inputStream, contentLength, cleanup, this::importFinished, e -> {
+            crudLayout.hideForm();
+            refreshGrid();
+            crudFormFactory.showError(CrudOperation.ADD, e);
+        });
+    }
+
+    /**
+     * Shows the imported items, once the dialog shows the report.
+     */
+    protected void importFinished(ImportReport report) {
+        if (sharedSnapshot != null) {
+            sharedSnapshot.reload();
+        }
+        refreshGrid();
+    }
+
+    /**
+     * Adds a field whose value filters the listed items. Text fields left with the default
+     * {@link ValueChangeMode#ON_CHANGE} mode send their value after the user stops typing for the debounce timeout;
+     * fields set to another mode keep it and its timeout. Changes of several filter fields in the same round trip
+     * cause a single refresh, and the grid is only refreshed when the effective value of the filters changes
+     * (surrounding spaces are ignored). Components are also added to the filter area of the layout.
+     */
+    public void addFilterField(HasValue<?, ?> field) {
+        addFilterField(field, null);
+    }
+
+    /**
+     * Adds a filter field whose value is turned into a {@link Filter} by the given function, which is not called for
+     * empty values. When all the filter fields have a function, a change of their values only changes the filter
+     * passed to the data provider: in-memory items are filtered without calling the find-all operation again, and
+     * {@link FilterableFindAllCrudOperationListener filterable} lazy listeners get the filter in their queries.
+     *
+     * @param field         the filter field
+     * @param filterFactory returns the filter for a value of the field, or null to leave the value out
+     */
+    public <V> void addFilterField(HasValue<?, V> field, SerializableFunction<V, Filter> filterFactory) {
+        if (field instanceof Component) {
+            crudLayout.addFilterComponent((Component) field);
+        }
+
+        filterFields.add(field, filterFactory);
+        field.addValueChangeListener(event -> scheduleFilterRefresh());
+    }
+
+    /**
+     * Sets the milliseconds to wait after the last keystroke before a text filter field sends its value. Applies to
+     * the filter fields added afterwards.
+     */
+    public void setFilterDebounceTimeout(int filterDebounceTimeout) {
+        filterFields.setDebounceTimeout(filterDebounceTimeout);
+    }
+
+    protected void scheduleFilterRefresh() {
+        UI ui = UI.getCurrent();
+        if (ui == null) {
+            applyFilters();
+        } else if (filterFields.requestRefresh()) {
+            ui.beforeClientResponse(this, context -> applyFilters());
+        }
+    }
+
+    protected void applyFilters() {
+        if (filterFields.applyValues(getFilterValues())) {
+            clearSelection();
+
+            if (filterFields.isFilteredByFactories()) {
+                updateFilter();
+            } else {
+                refreshGrid();
+            }
+        }
+    }
+
+    /**
+     * Sets a filter that is combined with the ones of the filter fields. In-memory items are filtered with
+     * {@link Filter#test(Object)}; {@link FilterableFindAllCrudOperationListener filterable} lazy listeners receive it
+     * as the filter of their queries, so cached pages and counts are kept per filter; other lazy listeners are
+     * refreshed and have to read their filters themselves.
+     *
+     * @param filter the filter, or null to remove it
+     */
+    public void setFilter(Filter filter) {
+        if (filterFields.setFilter(filter)) {
+            clearSelection();
+            updateFilter();
+        }
+    }
+
+    public Filter getFilter() {
+        return filterFields.getFilter();
+    }
+
+    /**
+     * Returns the filter set with {@link #setFilter(Filter)} combined with the filters of the filter fields, or null
+     * if there is none.
+     */
+    public Filter getEffectiveFilter() {
+        return filterFields.getEffectiveFilter();
+    }
+
+    protected void updateFilter() {
+        Filter effectiveFilter = getEffectiveFilter();
+
+        if (isHybridInMemory()) {
+            if (hybridLoader.canFilterInMemory(effectiveFilter)) {
+                setInMemoryFilter(effectiveFilter);
+            } else {
+                refreshGrid();
+            }
+        } else if (filteringDataProvider != null) {
+            filteringDataProvider.setFilter(effectiveFilter);
+            UI ui = UI.getCurrent();
+            CountCachingDataProvider<T, ?> countCaching = rowCount.getDataProvider();
+            if (hybridLoader != null && countCaching != null && ui != null) {
+                ui.beforeClientResponse(grid, context -> loadInMemoryIfBelowThreshold(countCaching));
+            }
+        } else if (inMemoryDataProvider != null) {
+            setInMemoryFilter(effectiveFilter);
+        } else {
+            refreshGrid();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setInMemoryFilter(Filter effectiveFilter) {
+        // the filter itself, rather than a new lambda, so that equal filters hit the cache of the data provider
+        inMemoryDataProvider.setFilter((SerializablePredicate<T>) (SerializablePredicate<?>) effectiveFilter);
+    }
+
+    protected List<Object> getFilterValues() {
+        return filterFields.readValues();
+    }
+
     public void setClickRowToUpdate(boolean clickRowToUpdate) {
         this.clickRowToUpdate = clickRowToUpdate;
     }
 
+    /**
+     * Enables or disables the selection of several rows. When several rows are selected, the delete button removes
+     * all of them with a single call to the delete-all operation after one confirmation.
+     */
+    public void setMultiSelect(boolean multiSelect) {
+        this.multiSelect = multiSelect;
+        grid.setSelectionMode(multiSelect ? Grid.SelectionMode.MULTI : Grid.SelectionMode.SINGLE);
+        updateButtons();
+    }
+
+    public boolean isMultiSelect() {
+        return multiSelect;
+    }
+
+    /**
+     * Returns the selected item, or null if no item or more than one item is selected.
+     */
+    protected T getSelectedItem() {
+        if (!multiSelect) {
+            return grid.asSingleSelect().getValue();
+        }
+
+        Set<T> selectedItems = grid.getSelectedItems();
+        return selectedItems.size() == 1 ? selectedItems.iterator().next() : null;
+    }
+
+    protected void clearSelection() {
+        if (multiSelect) {
+            grid.deselectAll();
+        } else {
+            grid.asSingleSelect().clear();
+        }
+    }
+
+    protected void select(T domainObject) {
+        if (multiSelect) {
+            grid.deselectAll();
+            if (domainObject != null) {
+                grid.select(domainObject);
+            }
+        } else {
+            grid.asSingleSelect().setValue(domainObject);
+        }
+    }
+
+    /**
+     * Selects an item and scrolls to it, once the items fetched in the background have arrived if a fetch is running.
+     */
+    protected void selectAndScrollTo(T domainObject) {
+        if (fetcher.isFetching()) {
+            fetcher.setPendingSelection(domainObject);
+            return;
+        }
+
+        select(domainObject);
+        scrollTo(domainObject);
+    }
+
+    /**
+     * Returns the in-memory instance of an item, looked up by id with an {@link #setIdGetter(SerializableFunction) id
+     * getter}, or null if it is not listed anymore.
+     */
+    protected T findCurrent(T domainObject) {
+        if (getIdGetter() == null || inMemoryDataProvider == null) {
+            return domainObject;
+        }
+
+        List<T> current = itemIds.findCurrent(new ArrayList<>(inMemoryDataProvider.getItems()), Collections.singletonList(domainObject));
+        return current.isEmpty() ? null : current.get(0);
+    }
+
     protected void updateButtons() {
-        boolean rowSelected = !grid.asSingleSelect().isEmpty();
-        updateButton.setEnabled(rowSelected);
-        deleteButton.setEnabled(rowSelected);
+        int selectedCount = grid.getSelectedItems().size();
+        updateButton.setEnabled(selectedCount == 1);
+        deleteButton.setEnabled(selectedCount > 0);
     }
 
     protected void gridSelectionChanged() {
+        if (restoringSelection) {
+            return;
+        }
+
         updateButtons();
-        T domainObject = grid.asSingleSelect().getValue();
+        T row = getSelectedItem();
 
-        if (domainObject != null) {
+        if (row != null) {
             if (clickRowToUpdate) {
                 updateButtonClicked();
             } else {
+                T domainObject = fetchDetails(row);
                 Component form = crudFormFactory.buildNewForm(CrudOperation.READ, domainObject, true, null, event -> {
-                    grid.asSingleSelect().clear();
+                    clearSelection();
                 });
                 String caption = crudFormFactory.buildCaption(CrudOperation.READ, domainObject);
                 crudLayout.showForm(CrudOperation.READ, form, caption);
@@ -195,10 +1377,38 @@ public class GridCrud<T> extends AbstractCrud<T> {
         }
     }
 
+    /**
+     * Returns the properties of the visible columns, which lazy listeners may fetch alone. Call
+     * {@link #refreshGrid()} after showing or hiding columns.
+     */
+    protected Set<String> getVisibleProperties() {
+        Set<String> properties = new LinkedHashSet<>();
+        for (Grid.Column<T> column : grid.getColumns()) {
+            if (column.isVisible() && column.getKey() != null) {
+                properties.add(column.getKey());
+            }
+        }
+
+        return properties;
+    }
+
     protected void findAllButtonClicked() {
-        grid.asSingleSelect().clear();
+        clearSelection();
+        if (sharedSnapshot != null) {
+            sharedSnapshot.reload();
+        }
         refreshGrid();
-        showNotification(String.format(rowCountCaption, grid.getDataProvider().size(new Query())));
+
+        if (fetcher.isFetching()) {
+            rowCount.setPending(true);
+        } else {
+            showRowCount();
+        }
+    }
+
+    protected void showRowCount() {
+        int size = grid.getDataProvider().size(new Query());
+        showNotification(rowCount.getCaption(size, rowCountCaption, estimatedRowCountCaption, partialRowCountCaption, countingCaption));
     }
 
     protected void addButtonClicked() {
@@ -207,12 +1417,18 @@ public class GridCrud<T> extends AbstractCrud<T> {
             showForm(CrudOperation.ADD, domainObject, false, savedMessage, event -> {
                 try {
                     T addedObject = addOperation.perform(domainObject);
-                    refreshGrid();
-                    grid.asSingleSelect().setValue(addedObject);
-                    // TODO: grid.scrollTo(addedObject);
+                    publishChange(CrudOperation.ADD, addedObject);
+                    if (isFullRefreshRequired(CrudOperation.ADD, addedObject)) {
+                        refreshGrid();
+                    } else {
+                        itemAdded(addedObject);
+                    }
+                    selectAndScrollTo(addedObject);
                 } catch (IllegalArgumentException ignore) {
                 } catch (CrudOperationException e1) {
-                    refreshGrid();
+                    if (!incrementalUpdates) {
+                        refreshGrid();
+                    }
                 } catch (Exception e2) {
                     refreshGrid();
                     throw e2;
@@ -224,17 +1440,32 @@ public class GridCrud<T> extends AbstractCrud<T> {
     }
 
     protected void updateButtonClicked() {
-        T domainObject = grid.asSingleSelect().getValue();
-        showForm(CrudOperation.UPDATE, domainObject, false, savedMessage, event -> {
+        T row = getSelectedItem();
+        T domainObject = copyIfShared(row, fetchDetails(row));
+        Map<String, Object> snapshot = writeBehindQueue != null ? writeBehindQueue.snapshot(domainObject) : null;
+        showForm(CrudOperation.UPDATE, domainObject, false, writeBehindQueue != null ? queuedMessage : savedMessage, event -> {
+            evictDetails(row);
+            if (writeBehindQueue != null) {
+                writeBehindQueue.enqueue(domainObject, snapshot);
+                grid.getDataProvider().refreshItem(domainObject);
+                return;
+            }
+
             try {
-                T updatedObject = updateOperation.perform(domainObject);
-                grid.asSingleSelect().clear();
-                refreshGrid();
-                grid.asSingleSelect().setValue(updatedObject);
-                // TODO: grid.scrollTo(updatedObject);
+                T updatedObject = performUpdate(domainObject);
+                publishChange(CrudOperation.UPDATE, updatedObject);
+                clearSelection();
+                if (isFullRefreshRequired(CrudOperation.UPDATE, updatedObject)) {
+                    refreshGrid();
+                } else {
+                    itemUpdated(row, updatedObject);
+                }
+                selectAndScrollTo(updatedObject);
             } catch (IllegalArgumentException ignore) {
             } catch (CrudOperationException e1) {
-                refreshGrid();
+                if (!incrementalUpdates) {
+                    refreshGrid();
+                }
             } catch (Exception e2) {
                 refreshGrid();
                 throw e2;
@@ -243,30 +1474,96 @@ public class GridCrud<T> extends AbstractCrud<T> {
     }
 
     protected void deleteButtonClicked() {
-        T domainObject = grid.asSingleSelect().getValue();
+        Set<T> selectedItems = grid.getSelectedItems();
+        if (selectedItems.size() > 1) {
+            deleteAllButtonClicked(new ArrayList<>(selectedItems));
+            return;
+        }
+
+        T row = getSelectedItem();
+        T domainObject = copyIfShared(row, fetchDetails(row));
         showForm(CrudOperation.DELETE, domainObject, true, deletedMessage, event -> {
+            evictDetails(row);
             try {
                 deleteOperation.perform(domainObject);
-                refreshGrid();
-                grid.asSingleSelect().clear();
+                publishChange(CrudOperation.DELETE, row);
+                clearSelection();
+                if (isFullRefreshRequired(CrudOperation.DELETE, domainObject)) {
+                    refreshGrid();
+                } else {
+                    itemRemoved(row);
+                }
             } catch (CrudOperationException e1) {
+                if (!incrementalUpdates) {
+                    refreshGrid();
+                }
+            } catch (Exception e2) {
                 refreshGrid();
+                throw e2;
+            }
+        });
+    }
+
+    protected void deleteAllButtonClicked(List<T> domainObjects) {
+        Component form = buildDeleteAllForm(domainObjects, cancelClickEvent -> crudLayout.hideForm(), event -> {
+            try {
+                deleteAllOperation.perform(domainObjects);
+                domainObjects.forEach(domainObject -> publishChange(CrudOperation.DELETE, domainObject));
+                clearSelection();
+                crudLayout.hideForm();
+                if (domainObjects.stream().anyMatch(domainObject -> isFullRefreshRequired(CrudOperation.DELETE, domainObject))) {
+                    refreshGrid();
+                } else {
+                    itemsRemoved(domainObjects);
+                }
+                showNotification(String.format(deletedAllMessage, domainObjects.size()));
+            } catch (CrudOperationException e1) {
+                if (!incrementalUpdates) {
+                    refreshGrid();
+                }
+                throw e1;
             } catch (Exception e2) {
                 refreshGrid();
                 throw e2;
             }
         });
+        crudLayout.showForm(CrudOperation.DELETE, form, String.format(deleteAllCaption, domainObjects.size()));
+    }
+
+    protected Component buildDeleteAllForm(List<T> domainObjects, ComponentEventListener<ClickEvent<Button>> cancelButtonClickListener, ComponentEventListener<ClickEvent<Button>> deleteButtonClickListener) {
+        String cancelCaption = crudFormFactory.getCancelButtonCaption();
+        String deleteCaption = crudFormFactory.getButtonCaption(CrudOperation.DELETE);
+        Button cancelButton = new Button(cancelCaption != null ? cancelCaption : cancelButtonCaption, cancelButtonClickListener);
+        Button deleteButton = new Button(deleteCaption != null ? deleteCaption : deleteAllButtonCaption, VaadinIcon.TRASH.create(), event -> {
+            try {
+                deleteButtonClickListener.onComponentEvent(event);
+            } catch (Exception e) {
+                crudFormFactory.showError(CrudOperation.DELETE, e);
+            }
+        });
+        deleteButton.getElement().setAttribute("theme", "error");
+
+        HorizontalLayout footerLayout = new HorizontalLayout(cancelButton, deleteButton);
+        footerLayout.setSizeUndefined();
+        footerLayout.setPadding(false);
+
+        VerticalLayout mainLayout = new VerticalLayout(new Span(String.format(deleteAllConfirmationCaption, domainObjects.size())), footerLayout);
+        mainLayout.setHorizontalComponentAlignment(FlexComponent.Alignment.END, footerLayout);
+        mainLayout.setMargin(false);
+        mainLayout.setPadding(false);
+
+        return mainLayout;
     }
 
     protected void showForm(CrudOperation operation, T domainObject, boolean readOnly, String successMessage, ComponentEventListener<ClickEvent<Button>> buttonClickListener) {
         Component form = crudFormFactory.buildNewForm(operation, domainObject, readOnly, cancelClickEvent -> {
             if (clickRowToUpdate) {
-                grid.asSingleSelect().clear();
+                clearSelection();
             } else {
-                T selected = grid.asSingleSelect().getValue();
+                T selected = getSelectedItem();
                 crudLayout.hideForm();
-                grid.asSingleSelect().clear();
-                grid.asSingleSelect().setValue(selected);
+                clearSelection();
+                select(selected);
             }
         }, operationPerformedClickEvent -> {
             buttonClickListener.onComponentEvent(operationPerformedClickEvent);
@@ -303,6 +1600,26 @@ public class GridCrud<T> extends AbstractCrud<T> {
         this.rowCountCaption = rowCountCaption;
     }
 
+    public void setEstimatedRowCountCaption(String estimatedRowCountCaption) {
+        this.estimatedRowCountCaption = estimatedRowCountCaption;
+    }
+
+    public void setPartialRowCountCaption(String partialRowCountCaption) {
+        this.partialRowCountCaption = partialRowCountCaption;
+    }
+
+    public void setCountingCaption(String countingCaption) {
+        this.countingCaption = countingCaption;
+    }
+
+    public void setDeleteAllConfirmationCaption(String deleteAllConfirmationCaption) {
+        this.deleteAllConfirmationCaption = deleteAllConfirmationCaption;
+    }
+
+    public void setDeletedAllMessage(String deletedAllMessage) {
+        this.deletedAllMessage = deletedAllMessage;
+    }
+
     public void setSavedMessage(String savedMessage) {
         this.savedMessage = savedMessage;
     }
@@ -311,6 +1628,14 @@ public class GridCrud<T> extends AbstractCrud<T> {
         this.deletedMessage = deletedMessage;
     }
 
+    public void setQueuedMessage(String queuedMessage) {
+        this.queuedMessage = queuedMessage;
+    }
+
+    public void setWrittenBehindMessage(String writtenBehindMessage) {
+        this.writtenBehindMessage = writtenBehindMessage;
+    }
+
     public void setShowNotifications(boolean showNotifications) {
         this.showNotifications = showNotifications;
     }
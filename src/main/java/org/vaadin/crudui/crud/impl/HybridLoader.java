@@ -0,0 +1,114 @@
+package org.vaadin.crudui.crud.impl;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import org.vaadin.crudui.crud.CountMode;
+import org.vaadin.crudui.crud.LazyFindAllCrudOperationListener;
+import org.vaadin.data.filter.Filter;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the items of a lazy find-all operation into memory when a filter matches no more than a threshold of them.
+ * The items are not counted for this: one item more than the threshold is fetched instead, unless the estimate of a
+ * listener with {@link CountMode#ESTIMATED} is above the threshold already.
+ *
+ * @param <T> the domain type
+ */
+class HybridLoader<T> implements Serializable {
+
+    private final int threshold;
+    private boolean inMemory;
+    private Filter loadedFilter;
+    private Set<String> loadedProperties = Collections.emptySet();
+
+    HybridLoader(int threshold) {
+        this.threshold = threshold;
+    }
+
+    int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Returns the items matching the filter if they are no more than the threshold, or null otherwise.
+     *
+     * @param properties the properties fetched by the listener, as set with
+     *                   {@link LazyFindAllCrudOperationListener#setVisibleProperties(Set)}
+     */
+    @SuppressWarnings("unchecked")
+    List<T> load(LazyFindAllCrudOperationListener<T> findAll, Filter filter, CountMode countMode, Set<String> properties) {
+        inMemory = false;
+        loadedFilter = null;
+
+        if (countMode == CountMode.ESTIMATED && findAll.getEstimatedCount(new Query<>(filter)) > threshold) {
+            return null;
+        }
+
+        DataProvider<T, Object> dataProvider = (DataProvider<T, Object>) findAll.getDataProvider();
+        List<T> items = dataProvider.fetch(new Query<>(0, threshold + 1, Collections.emptyList(), null, filter))
+                .collect(Collectors.toList());
+        if (items.size() > threshold) {
+            return null;
+        }
+
+        inMemory = true;
+        loadedFilter = filter;
+        loadedProperties = new LinkedHashSet<>(properties);
+        return items;
+    }
+
+    void reset() {
+        inMemory = false;
+        loadedFilter = null;
+    }
+
+    boolean isInMemory() {
+        return inMemory;
+    }
+
+    /**
+     * Returns the filter the items in memory were loaded with, or null if all of them were loaded.
+     */
+    Filter getLoadedFilter() {
+        return loadedFilter;
+    }
+
+    /**
+     * Returns whether the given filter can be applied to the items in memory: all the items are loaded, and the
+     * properties it compares were fetched.
+     */
+    boolean canFilterInMemory(Filter filter) {
+        if (!inMemory || loadedFilter != null) {
+            return false;
+        }
+
+        if (filter == null) {
+            return true;
+        }
+
+        for (String property : filter.getProperties()) {
+            int dot = property.indexOf('.');
+            if (!loadedProperties.contains(property) && (dot < 0 || !loadedProperties.contains(property.substring(0, dot)))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns whether a size of the lazy items, as counted by the grid, is small enough to load them into memory.
+     *
+     * @param size the size, or -1 if it is not known yet
+     */
+    boolean isBelowThreshold(int size) {
+        return !inMemory && size >= 0 && size <= threshold;
+    }
+
+}
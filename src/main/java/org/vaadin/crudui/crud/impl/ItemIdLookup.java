@@ -0,0 +1,89 @@
+package org.vaadin.crudui.crud.impl;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.function.SerializableFunction;
+import org.vaadin.data.provider.IdentifiedDataProvider;
+import org.vaadin.data.provider.ItemIdIndex;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Looks up the in-memory items of a grid by id. With an id getter, positions are looked up in an index of the items
+ * built on first use and dropped whenever the items change; otherwise the items are compared one by one.
+ *
+ * @param <T> the domain type
+ */
+class ItemIdLookup<T> implements Serializable {
+
+    private SerializableFunction<T, ?> idGetter;
+    private ItemIdIndex<T> index;
+
+    void setIdGetter(SerializableFunction<T, ?> idGetter) {
+        this.idGetter = idGetter;
+        index = null;
+    }
+
+    SerializableFunction<T, ?> getIdGetter() {
+        return idGetter;
+    }
+
+    /**
+     * Drops the index, once the in-memory items have changed.
+     */
+    void invalidate() {
+        index = null;
+    }
+
+    /**
+     * Returns the position of the item with the given id, or -1 if there is none.
+     *
+     * @param idProvider returns the id of an item when there is no id getter
+     */
+    int indexOf(List<T> items, Object id, SerializableFunction<T, ?> idProvider) {
+        if (idGetter == null) {
+            for (int i = 0; i < items.size(); i++) {
+                if (Objects.equals(idProvider.apply(items.get(i)), id)) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        if (index == null) {
+            index = new ItemIdIndex<>(items, idGetter);
+        }
+
+        return index.indexOf(id);
+    }
+
+    /**
+     * Returns the instances among the given items that have the ids of the wanted ones, leaving out those not found.
+     * Without an id getter, the wanted items are returned as they are.
+     */
+    List<T> findCurrent(List<T> items, Collection<T> wanted) {
+        if (idGetter == null) {
+            return new ArrayList<>(wanted);
+        }
+
+        ItemIdIndex<T> itemsIndex = new ItemIdIndex<>(items, idGetter);
+        List<T> current = new ArrayList<>(wanted.size());
+        for (T item : wanted) {
+            int position = itemsIndex.indexOf(idGetter.apply(item));
+            if (position >= 0) {
+                current.add(items.get(position));
+            }
+        }
+
+        return current;
+    }
+
+    <F> DataProvider<T, F> identify(DataProvider<T, F> dataProvider) {
+        return idGetter != null ? new IdentifiedDataProvider<>(dataProvider, idGetter) : dataProvider;
+    }
+
+}
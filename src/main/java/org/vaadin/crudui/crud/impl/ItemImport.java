@@ -0,0 +1,96 @@
+package org.vaadin.crudui.crud.impl;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Anchor;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.StreamResource;
+import org.vaadin.data.importer.DelimitedImporter;
+import org.vaadin.data.importer.ImportReport;
+
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs a {@link DelimitedImporter} in the background and shows its progress, and once done the counts and a download
+ * of the rejected rows, in a component for the import dialog.
+ *
+ * @param <T> the domain type
+ */
+class ItemImport<T> implements Serializable {
+
+    private final DelimitedImporter<T> importer;
+    private final String importingCaption;
+    private final String importedCaption;
+    private final String rejectedRowsCaption;
+    private final ProgressBar progressBar = new ProgressBar(0, 1);
+    private final Span status;
+    private final VerticalLayout layout;
+
+    ItemImport(DelimitedImporter<T> importer, String importingCaption, String importedCaption, String rejectedRowsCaption) {
+        this.importer = importer;
+        this.importingCaption = importingCaption;
+        this.importedCaption = importedCaption;
+        this.rejectedRowsCaption = rejectedRowsCaption;
+        status = new Span(String.format(importingCaption, 0, 0));
+        layout = new VerticalLayout(progressBar, status);
+        layout.setPadding(false);
+    }
+
+    Component getContent() {
+        return layout;
+    }
+
+    /**
+     * Imports the items read from a stream on the executor. The listeners are called with {@link UI#access}.
+     *
+     * @param cleanup run on the executor once the stream has been read, for example to delete the uploaded file
+     */
+    void start(UI ui, Executor executor, InputStream inputStream, long contentLength, Command cleanup,
+               SerializableConsumer<ImportReport> finishedListener, SerializableConsumer<Exception> failureListener) {
+        importer.setProgressListener(report -> {
+            long imported = report.getImportedCount();
+            long rejected = report.getRejectedCount();
+            double fraction = report.getFraction();
+            ui.access(() -> {
+                progressBar.setIndeterminate(fraction < 0);
+                progressBar.setValue(Math.max(fraction, 0));
+                status.setText(String.format(importingCaption, imported, rejected));
+            });
+        });
+
+        executor.execute(() -> {
+            try {
+                ImportReport report = importer.importFrom(inputStream, contentLength);
+                ui.access(() -> {
+                    showReport(report);
+                    finishedListener.accept(report);
+                });
+            } catch (Exception e) {
+                ui.access(() -> failureListener.accept(e));
+            } finally {
+                if (cleanup != null) {
+                    cleanup.execute();
+                }
+            }
+        });
+    }
+
+    private void showReport(ImportReport report) {
+        status.setText(String.format(importedCaption, report.getImportedCount(), report.getRejectedCount()));
+
+        if (report.getRejectedCount() > 0) {
+            StreamResource resource = new StreamResource("rejected.csv", (outputStream, session) -> report.writeRejectedRows(outputStream));
+            resource.setContentType("text/csv");
+            Anchor anchor = new Anchor(resource, rejectedRowsCaption);
+            anchor.getElement().setAttribute("download", true);
+            layout.add(anchor);
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package org.vaadin.crudui.crud.impl;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import org.vaadin.data.provider.BlockCachingDataProvider;
+import org.vaadin.data.provider.CacheStatistics;
+import org.vaadin.data.provider.CancellableDataProvider;
+import org.vaadin.data.provider.CancellationStatistics;
+import org.vaadin.data.provider.ReadAheadDataProvider;
+
+import java.io.Serializable;
+import java.util.concurrent.Executor;
+
+/**
+ * Decorates the lazy data providers of a grid with query cancellation, read-ahead and the page cache, in this order
+ * from the back-end up, and keeps the decorators of the current data provider to invalidate them when items change.
+ *
+ * @param <T> the domain type
+ */
+class LazyQueryChain<T> implements Serializable {
+
+    private int pageCacheBlockSize;
+    private int pageCacheMaxBlocks;
+    private long pageCacheTimeToLive;
+    private final CacheStatistics pageCacheStatistics = new CacheStatistics();
+    private BlockCachingDataProvider<T, ?> blockCachingDataProvider;
+
+    private long queryTimeout;
+    private boolean cancelSupersededQueries;
+    private final CancellationStatistics queryStatistics = new CancellationStatistics();
+    private CancellableDataProvider<T, ?> cancellableDataProvider;
+
+    private int readAheadDepth;
+    private ReadAheadDataProvider<T, ?> readAheadDataProvider;
+
+    void setPageCache(int blockSize, int maxBlocks, long timeToLive) {
+        pageCacheBlockSize = blockSize;
+        pageCacheMaxBlocks = maxBlocks;
+        pageCacheTimeToLive = timeToLive;
+    }
+
+    CacheStatistics getPageCacheStatistics() {
+        return pageCacheStatistics;
+    }
+
+    void setQueryTimeout(long queryTimeout) {
+        this.queryTimeout = queryTimeout;
+    }
+
+    void setCancelSupersededQueries(boolean cancelSupersededQueries) {
+        this.cancelSupersededQueries = cancelSupersededQueries;
+    }
+
+    CancellationStatistics getQueryStatistics() {
+        return queryStatistics;
+    }
+
+    void setReadAhead(int maxDepth) {
+        readAheadDepth = maxDepth;
+    }
+
+    /**
+     * Decorates a data provider, replacing the decorators of the previous one, whose running queries are cancelled.
+     * In-memory data providers are returned as they are.
+     *
+     * @param executor runs the read-ahead fetches
+     * @param pageSize the page size of the grid, four pages being the distance beyond which fetches are superseded
+     */
+    <F> DataProvider<T, F> decorate(DataProvider<T, F> dataProvider, Executor executor, int pageSize) {
+        reset();
+        if (dataProvider.isInMemory()) {
+            return dataProvider;
+        }
+
+        DataProvider<T, F> decorated = dataProvider;
+
+        if (queryTimeout > 0 || cancelSupersededQueries) {
+            int maxDistance = cancelSupersededQueries ? pageSize * 4 : 0;
+            CancellableDataProvider<T, F> cancellable = new CancellableDataProvider<>(decorated, queryTimeout, maxDistance, queryStatistics);
+            cancellableDataProvider = cancellable;
+            decorated = cancellable;
+        }
+
+        if (readAheadDepth > 0) {
+            ReadAheadDataProvider<T, F> readAhead = new ReadAheadDataProvider<>(decorated, executor, readAheadDepth);
+            readAheadDataProvider = readAhead;
+            decorated = readAhead;
+        }
+
+        if (pageCacheBlockSize > 0) {
+            BlockCachingDataProvider<T, F> blockCaching = new BlockCachingDataProvider<>(decorated, pageCacheBlockSize,
+                    pageCacheMaxBlocks, pageCacheTimeToLive, pageCacheStatistics);
+            blockCachingDataProvider = blockCaching;
+            decorated = blockCaching;
+        }
+
+        return decorated;
+    }
+
+    /**
+     * Drops the decorators of the current data provider, cancelling its running queries.
+     */
+    void reset() {
+        if (cancellableDataProvider != null) {
+            cancellableDataProvider.cancelAll();
+        }
+
+        blockCachingDataProvider = null;
+        readAheadDataProvider = null;
+        cancellableDataProvider = null;
+    }
+
+    /**
+     * Drops the cached and prefetched pages and cancels the running queries, once items were added or removed.
+     */
+    void invalidate() {
+        if (blockCachingDataProvider != null) {
+            blockCachingDataProvider.invalidate();
+        }
+
+        if (readAheadDataProvider != null) {
+            readAheadDataProvider.invalidate();
+        }
+
+        if (cancellableDataProvider != null) {
+            cancellableDataProvider.cancelAll();
+        }
+    }
+
+}
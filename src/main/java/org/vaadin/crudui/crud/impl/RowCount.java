@@ -0,0 +1,124 @@
+package org.vaadin.crudui.crud.impl;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.function.SerializableConsumer;
+import org.vaadin.crudui.crud.CountMode;
+import org.vaadin.data.provider.CountCachingDataProvider;
+
+import java.io.Serializable;
+
+/**
+ * Tracks how the rows of a grid are counted: the count mode set on the grid and the one in effect for the current
+ * data provider, the count caching decorator on top of lazy data providers, and whether the count is to be shown once
+ * known.
+ *
+ * @param <T> the domain type
+ */
+class RowCount<T> implements Serializable {
+
+    private CountMode countMode;
+    private CountMode activeCountMode = CountMode.EXACT;
+    private CountCachingDataProvider<T, ?> countCachingDataProvider;
+    private boolean pending;
+
+    void setCountMode(CountMode countMode) {
+        this.countMode = countMode;
+    }
+
+    CountMode getCountMode() {
+        return countMode;
+    }
+
+    /**
+     * Returns the count mode set on the grid, or the given one of the lazy listener if none.
+     */
+    CountMode resolve(CountMode listenerCountMode) {
+        return countMode != null ? countMode : listenerCountMode;
+    }
+
+    /**
+     * Counts lazy rows with the count mode set on the grid, or the given one of the lazy listener if none, once the
+     * data provider is {@link #decorate decorated}.
+     */
+    void startLazy(CountMode listenerCountMode) {
+        countCachingDataProvider = null;
+        activeCountMode = resolve(listenerCountMode);
+    }
+
+    /**
+     * Counts in-memory rows exactly.
+     */
+    void startInMemory() {
+        countCachingDataProvider = null;
+        activeCountMode = CountMode.EXACT;
+    }
+
+    CountMode getActiveCountMode() {
+        return activeCountMode;
+    }
+
+    /**
+     * Caches the count of a lazy data provider when required or when it is not counted exactly.
+     *
+     * @param cacheCount whether to cache exact counts too, for example to adjust them on changes
+     * @param configurer sets the count mode up on the count caching decorator
+     */
+    <F> DataProvider<T, F> decorate(DataProvider<T, F> dataProvider, boolean cacheCount,
+                                    SerializableConsumer<CountCachingDataProvider<T, F>> configurer) {
+        countCachingDataProvider = null;
+        if (!cacheCount && activeCountMode == CountMode.EXACT) {
+            return dataProvider;
+        }
+
+        CountCachingDataProvider<T, F> countCaching = new CountCachingDataProvider<>(dataProvider);
+        configurer.accept(countCaching);
+        countCachingDataProvider = countCaching;
+        return countCaching;
+    }
+
+    /**
+     * Returns the count caching decorator of the current data provider, or null if there is none.
+     */
+    CountCachingDataProvider<T, ?> getDataProvider() {
+        return countCachingDataProvider;
+    }
+
+    /**
+     * Returns whether the given decorator is the one of the current data provider, so that its late sizes still apply.
+     */
+    boolean isCurrent(CountCachingDataProvider<T, ?> countCaching) {
+        return countCaching == countCachingDataProvider;
+    }
+
+    void setPending(boolean pending) {
+        this.pending = pending;
+    }
+
+    /**
+     * Returns whether the count is to be shown once known, and clears it.
+     */
+    boolean takePending() {
+        boolean wasPending = pending;
+        pending = false;
+        return wasPending;
+    }
+
+    /**
+     * Returns the caption that tells the given size in the current count mode, and marks the count as pending while
+     * it is still being counted.
+     */
+    String getCaption(int size, String rowCountCaption, String estimatedRowCountCaption, String partialRowCountCaption,
+                      String countingCaption) {
+        if (countCachingDataProvider != null && countCachingDataProvider.isCounting()) {
+            pending = true;
+            return countingCaption;
+        } else if (activeCountMode == CountMode.ESTIMATED) {
+            return String.format(estimatedRowCountCaption, size);
+        } else if (countCachingDataProvider != null && !countCachingDataProvider.isSizeKnown()) {
+            return String.format(partialRowCountCaption, countCachingDataProvider.getKnownSize());
+        } else {
+            return String.format(rowCountCaption, size);
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+package org.vaadin.crudui.crud.impl;
+
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializablePredicate;
+import com.vaadin.flow.function.SerializableSupplier;
+import org.vaadin.crudui.crud.event.CrudChangeBus;
+import org.vaadin.crudui.crud.event.CrudChangeEvent;
+import org.vaadin.data.bean.BeanProperties;
+import org.vaadin.data.snapshot.SharedSnapshotCache;
+import org.vaadin.data.snapshot.Snapshot;
+import org.vaadin.data.snapshot.SnapshotView;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Holds the snapshot of a key in a {@link SharedSnapshotCache} for a grid, from the first refresh until the grid is
+ * detached, and shows its versions through one {@link SnapshotView}.
+ *
+ * @param <T> the domain type
+ */
+class SharedSnapshotBinding<T> implements Serializable {
+
+    private final SharedSnapshotCache cache;
+    private final Object key;
+    private final Class<T> domainType;
+    private final SerializableSupplier<Collection<T>> loader;
+    private final SerializablePredicate<T> membership;
+    private SnapshotView<T> view;
+
+    SharedSnapshotBinding(SharedSnapshotCache cache, Object key, Class<T> domainType, SerializableSupplier<Collection<T>> loader, SerializablePredicate<T> membership) {
+        this.cache = cache;
+        this.key = key;
+        this.domainType = domainType;
+        this.loader = loader;
+        this.membership = membership;
+    }
+
+    /**
+     * Acquires the snapshot if not held yet, and returns the view showing its current version.
+     */
+    List<T> acquire(SerializableFunction<T, ?> idGetter, CrudChangeBus changeBus) {
+        if (view == null) {
+            SerializableFunction<T, Object> snapshotIdGetter = idGetter != null ? idGetter::apply : item -> item;
+            view = new SnapshotView<>(cache.acquire(key, domainType, loader, membership, snapshotIdGetter, changeBus));
+        } else {
+            update();
+        }
+
+        return view;
+    }
+
+    void release() {
+        if (view != null) {
+            view = null;
+            cache.release(key);
+        }
+    }
+
+    boolean isView(Collection<T> items) {
+        return view != null && items == view;
+    }
+
+    /**
+     * Shows the current version in the view.
+     *
+     * @return whether the version changed
+     */
+    boolean update() {
+        Snapshot<T> current = view != null ? cache.get(key) : null;
+        return current != null && view.setSnapshot(current);
+    }
+
+    void reload() {
+        if (view != null) {
+            cache.reload(key);
+        }
+    }
+
+    /**
+     * Returns a copy of a shared item to be edited, or the item itself if it cannot be copied or the copy would not be
+     * recognized as the same item.
+     *
+     * @param idProvider returns the id of an item
+     */
+    T copy(T item, SerializableFunction<T, ?> idProvider) {
+        T copy;
+        try {
+            copy = BeanProperties.copy(item);
+        } catch (IllegalArgumentException e) {
+            return item;
+        }
+
+        return Objects.equals(idProvider.apply(copy), idProvider.apply(item)) ? copy : item;
+    }
+
+    /**
+     * Applies a change made in the grid, unless the snapshot gets it from the change bus.
+     */
+    void apply(CrudChangeEvent<T> event, CrudChangeBus changeBus) {
+        if (view != null && (changeBus == null || changeBus != cache.getChangeBus(key))) {
+            cache.apply(key, event);
+        }
+    }
+
+}
@@ -18,6 +18,10 @@ import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.data.binder.BeanValidationBinder;
 import com.vaadin.flow.data.binder.Binder;
+import com.vaadin.flow.data.binder.Result;
+import com.vaadin.flow.data.binder.ValidationResult;
+import com.vaadin.flow.data.binder.ValueContext;
+import com.vaadin.flow.data.converter.Converter;
 import com.vaadin.flow.data.converter.LocalDateToDateConverter;
 import com.vaadin.flow.data.converter.StringToBigDecimalConverter;
 import com.vaadin.flow.data.converter.StringToBigIntegerConverter;
@@ -25,11 +29,13 @@ import com.vaadin.flow.data.converter.StringToDoubleConverter;
 import com.vaadin.flow.data.converter.StringToFloatConverter;
 import com.vaadin.flow.data.converter.StringToIntegerConverter;
 import com.vaadin.flow.data.converter.StringToLongConverter;
+import com.vaadin.flow.data.validator.BeanValidator;
 import com.vaadin.flow.internal.BeanUtil;
 import com.vaadin.flow.shared.util.SharedUtil;
 import org.vaadin.crudui.crud.CrudOperation;
 import org.vaadin.crudui.crud.CrudOperationException;
 import org.vaadin.crudui.form.impl.field.provider.DefaultFieldProvider;
+import org.vaadin.data.bean.BeanProperties;
 import org.vaadin.data.converter.StringToByteConverter;
 import org.vaadin.data.converter.StringToCharacterConverter;
 
@@ -39,12 +45,20 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -64,6 +78,10 @@ public abstract class AbstractAutoGeneratedCrudFormFactory<T> extends AbstractCr
 
     protected Binder<T> binder;
 
+    protected Map<HasValue<?, ?>, String> boundProperties = new HashMap<>();
+    protected Set<String> touchedProperties = new LinkedHashSet<>();
+    protected Set<String> changedProperties;
+
     public AbstractAutoGeneratedCrudFormFactory(Class<T> domainType) {
         this.domainType = domainType;
 
@@ -102,10 +120,20 @@ public abstract class AbstractAutoGeneratedCrudFormFactory<T> extends AbstractCr
         buttonThemes.put(operation, theme);
     }
 
+    @Override
+    public String getButtonCaption(CrudOperation operation) {
+        return buttonCaptions.get(operation);
+    }
+
     public void setCancelButtonCaption(String cancelButtonCaption) {
         this.cancelButtonCaption = cancelButtonCaption;
     }
 
+    @Override
+    public String getCancelButtonCaption() {
+        return cancelButtonCaption;
+    }
+
     public void setValidationErrorMessage(String validationErrorMessage) {
         this.validationErrorMessage = validationErrorMessage;
     }
@@ -121,6 +149,8 @@ public abstract class AbstractAutoGeneratedCrudFormFactory<T> extends AbstractCr
 
     protected List<HasValueAndElement> buildFields(CrudOperation operation, T domainObject, boolean readOnly) {
         binder = buildBinder(operation, domainObject);
+        boundProperties = new HashMap<>();
+        touchedProperties = new LinkedHashSet<>();
         ArrayList<HasValueAndElement> fields = new ArrayList<>();
         CrudFormConfiguration configuration = getConfiguration(operation);
 
@@ -148,6 +178,7 @@ public abstract class AbstractAutoGeneratedCrudFormFactory<T> extends AbstractCr
                 if (field != null) {
                     configureField(field, property, fieldCaption, readOnly, configuration);
                     bindField(field, property, propertyType);
+                    boundProperties.put(field, property);
                     fields.add(field);
 
                     if (!focused) {
@@ -170,6 +201,12 @@ public abstract class AbstractAutoGeneratedCrudFormFactory<T> extends AbstractCr
         }
 
         binder.readBean(domainObject);
+        binder.addValueChangeListener(event -> {
+            String property = boundProperties.get(event.getHasValue());
+            if (property != null) {
+                touchedProperties.add(property);
+            }
+        });
 
         for (int i = 0; i < fieldsWithCreationListeners.size(); i++) {
             creationListeners.get(i).fieldCreated(fieldsWithCreationListeners.get(i));
@@ -234,35 +271,150 @@ public abstract class AbstractAutoGeneratedCrudFormFactory<T> extends AbstractCr
             bindingBuilder = bindingBuilder.withNullRepresentation("");
         }
 
+        Converter converter = buildConverter(propertyType);
+        if (converter != null) {
+            bindingBuilder = bindingBuilder.withConverter(converter);
+        }
+
+        bindingBuilder.bind(property);
+    }
+
+    /**
+     * Returns the converter set for a property with {@link #setConverter(CrudOperation, String, Converter)}, or the
+     * one built for its type. Used to convert imported text; fields are bound with {@link #buildConverter(Class)}.
+     */
+    protected Converter<?, ?> getConverter(CrudFormConfiguration configuration, String property, Class<?> propertyType) {
+        Converter<?, ?> converter = configuration.getConverters().get(property);
+        return converter != null ? converter : buildConverter(propertyType);
+    }
+
+    /**
+     * Returns the converter used to bind a field to a property of the given type, or null if no conversion is needed.
+     */
+    protected Converter<?, ?> buildConverter(Class<?> propertyType) {
         if (Double.class.isAssignableFrom(propertyType) || double.class.isAssignableFrom(propertyType)) {
-            bindingBuilder = bindingBuilder.withConverter(new StringToDoubleConverter(null, "Must be a number"));
+            return new StringToDoubleConverter(null, "Must be a number");
 
         } else if (Long.class.isAssignableFrom(propertyType) || long.class.isAssignableFrom(propertyType)) {
-            bindingBuilder = bindingBuilder.withConverter(new StringToLongConverter(null, "Must be a number"));
+            return new StringToLongConverter(null, "Must be a number");
 
         } else if (BigDecimal.class.isAssignableFrom(propertyType)) {
-            bindingBuilder = bindingBuilder.withConverter(new StringToBigDecimalConverter(null, "Must be a number"));
+            return new StringToBigDecimalConverter(null, "Must be a number");
 
         } else if (BigInteger.class.isAssignableFrom(propertyType)) {
-            bindingBuilder = bindingBuilder.withConverter(new StringToBigIntegerConverter(null, "Must be a number"));
+            return new StringToBigIntegerConverter(null, "Must be a number");
 
         } else if (Integer.class.isAssignableFrom(propertyType) || int.class.isAssignableFrom(propertyType)) {
-            bindingBuilder = bindingBuilder.withConverter(new StringToIntegerConverter(null, "Must be a number"));
+            return new StringToIntegerConverter(null, "Must be a number");
 
         } else if (Byte.class.isAssignableFrom(propertyType) || byte.class.isAssignableFrom(propertyType)) {
-            bindingBuilder = bindingBuilder.withConverter(new StringToByteConverter(null, "Must be a number"));
+            return new StringToByteConverter(null, "Must be a number");
 
         } else if (Character.class.isAssignableFrom(propertyType) || char.class.isAssignableFrom(propertyType)) {
-            bindingBuilder = bindingBuilder.withConverter(new StringToCharacterConverter());
+            return new StringToCharacterConverter();
 
         } else if (Float.class.isAssignableFrom(propertyType) || float.class.isAssignableFrom(propertyType)) {
-            bindingBuilder = bindingBuilder.withConverter(new StringToFloatConverter(null, "Must be a number"));
+            return new StringToFloatConverter(null, "Must be a number");
 
         } else if (Date.class.isAssignableFrom(propertyType)) {
-            bindingBuilder = bindingBuilder.withConverter(new LocalDateToDateConverter());
+            return new LocalDateToDateConverter();
         }
 
-        bindingBuilder.bind(property);
+        return null;
+    }
+
+    @Override
+    public List<String> getVisibleProperties(CrudOperation operation) {
+        return getConfiguration(operation).getVisibleProperties();
+    }
+
+    @Override
+    public boolean isTextConversionSupported() {
+        return true;
+    }
+
+    /**
+     * Converts the text with the converter set for the property, or the one its field would get, in the given locale.
+     */
+    @Override
+    public Result<?> convertFromString(CrudOperation operation, String property, String value, Locale locale) {
+        Class<?> propertyType;
+        try {
+            propertyType = BeanUtil.getPropertyType(domainType, property);
+        } catch (IntrospectionException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (propertyType == null) {
+            throw new RuntimeException("Cannot find type for property " + domainType.getName() + "." + property);
+        }
+
+        CrudFormConfiguration configuration = getConfiguration(operation);
+        ValueContext context = new ValueContext(locale);
+        Result<?> result = convertFromString(value, propertyType, getConverter(configuration, property, propertyType), context);
+
+        if (configuration.isUseBeanValidation()) {
+            BeanValidator validator = new BeanValidator(domainType, property);
+            result = result.flatMap(convertedValue -> {
+                ValidationResult validationResult = validator.apply(convertedValue, context);
+                return validationResult.isError() ? Result.error(validationResult.getErrorMessage()) : Result.ok(convertedValue);
+            });
+        }
+
+        return result;
+    }
+
+    protected Result<?> convertFromString(String value, Class<?> propertyType, Converter<?, ?> converter, ValueContext context) {
+        if (value == null || value.isEmpty()) {
+            return propertyType.isPrimitive() ? Result.error("Must not be empty") : Result.ok(null);
+        }
+
+        String trimmed = value.trim();
+        try {
+            if (converter instanceof LocalDateToDateConverter) {
+                return ((LocalDateToDateConverter) converter).convertToModel(LocalDate.parse(trimmed), context);
+
+            } else if (converter != null) {
+                return convertToModel(converter, String.class.equals(propertyType) ? value : trimmed, context);
+
+            } else if (String.class.equals(propertyType)) {
+                return Result.ok(value);
+
+            } else if (Boolean.class.equals(propertyType) || boolean.class.equals(propertyType)) {
+                return "true".equalsIgnoreCase(trimmed) || "false".equalsIgnoreCase(trimmed)
+                        ? Result.ok(Boolean.valueOf(trimmed)) : Result.error("Must be true or false");
+
+            } else if (LocalDate.class.equals(propertyType)) {
+                return Result.ok(LocalDate.parse(trimmed));
+
+            } else if (LocalDateTime.class.equals(propertyType)) {
+                return Result.ok(LocalDateTime.parse(trimmed));
+
+            } else if (propertyType.isEnum()) {
+                return Arrays.stream(propertyType.getEnumConstants())
+                        .filter(constant -> ((Enum<?>) constant).name().equals(trimmed))
+                        .findFirst()
+                        .map(constant -> Result.<Object>ok(constant))
+                        .orElseGet(() -> Result.error("Unknown value " + value));
+            }
+
+        } catch (DateTimeParseException e) {
+            return Result.error("Must be a date (yyyy-mm-dd)");
+        }
+
+        return Result.error("Cannot convert text to " + propertyType.getSimpleName());
+    }
+
+    /**
+     * Passes text to a converter whose presentation type is expected to be {@link String}.
+     */
+    @SuppressWarnings("unchecked")
+    private static <P> Result<?> convertToModel(Converter<P, ?> converter, String value, ValueContext context) {
+        try {
+            return converter.convertToModel((P) value, context);
+        } catch (ClassCastException e) {
+            return Result.error("Cannot convert text with " + converter.getClass().getSimpleName());
+        }
     }
 
     protected Binder<T> buildBinder(CrudOperation operation, T domainObject) {
@@ -293,7 +445,9 @@ public abstract class AbstractAutoGeneratedCrudFormFactory<T> extends AbstractCr
         }
 
         button.addClickListener(event -> {
+            Map<String, Object> previousValues = readProperties(domainObject, touchedProperties);
             if (binder.writeBeanIfValid(domainObject)) {
+                changedProperties = getChangedProperties(domainObject, previousValues);
                 try {
                     clickListener.onComponentEvent(event);
                 } catch (Exception e) {
@@ -306,6 +460,37 @@ public abstract class AbstractAutoGeneratedCrudFormFactory<T> extends AbstractCr
         return button;
     }
 
+    @Override
+    public Set<String> getChangedProperties() {
+        return changedProperties;
+    }
+
+    private Map<String, Object> readProperties(T domainObject, Set<String> properties) {
+        Map<String, Object> values = new HashMap<>();
+        for (String property : properties) {
+            Object value = BeanProperties.read(domainObject, property);
+            if (value instanceof Set) {
+                value = new HashSet<>((Set<?>) value);
+            } else if (value instanceof Collection) {
+                value = new ArrayList<>((Collection<?>) value);
+            }
+            values.put(property, value);
+        }
+
+        return values;
+    }
+
+    private Set<String> getChangedProperties(T domainObject, Map<String, Object> previousValues) {
+        Set<String> changed = new LinkedHashSet<>();
+        for (Map.Entry<String, Object> previousValue : previousValues.entrySet()) {
+            if (!Objects.equals(previousValue.getValue(), BeanProperties.read(domainObject, previousValue.getKey()))) {
+                changed.add(previousValue.getKey());
+            }
+        }
+
+        return changed;
+    }
+
     @Override
     public void showError(CrudOperation operation, Exception e) {
         if (errorListener != null) {
@@ -5,10 +5,14 @@ import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentEventListener;
 import com.vaadin.flow.component.HasValueAndElement;
 import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.data.binder.Result;
 import com.vaadin.flow.data.converter.Converter;
 import org.vaadin.crudui.crud.CrudOperation;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -56,4 +60,50 @@ public interface CrudFormFactory<T> extends Serializable {
 
     void showError(CrudOperation operation, Exception e);
 
+    /**
+     * Returns the properties shown in the form of the given operation, or null if the factory doesn't expose them.
+     */
+    default List<String> getVisibleProperties(CrudOperation operation) {
+        return null;
+    }
+
+    /**
+     * Returns the caption of the button performing an operation, or null if the factory doesn't expose it. Used for the
+     * forms the crud builds itself, such as the confirmation of a bulk delete.
+     */
+    default String getButtonCaption(CrudOperation operation) {
+        return null;
+    }
+
+    /**
+     * Returns the caption of the cancel button, or null if the factory doesn't expose it.
+     */
+    default String getCancelButtonCaption() {
+        return null;
+    }
+
+    /**
+     * Returns the properties whose values were changed by the last form written to its object, or null if the factory
+     * doesn't track changes.
+     */
+    default Set<String> getChangedProperties() {
+        return null;
+    }
+
+    /**
+     * Returns whether the factory exposes its visible properties and converts their values from text, which importing
+     * items from a file requires.
+     */
+    default boolean isTextConversionSupported() {
+        return false;
+    }
+
+    /**
+     * Converts and validates a property value given as text, the same way the form fields would, for example when
+     * importing items from a file. Called outside the UI thread, so the locale is passed in.
+     */
+    default Result<?> convertFromString(CrudOperation operation, String property, String value, Locale locale) {
+        return Result.error("This form factory doesn't convert values from text.");
+    }
+
 }
@@ -0,0 +1,170 @@
+package org.vaadin.data.bean;
+
+import com.vaadin.flow.internal.BeanUtil;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Reflective access to the properties of beans.
+ */
+public final class BeanProperties {
+
+    private BeanProperties() {
+    }
+
+    /**
+     * Returns the value of a property of a bean. Nested properties are separated by dots, and are null if a property on
+     * the way is null, as is the value of any property of a null bean.
+     *
+     * @throws IllegalArgumentException if the property is not readable, or reading it fails
+     */
+    public static Object read(Object bean, String property) {
+        if (bean == null) {
+            return null;
+        }
+
+        List<Method> readMethods = getReadMethods(bean.getClass(), property);
+        if (readMethods == null) {
+            throw new IllegalArgumentException("No readable property " + property + " in " + bean.getClass().getName());
+        }
+
+        return read(bean, readMethods);
+    }
+
+    /**
+     * Returns the value of a property of a bean through the read methods returned by {@link #getReadMethods}, which
+     * callers reading many beans resolve once.
+     *
+     * @throws IllegalArgumentException if reading the property fails
+     */
+    public static Object read(Object bean, List<Method> readMethods) {
+        Object current = bean;
+        for (Method readMethod : readMethods) {
+            if (current == null) {
+                return null;
+            }
+
+            try {
+                current = readMethod.invoke(current);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot read " + readMethod.getName() + " from " + bean, e);
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Returns the read methods of a property of a type, one per nested property, or null if one of them is not
+     * readable.
+     */
+    public static List<Method> getReadMethods(Class<?> type, String property) {
+        List<Method> readMethods = new ArrayList<>();
+        Class<?> currentType = type;
+
+        try {
+            for (String name : property.split("\\.")) {
+                PropertyDescriptor descriptor = BeanUtil.getPropertyDescriptor(currentType, name);
+                if (descriptor == null || descriptor.getReadMethod() == null) {
+                    return null;
+                }
+
+                readMethods.add(descriptor.getReadMethod());
+                currentType = descriptor.getPropertyType();
+            }
+        } catch (IntrospectionException e) {
+            return null;
+        }
+
+        return readMethods;
+    }
+
+    /**
+     * Returns a new instance of the class of a bean, created with its no-argument constructor, with the values of the
+     * properties that have both a getter and a setter. Proxies generated by JPA providers and other libraries are
+     * copied into an instance of the class they extend. Collections and maps are copied into new lists, sets and maps,
+     * while other values and the elements are not copied themselves.
+     *
+     * @throws IllegalArgumentException if the class has no no-argument constructor, or reading or writing a property
+     *                                  fails
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T copy(T bean) {
+        Class<?> type = getUnproxiedClass(bean.getClass());
+
+        Constructor<?> constructor;
+        try {
+            constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Cannot copy " + bean + ", " + type.getName() + " has no no-argument constructor", e);
+        }
+
+        try {
+            T copy = (T) constructor.newInstance();
+            for (PropertyDescriptor descriptor : BeanUtil.getBeanPropertyDescriptors(type)) {
+                if (descriptor.getReadMethod() != null && descriptor.getWriteMethod() != null) {
+                    descriptor.getWriteMethod().invoke(copy, copyValue(descriptor.getReadMethod().invoke(bean), descriptor.getPropertyType()));
+                }
+            }
+
+            return copy;
+        } catch (IntrospectionException | ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot copy " + bean, e);
+        }
+    }
+
+    /**
+     * Returns the class a proxy class extends, such as the entity class of a Hibernate proxy, or the class itself if
+     * it is not a proxy.
+     */
+    public static Class<?> getUnproxiedClass(Class<?> type) {
+        Class<?> current = type;
+        while (current.getSuperclass() != null && current.getSuperclass() != Object.class && isProxyClass(current)) {
+            current = current.getSuperclass();
+        }
+
+        return current;
+    }
+
+    private static boolean isProxyClass(Class<?> type) {
+        String name = type.getName();
+        return type.isSynthetic() || name.contains("$$") || name.contains("$HibernateProxy$") || name.contains("$ByteBuddy$");
+    }
+
+    /**
+     * Returns a new collection or map with the elements of the value if the property type accepts it, or the value
+     * itself.
+     */
+    private static Object copyValue(Object value, Class<?> propertyType) {
+        Object copy = value;
+        if (value instanceof SortedSet) {
+            copy = new TreeSet<>((SortedSet<?>) value);
+        } else if (value instanceof Set) {
+            copy = new LinkedHashSet<>((Set<?>) value);
+        } else if (value instanceof Collection) {
+            copy = new ArrayList<>((Collection<?>) value);
+        } else if (value instanceof SortedMap) {
+            copy = new TreeMap<>((SortedMap<?, ?>) value);
+        } else if (value instanceof Map) {
+            copy = new LinkedHashMap<>((Map<?, ?>) value);
+        }
+
+        return propertyType.isInstance(copy) ? copy : value;
+    }
+
+}
@@ -0,0 +1,180 @@
+package org.vaadin.data.export;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.function.ValueProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the items of a {@link DataProvider} as delimited text (CSV, TSV...), fetching them page by page with the given
+ * filter and sort so that only one page is held in memory at a time. If a lock is set, each page is fetched and its
+ * values are read while holding it, and the text is written without it.
+ *
+ * @param <T> the data type
+ * @param <F> the filter type
+ */
+public class DataProviderExporter<T, F> implements Serializable {
+
+    public static final char CSV = ',';
+    public static final char TSV = '\t';
+
+    private final DataProvider<T, F> dataProvider;
+    private final List<String> headers = new ArrayList<>();
+    private final List<ValueProvider<T, ?>> valueProviders = new ArrayList<>();
+    private List<QuerySortOrder> sortOrders = new ArrayList<>();
+    private Comparator<T> inMemorySorting;
+    private F filter;
+    private char delimiter = CSV;
+    private boolean gzip;
+    private int pageSize = 1000;
+    private transient Lock lock;
+
+    public DataProviderExporter(DataProvider<T, F> dataProvider) {
+        this.dataProvider = dataProvider;
+    }
+
+    public DataProviderExporter<T, F> addColumn(String header, ValueProvider<T, ?> valueProvider) {
+        headers.add(header);
+        valueProviders.add(valueProvider);
+        return this;
+    }
+
+    public DataProviderExporter<T, F> setSortOrders(List<QuerySortOrder> sortOrders, Comparator<T> inMemorySorting) {
+        this.sortOrders = new ArrayList<>(sortOrders);
+        this.inMemorySorting = inMemorySorting;
+        return this;
+    }
+
+    public DataProviderExporter<T, F> setFilter(F filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    public DataProviderExporter<T, F> setDelimiter(char delimiter) {
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    public DataProviderExporter<T, F> setGzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    public DataProviderExporter<T, F> setPageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one!");
+        }
+
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Sets the lock held while fetching each page and reading its values, for example the lock of the session owning
+     * the data provider and the value providers.
+     */
+    public DataProviderExporter<T, F> setLock(Lock lock) {
+        this.lock = lock;
+        return this;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    /**
+     * Writes the header and all the rows to the stream, compressing them if gzip is enabled. The stream is closed
+     * when done.
+     */
+    public void write(OutputStream outputStream) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, 8192) : outputStream;
+
+        try (WritableByteChannel channel = Channels.newChannel(target);
+             Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), 8192)) {
+
+            writeRow(writer, headers);
+
+            int offset = 0;
+            List<List<Object>> rows;
+            do {
+                rows = fetchRows(offset);
+                for (List<Object> values : rows) {
+                    writeRow(writer, values);
+                }
+
+                offset += rows.size();
+            } while (rows.size() == pageSize);
+        }
+    }
+
+    /**
+     * Returns the values of the page of items starting at the given offset, holding the lock if set.
+     */
+    protected List<List<Object>> fetchRows(int offset) {
+        if (lock != null) {
+            lock.lock();
+        }
+
+        try {
+            Query<T, F> query = new Query<>(offset, pageSize, sortOrders, inMemorySorting, filter);
+            List<List<Object>> rows = new ArrayList<>(pageSize);
+            dataProvider.fetch(query).forEachOrdered(item -> {
+                List<Object> values = new ArrayList<>(valueProviders.size());
+                valueProviders.forEach(valueProvider -> values.add(valueProvider.apply(item)));
+                rows.add(values);
+            });
+
+            return rows;
+        } finally {
+            if (lock != null) {
+                lock.unlock();
+            }
+        }
+    }
+
+    protected void writeRow(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(delimiter);
+            }
+
+            writer.write(escape(values.get(i)));
+        }
+
+        writer.write("\r\n");
+    }
+
+    protected String escape(Object value) {
+        return escape(value, delimiter);
+    }
+
+    /**
+     * Returns a value as a delimited text field, quoted if it holds the delimiter, a quote or a line break.
+     */
+    public static String escape(Object value, char delimiter) {
+        if (value == null) {
+            return "";
+        }
+
+        String text = value.toString();
+        if (text.indexOf(delimiter) < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+}
@@ -0,0 +1,72 @@
+package org.vaadin.data.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Matches when all (AND) or any (OR) of its filters match.
+ */
+public class CompositeFilter extends Filter {
+
+    public enum Type {
+        AND,
+        OR
+    }
+
+    private final Type type;
+    private final List<Filter> filters;
+
+    public CompositeFilter(Type type, List<Filter> filters) {
+        this.type = type;
+        this.filters = Collections.unmodifiableList(new ArrayList<>(filters));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public List<Filter> getFilters() {
+        return filters;
+    }
+
+    @Override
+    public boolean test(Object item) {
+        if (type == Type.AND) {
+            return filters.stream().allMatch(filter -> filter.test(item));
+        }
+
+        return filters.stream().anyMatch(filter -> filter.test(item));
+    }
+
+    @Override
+    public <R> R accept(FilterVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        CompositeFilter other = (CompositeFilter) o;
+        return type == other.type && filters.equals(other.filters);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * type.hashCode() + filters.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return filters.stream().map(Filter::toString).collect(Collectors.joining(" " + type + " ", "(", ")"));
+    }
+
+}
@@ -0,0 +1,137 @@
+package org.vaadin.data.filter;
+
+import com.vaadin.flow.function.SerializablePredicate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A condition on the properties of the items of a data provider. Filters are immutable, can be combined with
+ * {@link #and(Filter...)}, {@link #or(Filter...)} and {@link #not(Filter)}, and are equal when they express the same
+ * condition, so they can be used as cache keys. In-memory data providers evaluate them with {@link #test(Object)},
+ * while back-end data providers translate them into a query, for example with
+ * {@link org.vaadin.data.jpa.JpaFilterTranslator}.
+ */
+public abstract class Filter implements SerializablePredicate<Object> {
+
+    public static Filter equal(String property, Object value) {
+        return new PropertyFilter(property, PropertyFilter.Operator.EQUAL, value);
+    }
+
+    public static Filter notEqual(String property, Object value) {
+        return new PropertyFilter(property, PropertyFilter.Operator.NOT_EQUAL, value);
+    }
+
+    public static Filter lessThan(String property, Comparable<?> value) {
+        return new PropertyFilter(property, PropertyFilter.Operator.LESS_THAN, value);
+    }
+
+    public static Filter lessThanOrEqual(String property, Comparable<?> value) {
+        return new PropertyFilter(property, PropertyFilter.Operator.LESS_THAN_OR_EQUAL, value);
+    }
+
+    public static Filter greaterThan(String property, Comparable<?> value) {
+        return new PropertyFilter(property, PropertyFilter.Operator.GREATER_THAN, value);
+    }
+
+    public static Filter greaterThanOrEqual(String property, Comparable<?> value) {
+        return new PropertyFilter(property, PropertyFilter.Operator.GREATER_THAN_OR_EQUAL, value);
+    }
+
+    /**
+     * Matches text properties that contain the given text, ignoring case.
+     */
+    public static Filter contains(String property, String text) {
+        return new PropertyFilter(property, PropertyFilter.Operator.CONTAINS, text);
+    }
+
+    /**
+     * Matches text properties that start with the given text, ignoring case.
+     */
+    public static Filter startsWith(String property, String text) {
+        return new PropertyFilter(property, PropertyFilter.Operator.STARTS_WITH, text);
+    }
+
+    public static Filter in(String property, Collection<?> values) {
+        return new PropertyFilter(property, PropertyFilter.Operator.IN, new ArrayList<>(values));
+    }
+
+    public static Filter isNull(String property) {
+        return new PropertyFilter(property, PropertyFilter.Operator.IS_NULL, null);
+    }
+
+    /**
+     * Returns a filter that matches when all the given filters match. Null filters are ignored.
+     *
+     * @return the combined filter, the only non-null filter, or null if all the filters are null
+     */
+    public static Filter and(Filter... filters) {
+        return combine(CompositeFilter.Type.AND, filters);
+    }
+
+    /**
+     * Returns a filter that matches when any of the given filters matches. Null filters are ignored.
+     *
+     * @return the combined filter, the only non-null filter, or null if all the filters are null
+     */
+    public static Filter or(Filter... filters) {
+        return combine(CompositeFilter.Type.OR, filters);
+    }
+
+    public static Filter not(Filter filter) {
+        Objects.requireNonNull(filter, "filter must not be null");
+        return filter instanceof NotFilter ? ((NotFilter) filter).getFilter() : new NotFilter(filter);
+    }
+
+    public abstract <R> R accept(FilterVisitor<R> visitor);
+
+    /**
+     * Returns the properties compared by this filter and the filters it combines.
+     */
+    public Set<String> getProperties() {
+        Set<String> properties = new LinkedHashSet<>();
+        accept(new FilterVisitor<Void>() {
+            @Override
+            public Void visit(PropertyFilter filter) {
+                properties.add(filter.getProperty());
+                return null;
+            }
+
+            @Override
+            public Void visit(CompositeFilter filter) {
+                filter.getFilters().forEach(operand -> operand.accept(this));
+                return null;
+            }
+
+            @Override
+            public Void visit(NotFilter filter) {
+                return filter.getFilter().accept(this);
+            }
+        });
+
+        return properties;
+    }
+
+    private static Filter combine(CompositeFilter.Type type, Filter... filters) {
+        List<Filter> operands = new ArrayList<>();
+        Arrays.stream(filters).filter(Objects::nonNull).forEach(filter -> {
+            if (filter instanceof CompositeFilter && ((CompositeFilter) filter).getType() == type) {
+                operands.addAll(((CompositeFilter) filter).getFilters());
+            } else {
+                operands.add(filter);
+            }
+        });
+
+        if (operands.isEmpty()) {
+            return null;
+        }
+
+        return operands.size() == 1 ? operands.get(0) : new CompositeFilter(type, operands);
+    }
+
+}
@@ -0,0 +1,16 @@
+package org.vaadin.data.filter;
+
+/**
+ * Translates a {@link Filter} into another representation, such as a query condition.
+ *
+ * @param <R> the type of the translation
+ */
+public interface FilterVisitor<R> {
+
+    R visit(PropertyFilter filter);
+
+    R visit(CompositeFilter filter);
+
+    R visit(NotFilter filter);
+
+}
@@ -0,0 +1,97 @@
+package org.vaadin.data.filter;
+
+import com.vaadin.flow.data.provider.AbstractDataProvider;
+import com.vaadin.flow.data.provider.ConfigurableFilterDataProvider;
+import com.vaadin.flow.data.provider.DataChangeEvent;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.DataProviderListener;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.shared.Registration;
+
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Passes a configurable {@link Filter} down to a data provider that understands filters, combined with the filter of
+ * each query. Unlike {@code DataProvider.withConfigurableFilter()}, changing the filter does not refresh the wrapped
+ * data provider: caches below this one keep the rows of every filter under its own key, so going back to a previous
+ * filter does not hit the back end again.
+ *
+ * @param <T> the data type
+ */
+public class FilteringDataProvider<T> extends AbstractDataProvider<T, Filter> implements ConfigurableFilterDataProvider<T, Filter, Filter> {
+
+    private final DataProvider<T, Filter> dataProvider;
+    private Filter filter;
+
+    public FilteringDataProvider(DataProvider<T, Filter> dataProvider, Filter filter) {
+        this.dataProvider = Objects.requireNonNull(dataProvider, "dataProvider must not be null");
+        this.filter = filter;
+    }
+
+    /**
+     * Sets the filter and notifies the listeners, unless it is equal to the current one.
+     *
+     * @param filter the filter, or null to show all the items
+     */
+    @Override
+    public void setFilter(Filter filter) {
+        if (!Objects.equals(this.filter, filter)) {
+            this.filter = filter;
+            fireEvent(new DataChangeEvent<>(this));
+        }
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    @Override
+    public boolean isInMemory() {
+        return dataProvider.isInMemory();
+    }
+
+    @Override
+    public int size(Query<T, Filter> query) {
+        return dataProvider.size(combine(query));
+    }
+
+    @Override
+    public Stream<T> fetch(Query<T, Filter> query) {
+        return dataProvider.fetch(combine(query));
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        dataProvider.refreshItem(item);
+    }
+
+    @Override
+    public void refreshAll() {
+        dataProvider.refreshAll();
+    }
+
+    @Override
+    public Object getId(T item) {
+        return dataProvider.getId(item);
+    }
+
+    /**
+     * Listens to this data provider and to the wrapped one, which fires the events of refreshes and item updates.
+     */
+    @Override
+    public Registration addDataProviderListener(DataProviderListener<T> listener) {
+        Registration own = super.addDataProviderListener(listener);
+        Registration wrapped = dataProvider.addDataProviderListener(listener);
+        return () -> {
+            own.remove();
+            wrapped.remove();
+        };
+    }
+
+    protected Query<T, Filter> combine(Query<T, Filter> query) {
+        Filter combined = Filter.and(filter, query.getFilter().orElse(null));
+        return new Query<>(query.getOffset(), query.getLimit(), query.getSortOrders(), query.getInMemorySorting(), combined);
+    }
+
+}
@@ -0,0 +1,45 @@
+package org.vaadin.data.filter;
+
+import java.util.Objects;
+
+/**
+ * Matches when its filter does not match.
+ */
+public class NotFilter extends Filter {
+
+    private final Filter filter;
+
+    public NotFilter(Filter filter) {
+        this.filter = Objects.requireNonNull(filter, "filter must not be null");
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    @Override
+    public boolean test(Object item) {
+        return !filter.test(item);
+    }
+
+    @Override
+    public <R> R accept(FilterVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o != null && getClass() == o.getClass() && filter.equals(((NotFilter) o).filter));
+    }
+
+    @Override
+    public int hashCode() {
+        return ~filter.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "NOT " + filter;
+    }
+
+}
@@ -0,0 +1,166 @@
+package org.vaadin.data.filter;
+
+import org.vaadin.data.bean.BeanProperties;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compares a property of the items with a value. Nested properties are separated by dots, for example
+ * {@code "mainGroup.name"}.
+ */
+public class PropertyFilter extends Filter {
+
+    public enum Operator {
+        EQUAL,
+        NOT_EQUAL,
+        LESS_THAN,
+        LESS_THAN_OR_EQUAL,
+        GREATER_THAN,
+        GREATER_THAN_OR_EQUAL,
+        /**
+         * The text value of the property contains the value, ignoring case.
+         */
+        CONTAINS,
+        /**
+         * The text value of the property starts with the value, ignoring case.
+         */
+        STARTS_WITH,
+        /**
+         * The property is equal to one of the values of a collection.
+         */
+        IN,
+        IS_NULL
+    }
+
+    private final String property;
+    private final Operator operator;
+    private final Object value;
+    private transient volatile ReadMethods readMethods;
+
+    public PropertyFilter(String property, Operator operator, Object value) {
+        this.property = Objects.requireNonNull(property, "property must not be null");
+        this.operator = Objects.requireNonNull(operator, "operator must not be null");
+        this.value = value;
+
+        if (value == null && operator != Operator.IS_NULL && operator != Operator.EQUAL && operator != Operator.NOT_EQUAL) {
+            throw new IllegalArgumentException("The value of a " + operator + " filter must not be null!");
+        }
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean test(Object item) {
+        Object propertyValue = getPropertyValue(item);
+
+        switch (operator) {
+            case EQUAL:
+                return Objects.equals(propertyValue, value);
+            case NOT_EQUAL:
+                return !Objects.equals(propertyValue, value);
+            case IS_NULL:
+                return propertyValue == null;
+            case IN:
+                return ((Collection<?>) value).contains(propertyValue);
+            case CONTAINS:
+                return propertyValue != null && propertyValue.toString().toLowerCase().contains(value.toString().toLowerCase());
+            case STARTS_WITH:
+                return propertyValue != null && propertyValue.toString().toLowerCase().startsWith(value.toString().toLowerCase());
+            default:
+                if (propertyValue == null) {
+                    return false;
+                }
+
+                int comparison = ((Comparable<Object>) propertyValue).compareTo(value);
+                switch (operator) {
+                    case LESS_THAN:
+                        return comparison < 0;
+                    case LESS_THAN_OR_EQUAL:
+                        return comparison <= 0;
+                    case GREATER_THAN:
+                        return comparison > 0;
+                    default:
+                        return comparison >= 0;
+                }
+        }
+    }
+
+    @Override
+    public <R> R accept(FilterVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    /**
+     * Returns the value of the property of an item. The read methods are resolved once for the class of the items, and
+     * again only when an item of another class is tested.
+     */
+    protected Object getPropertyValue(Object item) {
+        if (item == null) {
+            return null;
+        }
+
+        ReadMethods current = readMethods;
+        if (current == null || current.type != item.getClass()) {
+            List<Method> methods = BeanProperties.getReadMethods(item.getClass(), property);
+            if (methods == null) {
+                return BeanProperties.read(item, property);
+            }
+
+            current = new ReadMethods(item.getClass(), methods);
+            readMethods = current;
+        }
+
+        return BeanProperties.read(item, current.methods);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        PropertyFilter other = (PropertyFilter) o;
+        return property.equals(other.property) && operator == other.operator && Objects.equals(value, other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, operator, value);
+    }
+
+    @Override
+    public String toString() {
+        return property + " " + operator + (operator != Operator.IS_NULL ? " " + value : "");
+    }
+
+    private static class ReadMethods {
+
+        private final Class<?> type;
+        private final List<Method> methods;
+
+        private ReadMethods(Class<?> type, List<Method> methods) {
+            this.type = type;
+            this.methods = methods;
+        }
+
+    }
+
+}
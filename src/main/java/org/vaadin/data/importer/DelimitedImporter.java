@@ -0,0 +1,363 @@
+package org.vaadin.data.importer;
+
+import com.vaadin.flow.data.binder.Result;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.internal.BeanUtil;
+import com.vaadin.flow.shared.util.SharedUtil;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads delimited text (CSV, TSV...) record by record, converts every record into a new domain object and hands the
+ * valid ones to a consumer in batches. Columns are matched to properties by their header, either by property name or
+ * by caption. Records that cannot be converted or whose batch fails are reported as rejected. Only the current batch
+ * is held in memory.
+ *
+ * @param <T> the domain type
+ */
+public class DelimitedImporter<T> implements Serializable {
+
+    /**
+     * Converts the text of a column into the value of a property.
+     */
+    @FunctionalInterface
+    public interface ValueConverter extends Serializable {
+        Result<?> convert(String property, String value);
+    }
+
+    private final Class<T> domainType;
+    private final List<String> properties;
+    private final ValueConverter valueConverter;
+    private final SerializableConsumer<List<T>> batchConsumer;
+    private char delimiter = ',';
+    private int batchSize = 500;
+    private int maxRejectedRows = 1000;
+    private SerializableConsumer<ImportReport> progressListener = report -> { };
+
+    /**
+     * @param domainType     the type of the imported objects, which must have a default constructor
+     * @param properties     the properties that can be imported
+     * @param valueConverter converts the text of a column into a property value
+     * @param batchConsumer  stores a batch of valid objects, for example with an add-all operation
+     */
+    public DelimitedImporter(Class<T> domainType, List<String> properties, ValueConverter valueConverter, SerializableConsumer<List<T>> batchConsumer) {
+        this.domainType = domainType;
+        this.properties = new ArrayList<>(properties);
+        this.valueConverter = valueConverter;
+        this.batchConsumer = batchConsumer;
+    }
+
+    public DelimitedImporter<T> setDelimiter(char delimiter) {
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    public DelimitedImporter<T> setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must not be less than one!");
+        }
+
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets how many rejected rows are kept for the report. Rejected rows beyond this number are only counted.
+     */
+    public DelimitedImporter<T> setMaxRejectedRows(int maxRejectedRows) {
+        this.maxRejectedRows = maxRejectedRows;
+        return this;
+    }
+
+    /**
+     * Sets a listener called with the report after every batch, in the importing thread.
+     */
+    public DelimitedImporter<T> setProgressListener(SerializableConsumer<ImportReport> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * Imports all the records of the stream. The stream is closed when done.
+     *
+     * @param inputStream   the delimited text, encoded in UTF-8, starting with a header line
+     * @param contentLength the length of the stream in bytes if known, or -1, used to report progress
+     */
+    public ImportReport importFrom(InputStream inputStream, long contentLength) throws IOException {
+        ImportReport report = new ImportReport(maxRejectedRows);
+
+        try (CountingInputStream countingStream = new CountingInputStream(inputStream);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(countingStream, StandardCharsets.UTF_8))) {
+
+            RecordReader recordReader = new RecordReader(reader, delimiter);
+            List<String> header = recordReader.next();
+            if (header == null) {
+                return report;
+            }
+
+            Map<Integer, PropertyDescriptor> columns = mapColumns(header);
+            report.setHeader(header);
+
+            List<T> batch = new ArrayList<>(batchSize);
+            List<RejectedRow> batchRows = new ArrayList<>(batchSize);
+            List<String> values;
+
+            while ((values = recordReader.next()) != null) {
+                if (values.size() == 1 && values.get(0).isEmpty()) {
+                    continue;
+                }
+
+                long line = recordReader.getRecordLine();
+                List<String> errors = new ArrayList<>();
+                T domainObject = readObject(values, columns, errors);
+
+                if (errors.isEmpty()) {
+                    batch.add(domainObject);
+                    batchRows.add(new RejectedRow(line, values, null));
+                } else {
+                    report.reject(new RejectedRow(line, values, String.join("; ", errors)));
+                }
+
+                if (batch.size() >= batchSize) {
+                    flush(batch, batchRows, report);
+                    report.setFraction(contentLength > 0 ? (double) countingStream.count / contentLength : -1);
+                    progressListener.accept(report);
+                }
+            }
+
+            flush(batch, batchRows, report);
+            report.setFraction(1);
+            progressListener.accept(report);
+        }
+
+        return report;
+    }
+
+    protected T readObject(List<String> values, Map<Integer, PropertyDescriptor> columns, List<String> errors) {
+        T domainObject;
+        try {
+            domainObject = domainType.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Cannot create an instance of " + domainType.getName(), e);
+        }
+
+        columns.forEach((index, descriptor) -> {
+            String value = index < values.size() ? values.get(index) : "";
+            Result<?> result = valueConverter.convert(descriptor.getName(), value);
+            result.handle(convertedValue -> {
+                try {
+                    descriptor.getWriteMethod().invoke(domainObject, convertedValue);
+                } catch (ReflectiveOperationException | IllegalArgumentException e) {
+                    errors.add(SharedUtil.propertyIdToHumanFriendly(descriptor.getName()) + ": " + e.getMessage());
+                }
+            }, message -> errors.add(SharedUtil.propertyIdToHumanFriendly(descriptor.getName()) + ": " + message));
+        });
+
+        return domainObject;
+    }
+
+    private void flush(List<T> batch, List<RejectedRow> batchRows, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            batchConsumer.accept(new ArrayList<>(batch));
+            report.addImported(batch.size());
+        } catch (RuntimeException e) {
+            batchRows.forEach(row -> report.reject(new RejectedRow(row.getLine(), row.getValues(), e.getMessage())));
+        }
+
+        batch.clear();
+        batchRows.clear();
+    }
+
+    private Map<Integer, PropertyDescriptor> mapColumns(List<String> header) {
+        Map<String, PropertyDescriptor> descriptors = new LinkedHashMap<>();
+        for (String property : properties) {
+            try {
+                PropertyDescriptor descriptor = BeanUtil.getPropertyDescriptor(domainType, property);
+                if (descriptor != null && descriptor.getWriteMethod() != null) {
+                    descriptors.put(normalize(property), descriptor);
+                    descriptors.putIfAbsent(normalize(SharedUtil.propertyIdToHumanFriendly(property)), descriptor);
+                }
+            } catch (IntrospectionException e) {
+                throw new IllegalStateException("Cannot introspect " + domainType.getName(), e);
+            }
+        }
+
+        Map<Integer, PropertyDescriptor> columns = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            PropertyDescriptor descriptor = descriptors.get(normalize(header.get(i)));
+            if (descriptor != null) {
+                columns.put(i, descriptor);
+            }
+        }
+
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("No column in " + header + " matches the properties " + properties);
+        }
+
+        return columns;
+    }
+
+    private static String normalize(String name) {
+        return name.replaceAll("[\\s_\\-]", "").toLowerCase();
+    }
+
+    /**
+     * A row that was not imported, with the reason.
+     */
+    public static class RejectedRow implements Serializable {
+
+        private final long line;
+        private final List<String> values;
+        private final String message;
+
+        public RejectedRow(long line, List<String> values, String message) {
+            this.line = line;
+            this.values = values;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public List<String> getValues() {
+            return values;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+    }
+
+    /**
+     * Reads RFC 4180 records: fields may be quoted, quotes are escaped by doubling them and quoted fields may span
+     * several lines.
+     */
+    private static class RecordReader {
+
+        private final Reader reader;
+        private final char delimiter;
+        private long line = 1;
+        private long recordLine;
+        private boolean first = true;
+
+        private RecordReader(Reader reader, char delimiter) {
+            this.reader = reader;
+            this.delimiter = delimiter;
+        }
+
+        private List<String> next() throws IOException {
+            int c = reader.read();
+            if (first && c == '\uFEFF') {
+                c = reader.read();
+            }
+            first = false;
+
+            if (c < 0) {
+                return null;
+            }
+
+            recordLine = line;
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+
+            while (c >= 0) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            value.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        value.append((char) c);
+                    }
+
+                } else if (c == '"' && value.length() == 0) {
+                    quoted = true;
+
+                } else if (c == delimiter) {
+                    values.add(value.toString());
+                    value.setLength(0);
+
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    line++;
+                    break;
+
+                } else {
+                    value.append((char) c);
+                }
+
+                c = reader.read();
+            }
+
+            values.add(value.toString());
+            return values;
+        }
+
+        private long getRecordLine() {
+            return recordLine;
+        }
+
+    }
+
+}
@@ -0,0 +1,103 @@
+package org.vaadin.data.importer;
+
+import org.vaadin.data.export.DataProviderExporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The progress and outcome of an import: how many rows were imported and rejected, and the first rejected rows with
+ * the reason they were rejected.
+ */
+public class ImportReport implements Serializable {
+
+    private final int maxRejectedRows;
+    private final List<DelimitedImporter.RejectedRow> rejectedRows = new ArrayList<>();
+    private List<String> header = Collections.emptyList();
+    private volatile long importedCount;
+    private volatile long rejectedCount;
+    private volatile double fraction = -1;
+
+    public ImportReport(int maxRejectedRows) {
+        this.maxRejectedRows = maxRejectedRows;
+    }
+
+    void setHeader(List<String> header) {
+        this.header = header;
+    }
+
+    void addImported(int count) {
+        importedCount += count;
+    }
+
+    synchronized void reject(DelimitedImporter.RejectedRow row) {
+        rejectedCount++;
+        if (rejectedRows.size() < maxRejectedRows) {
+            rejectedRows.add(row);
+        }
+    }
+
+    void setFraction(double fraction) {
+        this.fraction = fraction;
+    }
+
+    public long getImportedCount() {
+        return importedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Returns the fraction of the input read so far, between 0 and 1, or -1 if the length of the input is unknown.
+     */
+    public double getFraction() {
+        return fraction;
+    }
+
+    public synchronized List<DelimitedImporter.RejectedRow> getRejectedRows() {
+        return new ArrayList<>(rejectedRows);
+    }
+
+    /**
+     * Writes the kept rejected rows as CSV, with the line number and the reason before the original columns.
+     */
+    public void writeRejectedRows(OutputStream outputStream) throws IOException {
+        try (Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
+            List<String> headerRow = new ArrayList<>();
+            headerRow.add("Line");
+            headerRow.add("Error");
+            headerRow.addAll(header);
+            writeRow(writer, headerRow);
+
+            for (DelimitedImporter.RejectedRow row : getRejectedRows()) {
+                List<String> values = new ArrayList<>();
+                values.add(String.valueOf(row.getLine()));
+                values.add(row.getMessage());
+                values.addAll(row.getValues());
+                writeRow(writer, values);
+            }
+        }
+    }
+
+    private void writeRow(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+
+            writer.write(DataProviderExporter.escape(values.get(i), ','));
+        }
+
+        writer.write("\r\n");
+    }
+
+}
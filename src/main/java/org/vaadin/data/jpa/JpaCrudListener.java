@@ -0,0 +1,730 @@
+package org.vaadin.data.jpa;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.internal.BeanUtil;
+import com.vaadin.flow.server.VaadinRequest;
+import org.vaadin.crudui.crud.BatchCrudListener;
+import org.vaadin.crudui.crud.CountMode;
+import org.vaadin.crudui.crud.DetailLoader;
+import org.vaadin.crudui.crud.FilterableFindAllCrudOperationListener;
+import org.vaadin.crudui.crud.ItemIndexProvider;
+import org.vaadin.crudui.crud.PartialUpdateOperationListener;
+import org.vaadin.data.bean.BeanProperties;
+import org.vaadin.data.filter.Filter;
+import org.vaadin.data.provider.CancellationToken;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.Subgraph;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * A lazy {@link BatchCrudListener} for a JPA entity, using a resource-local {@link EntityManagerFactory}. Pages are
+ * read with Criteria queries that apply the {@link Filter} and the sort of the grid in the database, and load the
+ * associations the grid and the forms need without one query per row:
+ * <ul>
+ * <li>to-one associations (nested with dots, for example {@code "mainGroup.owner"}) are fetched with the page through
+ * an entity graph,</li>
+ * <li>collections are fetched with one extra query per page, since fetch-joining them would break the pagination.</li>
+ * </ul>
+ * With {@link #setProjection(boolean) projection} on, pages hold only the id and the properties of the visible
+ * columns, and {@link #fetchDetails(Object)} loads the whole entity when a form is opened. The listener is also a
+ * {@link DetailLoader}, to cache the loaded entities with {@code crud.setDetailLoader(listener, cacheSize)}.
+ * <p>
+ * The position of an item, to scroll to it, is the number of rows that sort before it, counted in the database.
+ * <p>
+ * Updates from forms that track their changed properties copy only those properties into the managed entity, so that
+ * the associations that were not edited are not merged, after checking its {@code @Version} like a merge would. Deletes remove the entities by id, so projected rows can be
+ * passed as they are.
+ * <p>
+ * The fetches and counts of the same request share one {@link EntityManager}, which is closed before the response is
+ * sent. Batch operations run in one transaction and flush and clear the persistence context every few entities, so
+ * that the JDBC batching of the provider (for example {@code hibernate.jdbc.batch_size}) groups the statements.
+ *
+ * @param <T> the entity type
+ */
+public class JpaCrudListener<T> implements BatchCrudListener<T>, FilterableFindAllCrudOperationListener<T>,
+        DetailLoader<T>, PartialUpdateOperationListener<T>, ItemIndexProvider<T> {
+
+    public static final String LOAD_GRAPH_HINT = "javax.persistence.loadgraph";
+
+    public static final String QUERY_TIMEOUT_HINT = "javax.persistence.query.timeout";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Class<T> entityType;
+    private final String requestAttribute;
+    private List<String> fetchProperties = new ArrayList<>();
+    private CountMode countMode = CountMode.EXACT;
+    private int writeBatchSize = 50;
+    private boolean projection;
+    private volatile Set<String> visibleProperties = Collections.emptySet();
+
+    public JpaCrudListener(EntityManagerFactory entityManagerFactory, Class<T> entityType) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityType = entityType;
+        this.requestAttribute = EntityManager.class.getName() + "@" + System.identityHashCode(entityManagerFactory);
+    }
+
+    /**
+     * Sets the associations loaded with every page: to-one paths, nested with dots, and collections of the entity.
+     */
+    public JpaCrudListener<T> setFetchProperties(String... fetchProperties) {
+        this.fetchProperties = new ArrayList<>(Arrays.asList(fetchProperties));
+        return this;
+    }
+
+    public List<String> getFetchProperties() {
+        return fetchProperties;
+    }
+
+    /**
+     * Sets how the crud counts the rows. {@link CountMode#ESTIMATED} is rejected, since JPA offers no estimate;
+     * subclasses that override {@link #getEstimatedCount(Query)} return it from {@link #getCountMode()} instead.
+     */
+    public JpaCrudListener<T> setCountMode(CountMode countMode) {
+        if (countMode == CountMode.ESTIMATED) {
+            throw new IllegalArgumentException("JPA cannot estimate counts, override getEstimatedCount and getCountMode instead!");
+        }
+
+        this.countMode = countMode;
+        return this;
+    }
+
+    @Override
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    /**
+     * Sets how many entities batch operations write before flushing and clearing the persistence context.
+     */
+    public JpaCrudListener<T> setWriteBatchSize(int writeBatchSize) {
+        if (writeBatchSize < 1) {
+            throw new IllegalArgumentException("Write batch size must not be less than one!");
+        }
+
+        this.writeBatchSize = writeBatchSize;
+        return this;
+    }
+
+    /**
+     * Fetches only the id and the properties of the visible columns, when they are all basic or to-one attributes of
+     * the entity with a setter. Otherwise, for example when a column shows a collection or a nested property, whole
+     * entities are fetched.
+     */
+    public JpaCrudListener<T> setProjection(boolean projection) {
+        this.projection = projection;
+        return this;
+    }
+
+    public boolean isProjection() {
+        return projection;
+    }
+
+    @Override
+    public void setVisibleProperties(Set<String> visibleProperties) {
+        this.visibleProperties = Collections.unmodifiableSet(new LinkedHashSet<>(visibleProperties));
+    }
+
+    /**
+     * Loads the whole entity of a projected row, with the fetch properties.
+     */
+    @Override
+    public T fetchDetails(T row) {
+        if (!projection || row == null) {
+            return row;
+        }
+
+        T entity = load(getId(row));
+        return entity != null ? entity : row;
+    }
+
+    @Override
+    public Object getId(T row) {
+        return entityManagerFactory.getPersistenceUnitUtil().getIdentifier(row);
+    }
+
+    /**
+     * Finds the entity with the given id, with the fetch properties.
+     */
+    @Override
+    public T load(Object id) {
+        return withEntityManager(entityManager -> {
+            T entity = entityManager.find(entityType, id);
+            if (entity != null) {
+                fetchCollections(entityManager, Collections.singletonList(entity));
+            }
+
+            return entity;
+        });
+    }
+
+    public Class<T> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Returns a data provider that identifies the entities by their id, so that selections survive fetching the
+     * same rows again.
+     */
+    @Override
+    public DataProvider<T, Filter> getDataProvider() {
+        return new CallbackDataProvider<>(this::fetch, this::count, entityManagerFactory.getPersistenceUnitUtil()::getIdentifier);
+    }
+
+    protected Stream<T> fetch(Query<T, Filter> query) {
+        return withEntityManager(entityManager -> {
+            Map<String, PropertyDescriptor> projectedProperties = getProjectedProperties(entityManager);
+            if (projectedProperties != null) {
+                return fetchProjection(entityManager, query, projectedProperties);
+            }
+
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(entityType);
+            Root<T> root = criteriaQuery.from(entityType);
+            criteriaQuery.select(root)
+                    .where(JpaFilterTranslator.toPredicate(query.getFilter().orElse(null), root, criteriaBuilder))
+                    .orderBy(toOrders(query.getSortOrders(), root, criteriaBuilder, getIdProperty(entityManager)));
+
+            TypedQuery<T> typedQuery = entityManager.createQuery(criteriaQuery)
+                    .setFirstResult(query.getOffset())
+                    .setMaxResults(query.getLimit());
+            applyTimeout(typedQuery);
+
+            EntityGraph<T> entityGraph = buildEntityGraph(entityManager);
+            if (entityGraph != null) {
+                typedQuery.setHint(LOAD_GRAPH_HINT, entityGraph);
+            }
+
+            List<T> rows = typedQuery.getResultList();
+            fetchCollections(entityManager, rows);
+            return rows;
+        }).stream();
+    }
+
+    /**
+     * Fetches the rows with a tuple query over the given properties, and copies the values into new entity
+     * instances.
+     */
+    protected List<T> fetchProjection(EntityManager entityManager, Query<T, Filter> query, Map<String, PropertyDescriptor> properties) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+        Root<T> root = criteriaQuery.from(entityType);
+        EntityType<T> entity = entityManager.getMetamodel().entity(entityType);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String property : properties.keySet()) {
+            Attribute<? super T, ?> attribute = entity.getAttribute(property);
+            Path<?> path = attribute.isAssociation() ? getLeftJoin(root, property) : root.get(property);
+            selections.add(path.alias(property));
+        }
+
+        criteriaQuery.multiselect(selections)
+                .where(JpaFilterTranslator.toPredicate(query.getFilter().orElse(null), root, criteriaBuilder))
+                .orderBy(toOrders(query.getSortOrders(), root, criteriaBuilder, getIdProperty(entityManager)));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(criteriaQuery)
+                .setFirstResult(query.getOffset())
+                .setMaxResults(query.getLimit());
+        applyTimeout(typedQuery);
+
+        List<T> rows = new ArrayList<>();
+        try {
+            Constructor<T> constructor = entityType.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            for (Tuple tuple : typedQuery.getResultList()) {
+                T row = constructor.newInstance();
+                for (Map.Entry<String, PropertyDescriptor> property : properties.entrySet()) {
+                    property.getValue().getWriteMethod().invoke(row, tuple.get(property.getKey()));
+                }
+                rows.add(row);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate a projection of " + entityType.getName(), e);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Returns the writable properties to fetch for the visible columns, starting with the id, or null if whole
+     * entities must be fetched.
+     */
+    protected Map<String, PropertyDescriptor> getProjectedProperties(EntityManager entityManager) {
+        Set<String> visible = visibleProperties;
+        String idProperty = getIdProperty(entityManager);
+        if (!projection || visible.isEmpty() || idProperty == null) {
+            return null;
+        }
+
+        Set<String> attributeNames = new LinkedHashSet<>();
+        entityManager.getMetamodel().entity(entityType).getAttributes().forEach(attribute -> {
+            if (!attribute.isCollection()) {
+                attributeNames.add(attribute.getName());
+            }
+        });
+
+        Set<String> names = new LinkedHashSet<>();
+        names.add(idProperty);
+        names.addAll(visible);
+
+        Map<String, PropertyDescriptor> properties = new LinkedHashMap<>();
+        try {
+            for (String name : names) {
+                PropertyDescriptor descriptor = attributeNames.contains(name) ? BeanUtil.getPropertyDescriptor(entityType, name) : null;
+                if (descriptor == null || descriptor.getWriteMethod() == null) {
+                    return null;
+                }
+                properties.put(name, descriptor);
+            }
+        } catch (IntrospectionException e) {
+            return null;
+        }
+
+        return properties;
+    }
+
+    protected int count(Query<T, Filter> query) {
+        return withEntityManager(entityManager -> {
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Long> criteriaQuery = criteriaBuilder.createQuery(Long.class);
+            Root<T> root = criteriaQuery.from(entityType);
+            criteriaQuery.select(criteriaBuilder.count(root))
+                    .where(JpaFilterTranslator.toPredicate(query.getFilter().orElse(null), root, criteriaBuilder));
+
+            TypedQuery<Long> typedQuery = entityManager.createQuery(criteriaQuery);
+            applyTimeout(typedQuery);
+            return (int) Math.min(typedQuery.getSingleResult(), Integer.MAX_VALUE);
+        });
+    }
+
+    /**
+     * Counts the rows matching the filter that sort before the item, comparing the sort properties and the id in
+     * order. Returns -1 if the item doesn't match the filter or one of its sort values is null, since where nulls sort
+     * depends on the database.
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public int getItemIndex(T item, Query<T, ?> query) {
+        Object queryFilter = query.getFilter().orElse(null);
+        Filter filter = queryFilter instanceof Filter ? (Filter) queryFilter : null;
+        if (queryFilter != null && (filter == null || !filter.test(item))) {
+            return -1;
+        }
+
+        return withEntityManager(entityManager -> {
+            String idProperty = getIdProperty(entityManager);
+            if (idProperty == null) {
+                return -1;
+            }
+
+            List<String> properties = new ArrayList<>();
+            List<Boolean> descending = new ArrayList<>();
+            for (QuerySortOrder sortOrder : query.getSortOrders()) {
+                properties.add(sortOrder.getSorted());
+                descending.add(sortOrder.getDirection() == SortDirection.DESCENDING);
+            }
+            if (!properties.contains(idProperty)) {
+                properties.add(idProperty);
+                descending.add(false);
+            }
+
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Long> criteriaQuery = criteriaBuilder.createQuery(Long.class);
+            Root<T> root = criteriaQuery.from(entityType);
+            List<Predicate> before = new ArrayList<>();
+            List<Predicate> equal = new ArrayList<>();
+
+            for (int i = 0; i < properties.size(); i++) {
+                Object value = readValue(item, properties.get(i));
+                if (!(value instanceof Comparable)) {
+                    return -1;
+                }
+
+                Expression<Comparable> path = (Expression<Comparable>) (Expression) getSortPath(root, properties.get(i));
+                Predicate comparison = descending.get(i)
+                        ? criteriaBuilder.greaterThan(path, (Comparable) value)
+                        : criteriaBuilder.lessThan(path, (Comparable) value);
+
+                List<Predicate> predicates = new ArrayList<>(equal);
+                predicates.add(comparison);
+                before.add(criteriaBuilder.and(predicates.toArray(new Predicate[0])));
+                equal.add(criteriaBuilder.equal(path, value));
+            }
+
+            criteriaQuery.select(criteriaBuilder.count(root)).where(
+                    JpaFilterTranslator.toPredicate(filter, root, criteriaBuilder),
+                    criteriaBuilder.or(before.toArray(new Predicate[0])));
+
+            TypedQuery<Long> typedQuery = entityManager.createQuery(criteriaQuery);
+            applyTimeout(typedQuery);
+            return (int) Math.min(typedQuery.getSingleResult(), Integer.MAX_VALUE);
+        });
+    }
+
+    /**
+     * Returns the value of a property of an entity, or null if it has no read method, as with field access.
+     */
+    private Object readValue(Object item, String property) {
+        List<Method> readMethods = BeanProperties.getReadMethods(entityType, property);
+        return readMethods != null ? BeanProperties.read(item, readMethods) : null;
+    }
+
+    /**
+     * Maps the sort orders of a query to Criteria orders, followed by the id so that the pages are stable. Nested
+     * properties are reached through left joins, so rows with a null association are not left out.
+     */
+    protected List<Order> toOrders(List<QuerySortOrder> sortOrders, Root<T> root, CriteriaBuilder criteriaBuilder, String idProperty) {
+        List<Order> orders = new ArrayList<>();
+        boolean sortedById = false;
+
+        for (QuerySortOrder sortOrder : sortOrders) {
+            Path<?> path = getSortPath(root, sortOrder.getSorted());
+            orders.add(sortOrder.getDirection() == SortDirection.DESCENDING ? criteriaBuilder.desc(path) : criteriaBuilder.asc(path));
+            sortedById |= sortOrder.getSorted().equals(idProperty);
+        }
+
+        if (idProperty != null && !sortedById) {
+            orders.add(criteriaBuilder.asc(root.get(idProperty)));
+        }
+
+        return orders;
+    }
+
+    /**
+     * Returns the name of the id attribute, or null if the entity has a composite id.
+     */
+    protected String getIdProperty(EntityManager entityManager) {
+        EntityType<T> entity = entityManager.getMetamodel().entity(entityType);
+        return entity.hasSingleIdAttribute() ? entity.getId(entity.getIdType().getJavaType()).getName() : null;
+    }
+
+    private Path<?> getSortPath(Root<T> root, String property) {
+        String[] names = property.split("\\.");
+        From<?, ?> from = root;
+        for (int i = 0; i < names.length - 1; i++) {
+            from = getLeftJoin(from, names[i]);
+        }
+
+        return from.get(names[names.length - 1]);
+    }
+
+    /**
+     * Returns the left join of an attribute already made from the given source, or a new one, so that sorting and
+     * selecting the same association don't multiply the rows.
+     */
+    private static From<?, ?> getLeftJoin(From<?, ?> from, String attribute) {
+        for (Join<?, ?> join : from.getJoins()) {
+            if (join.getAttribute().getName().equals(attribute) && join.getJoinType() == JoinType.LEFT) {
+                return join;
+            }
+        }
+
+        return from.join(attribute, JoinType.LEFT);
+    }
+
+    /**
+     * Returns an entity graph with the to-one fetch properties, or null if there are none.
+     */
+    protected EntityGraph<T> buildEntityGraph(EntityManager entityManager) {
+        EntityGraph<T> entityGraph = null;
+
+        for (String property : fetchProperties) {
+            if (isCollection(entityManager, property)) {
+                continue;
+            }
+
+            if (entityGraph == null) {
+                entityGraph = entityManager.createEntityGraph(entityType);
+            }
+
+            String[] names = property.split("\\.");
+            if (names.length == 1) {
+                entityGraph.addAttributeNodes(names[0]);
+            } else {
+                Subgraph<Object> subgraph = entityGraph.addSubgraph(names[0]);
+                for (int i = 1; i < names.length - 1; i++) {
+                    subgraph = subgraph.addSubgraph(names[i]);
+                }
+                subgraph.addAttributeNodes(names[names.length - 1]);
+            }
+        }
+
+        return entityGraph;
+    }
+
+    /**
+     * Initializes the collection fetch properties of the rows with one query per collection, in the entity manager
+     * that loaded the rows.
+     */
+    protected void fetchCollections(EntityManager entityManager, List<T> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        for (String property : fetchProperties) {
+            if (isCollection(entityManager, property)) {
+                CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+                CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(entityType);
+                Root<T> root = criteriaQuery.from(entityType);
+                root.fetch(property, JoinType.LEFT);
+                criteriaQuery.select(root).distinct(true).where(root.in(rows));
+
+                TypedQuery<T> typedQuery = entityManager.createQuery(criteriaQuery);
+                applyTimeout(typedQuery);
+                typedQuery.getResultList();
+            }
+        }
+    }
+
+    private boolean isCollection(EntityManager entityManager, String property) {
+        return property.indexOf('.') < 0 && entityManager.getMetamodel().entity(entityType).getAttribute(property).isCollection();
+    }
+
+    private void applyTimeout(TypedQuery<?> typedQuery) {
+        long remainingMillis = CancellationToken.current().getRemainingMillis();
+        if (remainingMillis > 0) {
+            typedQuery.setHint(QUERY_TIMEOUT_HINT, (int) Math.min(remainingMillis, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Runs the function with the entity manager of the current request, opening one if needed. Outside a request, for
+     * example in background threads, a new entity manager is used and closed right away.
+     */
+    protected <R> R withEntityManager(Function<EntityManager, R> function) {
+        VaadinRequest request = VaadinRequest.getCurrent();
+        UI ui = UI.getCurrent();
+
+        if (request == null || ui == null) {
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+            try {
+                return function.apply(entityManager);
+            } finally {
+                entityManager.close();
+            }
+        }
+
+        EntityManager entityManager = (EntityManager) request.getAttribute(requestAttribute);
+        if (entityManager == null || !entityManager.isOpen()) {
+            EntityManager requestEntityManager = entityManagerFactory.createEntityManager();
+            request.setAttribute(requestAttribute, requestEntityManager);
+            ui.beforeClientResponse(ui, context -> {
+                request.setAttribute(requestAttribute, null);
+                requestEntityManager.close();
+            });
+            entityManager = requestEntityManager;
+        }
+
+        return function.apply(entityManager);
+    }
+
+    /**
+     * Runs the function in a transaction of a new entity manager. The entity manager of the current request, if any,
+     * is cleared afterwards so that later fetches see the changes.
+     */
+    protected <R> R inTransaction(Function<EntityManager, R> function) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        EntityTransaction transaction = entityManager.getTransaction();
+
+        try {
+            transaction.begin();
+            R result = function.apply(entityManager);
+            transaction.commit();
+            return result;
+
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+
+        } finally {
+            entityManager.close();
+            clearRequestEntityManager();
+        }
+    }
+
+    private void clearRequestEntityManager() {
+        VaadinRequest request = VaadinRequest.getCurrent();
+        if (request != null) {
+            EntityManager entityManager = (EntityManager) request.getAttribute(requestAttribute);
+            if (entityManager != null && entityManager.isOpen()) {
+                entityManager.clear();
+            }
+        }
+    }
+
+    @Override
+    public Collection<T> findAll() {
+        throw new UnsupportedOperationException("Use fetch and count methods instead.");
+    }
+
+    @Override
+    public T add(T domainObjectToAdd) {
+        return inTransaction(entityManager -> {
+            entityManager.persist(domainObjectToAdd);
+            return domainObjectToAdd;
+        });
+    }
+
+    @Override
+    public T update(T domainObjectToUpdate) {
+        return inTransaction(entityManager -> entityManager.merge(domainObjectToUpdate));
+    }
+
+    /**
+     * Copies the changed properties into the managed entity and lets the provider write them, skipping the merge of
+     * the other properties and associations. Falls back to a merge if the entity does not exist anymore. As with a
+     * merge, an {@link OptimisticLockException} is thrown if the object has another version than the entity.
+     */
+    @Override
+    public T perform(T domainObject, Set<String> changedProperties) {
+        Object id = getId(domainObject);
+        return inTransaction(entityManager -> {
+            T entity = id != null ? entityManager.find(entityType, id) : null;
+            if (entity == null) {
+                return entityManager.merge(domainObject);
+            }
+
+            checkVersion(entityManager, domainObject, entity);
+            try {
+                for (String property : changedProperties) {
+                    PropertyDescriptor descriptor = BeanUtil.getPropertyDescriptor(entityType, property);
+                    if (descriptor == null || descriptor.getReadMethod() == null || descriptor.getWriteMethod() == null) {
+                        throw new IllegalArgumentException("No writable property " + property + " in " + entityType.getName());
+                    }
+                    descriptor.getWriteMethod().invoke(entity, descriptor.getReadMethod().invoke(domainObject));
+                }
+            } catch (IntrospectionException | ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot copy the changed properties of " + domainObject, e);
+            }
+
+            return entity;
+        });
+    }
+
+    /**
+     * Throws an {@link OptimisticLockException} if the object read by a form has a version, and it is not the version
+     * of the managed entity.
+     */
+    protected void checkVersion(EntityManager entityManager, T domainObject, T entity) {
+        EntityType<T> entityModel = entityManager.getMetamodel().entity(entityType);
+        if (!entityModel.hasVersionAttribute()) {
+            return;
+        }
+
+        for (SingularAttribute<? super T, ?> attribute : entityModel.getSingularAttributes()) {
+            if (attribute.isVersion()) {
+                Object version = readValue(domainObject, attribute.getName());
+                if (version != null && !version.equals(readValue(entity, attribute.getName()))) {
+                    throw new OptimisticLockException("The " + entityType.getSimpleName() + " was changed by someone else.", null, entity);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void delete(T domainObjectToDelete) {
+        inTransaction(entityManager -> {
+            remove(entityManager, domainObjectToDelete);
+            return null;
+        });
+    }
+
+    @Override
+    public Collection<T> addAll(Collection<T> domainObjectsToAdd) {
+        return inTransaction(entityManager -> {
+            int written = 0;
+            for (T domainObject : domainObjectsToAdd) {
+                entityManager.persist(domainObject);
+                flushBatch(entityManager, ++written);
+            }
+
+            return new ArrayList<>(domainObjectsToAdd);
+        });
+    }
+
+    @Override
+    public Collection<T> updateAll(Collection<T> domainObjectsToUpdate) {
+        return inTransaction(entityManager -> {
+            List<T> updated = new ArrayList<>(domainObjectsToUpdate.size());
+            for (T domainObject : domainObjectsToUpdate) {
+                updated.add(entityManager.merge(domainObject));
+                flushBatch(entityManager, updated.size());
+            }
+
+            return updated;
+        });
+    }
+
+    @Override
+    public void deleteAll(Collection<T> domainObjectsToDelete) {
+        inTransaction(entityManager -> {
+            int written = 0;
+            for (T domainObject : domainObjectsToDelete) {
+                remove(entityManager, domainObject);
+                flushBatch(entityManager, ++written);
+            }
+
+            return null;
+        });
+    }
+
+    /**
+     * Removes the entity with the id of the given object, which may be a projected row: merging it would copy the
+     * properties it lacks as nulls, or insert a copy when its version is missing.
+     */
+    private void remove(EntityManager entityManager, T domainObject) {
+        Object id = getId(domainObject);
+        if (id != null) {
+            entityManager.remove(entityManager.getReference(entityType, id));
+        }
+    }
+
+    private void flushBatch(EntityManager entityManager, int written) {
+        if (written % writeBatchSize == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+}
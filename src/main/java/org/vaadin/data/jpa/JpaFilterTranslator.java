@@ -0,0 +1,102 @@
+package org.vaadin.data.jpa;
+
+import org.vaadin.data.filter.CompositeFilter;
+import org.vaadin.data.filter.Filter;
+import org.vaadin.data.filter.FilterVisitor;
+import org.vaadin.data.filter.NotFilter;
+import org.vaadin.data.filter.PropertyFilter;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Collection;
+
+/**
+ * Translates a {@link Filter} into a JPA Criteria {@link Predicate}, so that the filtering happens in the database.
+ * Nested properties are navigated with {@link Path#get(String)}; text comparisons use {@code lower(...) like ...}
+ * with the wildcards of the value escaped.
+ */
+public class JpaFilterTranslator implements FilterVisitor<Predicate> {
+
+    private static final char ESCAPE = '\\';
+
+    private final Root<?> root;
+    private final CriteriaBuilder criteriaBuilder;
+
+    public JpaFilterTranslator(Root<?> root, CriteriaBuilder criteriaBuilder) {
+        this.root = root;
+        this.criteriaBuilder = criteriaBuilder;
+    }
+
+    /**
+     * Returns the predicate of the filter, or a predicate that is always true if the filter is null.
+     */
+    public static Predicate toPredicate(Filter filter, Root<?> root, CriteriaBuilder criteriaBuilder) {
+        return filter != null ? filter.accept(new JpaFilterTranslator(root, criteriaBuilder)) : criteriaBuilder.conjunction();
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Predicate visit(PropertyFilter filter) {
+        Path<Object> path = getPath(filter.getProperty());
+        Object value = filter.getValue();
+
+        switch (filter.getOperator()) {
+            case EQUAL:
+                return value != null ? criteriaBuilder.equal(path, value) : criteriaBuilder.isNull(path);
+            case NOT_EQUAL:
+                return value != null ? criteriaBuilder.notEqual(path, value) : criteriaBuilder.isNull(path).not();
+            case IS_NULL:
+                return criteriaBuilder.isNull(path);
+            case IN:
+                Collection<?> values = (Collection<?>) value;
+                return values.isEmpty() ? criteriaBuilder.disjunction() : path.in(values);
+            case CONTAINS:
+                return like(path, "%" + escape(value.toString()) + "%");
+            case STARTS_WITH:
+                return like(path, escape(value.toString()) + "%");
+            case LESS_THAN:
+                return criteriaBuilder.lessThan((Expression<Comparable>) (Expression) path, (Comparable) value);
+            case LESS_THAN_OR_EQUAL:
+                return criteriaBuilder.lessThanOrEqualTo((Expression<Comparable>) (Expression) path, (Comparable) value);
+            case GREATER_THAN:
+                return criteriaBuilder.greaterThan((Expression<Comparable>) (Expression) path, (Comparable) value);
+            default:
+                return criteriaBuilder.greaterThanOrEqualTo((Expression<Comparable>) (Expression) path, (Comparable) value);
+        }
+    }
+
+    @Override
+    public Predicate visit(CompositeFilter filter) {
+        Predicate[] predicates = filter.getFilters().stream()
+                .map(operand -> operand.accept(this))
+                .toArray(Predicate[]::new);
+
+        return filter.getType() == CompositeFilter.Type.AND ? criteriaBuilder.and(predicates) : criteriaBuilder.or(predicates);
+    }
+
+    @Override
+    public Predicate visit(NotFilter filter) {
+        return criteriaBuilder.not(filter.getFilter().accept(this));
+    }
+
+    protected Path<Object> getPath(String property) {
+        Path<Object> path = null;
+        for (String name : property.split("\\.")) {
+            path = path == null ? root.get(name) : path.get(name);
+        }
+
+        return path;
+    }
+
+    private Predicate like(Path<Object> path, String pattern) {
+        return criteriaBuilder.like(criteriaBuilder.lower(path.as(String.class)), pattern.toLowerCase(), ESCAPE);
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+}
@@ -0,0 +1,212 @@
+package org.vaadin.data.provider;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.DataProviderWrapper;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Wraps a back-end {@link DataProvider} and caches the fetched rows in fixed-size blocks keyed by filter, sort orders
+ * and block index. The least recently used blocks are evicted when the cache is full, and blocks older than the
+ * time-to-live are fetched again.
+ *
+ * @param <T> the data type
+ * @param <F> the filter type
+ */
+public class BlockCachingDataProvider<T, F> extends DataProviderWrapper<T, F, F> {
+
+    private final int blockSize;
+    private final int maxBlocks;
+    private final long timeToLive;
+    private final CacheStatistics statistics;
+    private final Map<BlockKey, Block<T>> blocks;
+
+    public BlockCachingDataProvider(DataProvider<T, F> dataProvider, int blockSize, int maxBlocks) {
+        this(dataProvider, blockSize, maxBlocks, 0, new CacheStatistics());
+    }
+
+    /**
+     * @param dataProvider the data provider to cache
+     * @param blockSize    the number of rows per block
+     * @param maxBlocks    the maximum number of blocks to keep
+     * @param timeToLive   milliseconds after which a block is fetched again, or 0 to keep blocks until evicted
+     * @param statistics   the counters to update
+     */
+    public BlockCachingDataProvider(DataProvider<T, F> dataProvider, int blockSize, int maxBlocks, long timeToLive, CacheStatistics statistics) {
+        super(dataProvider);
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must not be less than one!");
+        }
+
+        if (maxBlocks < 1) {
+            throw new IllegalArgumentException("Max blocks must not be less than one!");
+        }
+
+        this.blockSize = blockSize;
+        this.maxBlocks = maxBlocks;
+        this.timeToLive = timeToLive;
+        this.statistics = statistics;
+        this.blocks = new LinkedHashMap<BlockKey, Block<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BlockKey, Block<T>> eldest) {
+                if (size() > BlockCachingDataProvider.this.maxBlocks) {
+                    statistics.recordEviction();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    protected F getFilter(Query<T, F> query) {
+        return query.getFilter().orElse(null);
+    }
+
+    @Override
+    public Stream<T> fetch(Query<T, F> query) {
+        if (query.getLimit() == Integer.MAX_VALUE) {
+            return super.fetch(query);
+        }
+
+        int offset = query.getOffset();
+        int end = offset + query.getLimit();
+        List<T> result = new ArrayList<>(query.getLimit());
+
+        for (int index = offset / blockSize; index * blockSize < end; index++) {
+            List<T> rows = getBlock(query, index);
+            int blockStart = index * blockSize;
+            int from = Math.max(offset - blockStart, 0);
+            int to = Math.min(end - blockStart, rows.size());
+
+            if (from < to) {
+                result.addAll(rows.subList(from, to));
+            }
+
+            if (rows.size() < blockSize) {
+                break;
+            }
+        }
+
+        return result.stream();
+    }
+
+    protected List<T> getBlock(Query<T, F> query, int index) {
+        BlockKey key = new BlockKey(getFilter(query), query.getSortOrders(), index);
+
+        synchronized (blocks) {
+            Block<T> block = blocks.get(key);
+            if (block != null && !block.isExpired(timeToLive)) {
+                statistics.recordHit();
+                return block.rows;
+            }
+        }
+
+        statistics.recordMiss();
+        Query<T, F> blockQuery = new Query<>(index * blockSize, blockSize, query.getSortOrders(), query.getInMemorySorting(), getFilter(query));
+        int cancelled = CancellableDataProvider.getCancelledResults();
+        List<T> rows = super.fetch(blockQuery).collect(Collectors.toCollection(ArrayList::new));
+        if (CancellableDataProvider.getCancelledResults() != cancelled) {
+            return rows;
+        }
+
+        synchronized (blocks) {
+            blocks.put(key, new Block<>(rows));
+        }
+
+        return rows;
+    }
+
+    /**
+     * Removes all the cached blocks without notifying the listeners.
+     */
+    public void invalidate() {
+        synchronized (blocks) {
+            blocks.clear();
+        }
+    }
+
+    @Override
+    public void refreshAll() {
+        invalidate();
+        super.refreshAll();
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        Object id = getId(item);
+        synchronized (blocks) {
+            blocks.values().forEach(block -> block.rows.replaceAll(row -> Objects.equals(getId(row), id) ? item : row));
+        }
+
+        super.refreshItem(item);
+    }
+
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getMaxBlocks() {
+        return maxBlocks;
+    }
+
+    private static class Block<T> implements Serializable {
+
+        private final List<T> rows;
+        private final long created = System.currentTimeMillis();
+
+        private Block(List<T> rows) {
+            this.rows = rows;
+        }
+
+        private boolean isExpired(long timeToLive) {
+            return timeToLive > 0 && System.currentTimeMillis() - created > timeToLive;
+        }
+
+    }
+
+    private static class BlockKey implements Serializable {
+
+        private final Object filter;
+        private final List<String> sortOrders;
+        private final int index;
+
+        private BlockKey(Object filter, List<QuerySortOrder> sortOrders, int index) {
+            this.filter = filter;
+            this.sortOrders = sortOrders.stream()
+                    .map(order -> order.getSorted() + " " + order.getDirection())
+                    .collect(Collectors.toList());
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            BlockKey that = (BlockKey) o;
+
+            return index == that.index && Objects.equals(filter, that.filter) && sortOrders.equals(that.sortOrders);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, sortOrders, index);
+        }
+
+    }
+
+}
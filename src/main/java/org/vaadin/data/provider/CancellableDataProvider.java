@@ -0,0 +1,268 @@
+package org.vaadin.data.provider;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.DataProviderWrapper;
+import com.vaadin.flow.data.provider.Query;
+import org.vaadin.crudui.crud.CrudExecutors;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Wraps a back-end {@link DataProvider} and runs every fetch and count with a {@link CancellationToken}. A token is
+ * cancelled when its query exceeds the timeout, when a fetch with another filter or sort starts, when a fetch starts
+ * far away from the rows it is loading, and when the data provider is refreshed.
+ * <p>
+ * Queries run through {@link #runInBackground(Supplier)}, such as prefetched pages and asynchronous counts, can only
+ * cancel other background queries, never a fetch the grid is waiting on. When cancelled, they fail with a
+ * {@link CancellationException} that their caller handles. Any other query that gets cancelled returns an empty stream,
+ * or the last size counted for the same filter, so that the grid shows no error; the caches above compare
+ * {@link #getCancelledResults()} before and after calling the wrapped data provider to avoid keeping such a result.
+ *
+ * @param <T> the data type
+ * @param <F> the filter type
+ */
+public class CancellableDataProvider<T, F> extends DataProviderWrapper<T, F, F> {
+
+    private static final ScheduledExecutorService watchdog = CrudExecutors.newScheduler("crud-query-watchdog");
+
+    private static final ThreadLocal<Boolean> background = new ThreadLocal<>();
+
+    private static final ThreadLocal<int[]> cancelledResults = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final long timeout;
+    private final int maxDistance;
+    private final CancellationStatistics statistics;
+    private final Set<RunningQuery> runningQueries = new HashSet<>();
+    private Object lastSizeFilter;
+    private int lastSize;
+
+    /**
+     * @param dataProvider the data provider to wrap
+     * @param timeout      milliseconds after which a query is cancelled, or 0 for no timeout
+     * @param maxDistance  number of rows between a running fetch and a new one beyond which the running fetch is
+     *                     cancelled, or 0 to only cancel fetches on filter, sort and refresh changes
+     * @param statistics   the counters to update
+     */
+    public CancellableDataProvider(DataProvider<T, F> dataProvider, long timeout, int maxDistance, CancellationStatistics statistics) {
+        super(dataProvider);
+        this.timeout = timeout;
+        this.maxDistance = maxDistance;
+        this.statistics = statistics;
+    }
+
+    @Override
+    protected F getFilter(Query<T, F> query) {
+        return query.getFilter().orElse(null);
+    }
+
+    @Override
+    public Stream<T> fetch(Query<T, F> query) {
+        RunningQuery running = start(query, true);
+        List<T> rows = null;
+        RuntimeException failure = null;
+        try {
+            rows = running.token.run(() -> super.fetch(query).collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        if (!finish(running)) {
+            return Stream.empty();
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        return rows.stream();
+    }
+
+    @Override
+    public int size(Query<T, F> query) {
+        RunningQuery running = start(query, false);
+        int size = 0;
+        RuntimeException failure = null;
+        try {
+            size = running.token.run(() -> super.size(query));
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        if (!finish(running)) {
+            synchronized (runningQueries) {
+                return Objects.equals(lastSizeFilter, running.filter) ? lastSize : 0;
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        synchronized (runningQueries) {
+            lastSizeFilter = running.filter;
+            lastSize = size;
+        }
+
+        return size;
+    }
+
+    /**
+     * Runs the supplier in the current thread, marking the queries it makes as background ones: they never cancel a
+     * foreground fetch, and fail with a {@link CancellationException} when they are cancelled.
+     */
+    public static <R> R runInBackground(Supplier<R> supplier) {
+        Boolean previous = background.get();
+        background.set(Boolean.TRUE);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous != null) {
+                background.set(previous);
+            } else {
+                background.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of empty streams and fallback sizes returned so far in the current thread for cancelled
+     * queries.
+     */
+    public static int getCancelledResults() {
+        return cancelledResults.get()[0];
+    }
+
+    /**
+     * Cancels all the running queries.
+     */
+    public void cancelAll() {
+        List<RunningQuery> toCancel;
+        synchronized (runningQueries) {
+            toCancel = new ArrayList<>(runningQueries);
+        }
+
+        toCancel.forEach(running -> cancel(running, CancellationToken.Reason.SUPERSEDED));
+    }
+
+    @Override
+    public void refreshAll() {
+        cancelAll();
+        super.refreshAll();
+    }
+
+    public CancellationStatistics getStatistics() {
+        return statistics;
+    }
+
+    private RunningQuery start(Query<T, F> query, boolean fetch) {
+        statistics.recordQuery();
+        CancellationToken token = new CancellationToken(timeout > 0 ? System.currentTimeMillis() + timeout : 0);
+        RunningQuery running = new RunningQuery(query, fetch, background.get() != null, token);
+        List<RunningQuery> toCancel = new ArrayList<>();
+
+        synchronized (runningQueries) {
+            if (fetch) {
+                runningQueries.stream()
+                        .filter(other -> other.fetch && (other.background || !running.background))
+                        .filter(other -> running.supersedes(other, maxDistance))
+                        .forEach(toCancel::add);
+            }
+            runningQueries.add(running);
+        }
+
+        toCancel.forEach(other -> cancel(other, CancellationToken.Reason.SUPERSEDED));
+
+        if (timeout > 0) {
+            running.timeoutTask = watchdog.schedule(() -> cancel(running, CancellationToken.Reason.TIMED_OUT), timeout, TimeUnit.MILLISECONDS);
+        }
+
+        return running;
+    }
+
+    /**
+     * Forgets a query that returned or failed, and tells whether its result can be used. A cancelled background query
+     * fails with a {@link CancellationException}; any other cancelled query is counted in
+     * {@link #getCancelledResults()} and must return an empty or fallback result.
+     */
+    private boolean finish(RunningQuery running) {
+        synchronized (runningQueries) {
+            runningQueries.remove(running);
+        }
+
+        if (running.timeoutTask != null) {
+            running.timeoutTask.cancel(false);
+        }
+
+        CancellationToken.Reason reason = running.token.getReason();
+        if (reason == null) {
+            return true;
+        }
+
+        statistics.recordCancellation(reason);
+
+        if (running.background) {
+            if (reason == CancellationToken.Reason.TIMED_OUT) {
+                throw new CancellationException("Query timed out after " + timeout + " ms");
+            }
+
+            throw new CancellationException("Query superseded by a newer one");
+        }
+
+        cancelledResults.get()[0]++;
+        return false;
+    }
+
+    private void cancel(RunningQuery running, CancellationToken.Reason reason) {
+        running.token.cancel(reason);
+    }
+
+    private static class RunningQuery {
+
+        private final Object filter;
+        private final List<String> sortOrders;
+        private final int offset;
+        private final int limit;
+        private final boolean fetch;
+        private final boolean background;
+        private final CancellationToken token;
+        private volatile ScheduledFuture<?> timeoutTask;
+
+        private RunningQuery(Query<?, ?> query, boolean fetch, boolean background, CancellationToken token) {
+            this.filter = query.getFilter().orElse(null);
+            this.sortOrders = query.getSortOrders().stream()
+                    .map(order -> order.getSorted() + " " + order.getDirection())
+                    .collect(Collectors.toList());
+            this.offset = query.getOffset();
+            this.limit = query.getLimit();
+            this.fetch = fetch;
+            this.background = background;
+            this.token = token;
+        }
+
+        private boolean supersedes(RunningQuery other, int maxDistance) {
+            if (!Objects.equals(filter, other.filter) || !sortOrders.equals(other.sortOrders)) {
+                return true;
+            }
+
+            if (maxDistance <= 0) {
+                return false;
+            }
+
+            long distance = offset > other.offset ? (long) offset - ((long) other.offset + other.limit) : (long) other.offset - ((long) offset + limit);
+            return distance > maxDistance;
+        }
+
+    }
+
+}
@@ -0,0 +1,55 @@
+package org.vaadin.data.provider;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the queries run through a {@link CancellableDataProvider}. An instance can be shared by several data
+ * providers to collect the totals of a view across data provider changes.
+ */
+public class CancellationStatistics implements Serializable {
+
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    public void recordQuery() {
+        queries.incrementAndGet();
+    }
+
+    public void recordCancellation(CancellationToken.Reason reason) {
+        if (reason == CancellationToken.Reason.TIMED_OUT) {
+            timedOut.incrementAndGet();
+        } else {
+            superseded.incrementAndGet();
+        }
+    }
+
+    public long getQueries() {
+        return queries.get();
+    }
+
+    public long getSuperseded() {
+        return superseded.get();
+    }
+
+    public long getTimedOut() {
+        return timedOut.get();
+    }
+
+    public long getCancelled() {
+        return getSuperseded() + getTimedOut();
+    }
+
+    public void reset() {
+        queries.set(0);
+        superseded.set(0);
+        timedOut.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "queries=" + getQueries() + ", superseded=" + getSuperseded() + ", timedOut=" + getTimedOut();
+    }
+
+}
@@ -0,0 +1,135 @@
+package org.vaadin.data.provider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * Tells a running back-end query whether its result is still needed. Fetch and count callbacks called through a
+ * {@link CancellableDataProvider} get their token with {@link #current()}, and can either check it between steps,
+ * pass {@link #getRemainingMillis()} to the query timeout, or register a handler that aborts the query, for example
+ * {@code token.onCancel(statement::cancel)}.
+ */
+public class CancellationToken implements Serializable {
+
+    /**
+     * The reason a token was cancelled.
+     */
+    public enum Reason {
+        /**
+         * A newer query made the result useless.
+         */
+        SUPERSEDED,
+        /**
+         * The query took longer than the allowed time.
+         */
+        TIMED_OUT
+    }
+
+    private static final CancellationToken NONE = new CancellationToken(0);
+
+    private static final ThreadLocal<CancellationToken> current = new ThreadLocal<>();
+
+    private final long deadline;
+    private final List<Runnable> handlers = new ArrayList<>();
+    private volatile Reason reason;
+
+    /**
+     * @param deadline the {@link System#currentTimeMillis()} after which the query should be aborted, or 0 for none
+     */
+    public CancellationToken(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Returns the token of the query running in the current thread, or a token that is never cancelled.
+     */
+    public static CancellationToken current() {
+        CancellationToken token = current.get();
+        return token != null ? token : NONE;
+    }
+
+    /**
+     * Runs the supplier with this token as the current one.
+     */
+    public <R> R run(Supplier<R> supplier) {
+        CancellationToken previous = current.get();
+        current.set(this);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    /**
+     * Cancels the token and runs the registered handlers, unless it was already cancelled.
+     */
+    public void cancel(Reason reason) {
+        List<Runnable> toRun;
+        synchronized (handlers) {
+            if (this.reason != null || this == NONE) {
+                return;
+            }
+
+            this.reason = reason;
+            toRun = new ArrayList<>(handlers);
+            handlers.clear();
+        }
+
+        toRun.forEach(Runnable::run);
+    }
+
+    /**
+     * Registers a handler that aborts the query. The handler runs in the thread that cancels the token, or right
+     * away if the token is already cancelled.
+     */
+    public void onCancel(Runnable handler) {
+        synchronized (handlers) {
+            if (reason == null) {
+                if (this != NONE) {
+                    handlers.add(handler);
+                }
+                return;
+            }
+        }
+
+        handler.run();
+    }
+
+    public boolean isCancelled() {
+        return reason != null || (deadline > 0 && System.currentTimeMillis() > deadline);
+    }
+
+    public Reason getReason() {
+        if (reason == null && deadline > 0 && System.currentTimeMillis() > deadline) {
+            return Reason.TIMED_OUT;
+        }
+
+        return reason;
+    }
+
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Query " + getReason().name().toLowerCase().replace('_', ' '));
+        }
+    }
+
+    /**
+     * Returns the milliseconds left before the deadline, or 0 if there is no deadline.
+     */
+    public long getRemainingMillis() {
+        return deadline > 0 ? Math.max(1, deadline - System.currentTimeMillis()) : 0;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+}
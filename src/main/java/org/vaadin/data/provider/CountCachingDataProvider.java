@@ -0,0 +1,394 @@
+package org.vaadin.data.provider;
+
+import com.vaadin.flow.data.provider.DataChangeEvent;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.DataProviderListener;
+import com.vaadin.flow.data.provider.DataProviderWrapper;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.shared.Registration;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Wraps a back-end {@link DataProvider} and remembers the sizes returned for the most recently used filters so that
+ * refreshing the rows does not trigger a new count query. The size of the last filter can be adjusted locally when
+ * items are added or removed.
+ * <p>
+ * The size can optionally be computed by a custom counter (for example, an estimate based on database statistics)
+ * and asynchronously by an {@link Executor}. While an asynchronous count is running, {@link #size(Query)} returns the
+ * provisional size, and the size listener is notified when the actual size is available. A count that fails or is
+ * cancelled is reported to the failure listener and is not cached, so the next call starts a new one. Counts
+ * superseded by a refresh are dropped silently.
+ * <p>
+ * With a growing size, the wrapped data provider is never counted: the size is the number of rows known to exist plus
+ * a look-ahead, it grows as fetched pages come back full and shrinks to the exact size when a short page arrives.
+ *
+ * @param <T> the data type
+ * @param <F> the filter type
+ */
+public class CountCachingDataProvider<T, F> extends DataProviderWrapper<T, F, F> {
+
+    private static final int MAX_CACHED_SIZES = 16;
+
+    private final Map<Object, Integer> sizes = new LinkedHashMap<Object, Integer>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Integer> eldest) {
+            return size() > MAX_CACHED_SIZES;
+        }
+    };
+
+    private final Map<Object, GrowingSize> growingSizes = new LinkedHashMap<Object, GrowingSize>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, GrowingSize> eldest) {
+            return size() > MAX_CACHED_SIZES;
+        }
+    };
+
+    private final List<DataProviderListener<T>> listeners = new ArrayList<>();
+    private Object lastFilter;
+    private SerializableFunction<Query<T, F>, Integer> counter;
+    private Executor executor;
+    private int provisionalSize;
+    private SerializableConsumer<Integer> sizeListener;
+    private SerializableConsumer<RuntimeException> failureListener;
+    private Object countingFilter;
+    private boolean counting;
+    private int generation;
+    private int lookAhead;
+    private SerializableConsumer<Integer> growthListener;
+
+    public CountCachingDataProvider(DataProvider<T, F> dataProvider) {
+        super(dataProvider);
+    }
+
+    @Override
+    protected F getFilter(Query<T, F> query) {
+        return query.getFilter().orElse(null);
+    }
+
+    @Override
+    public int size(Query<T, F> query) {
+        F filter = getFilter(query);
+
+        synchronized (sizes) {
+            lastFilter = filter;
+            if (lookAhead > 0) {
+                return growingSizes.computeIfAbsent(filter, key -> new GrowingSize()).getSize(lookAhead);
+            }
+
+            Integer size = sizes.get(filter);
+            if (size != null) {
+                return size;
+            }
+
+            if (executor != null) {
+                if (!counting || !Objects.equals(countingFilter, filter)) {
+                    startCount(query, filter);
+                }
+                return provisionalSize;
+            }
+        }
+
+        int cancelled = CancellableDataProvider.getCancelledResults();
+        int size = count(query);
+        if (CancellableDataProvider.getCancelledResults() != cancelled) {
+            return size;
+        }
+
+        synchronized (sizes) {
+            sizes.put(filter, size);
+        }
+
+        return size;
+    }
+
+    @Override
+    public Stream<T> fetch(Query<T, F> query) {
+        if (lookAhead <= 0) {
+            return super.fetch(query);
+        }
+
+        int cancelled = CancellableDataProvider.getCancelledResults();
+        List<T> rows = super.fetch(query).collect(Collectors.toList());
+        if (CancellableDataProvider.getCancelledResults() != cancelled) {
+            return rows.stream();
+        }
+
+        int newSize = -1;
+
+        synchronized (sizes) {
+            GrowingSize growingSize = growingSizes.computeIfAbsent(getFilter(query), key -> new GrowingSize());
+            int oldSize = growingSize.getSize(lookAhead);
+            growingSize.update(query.getOffset(), query.getLimit(), rows.size());
+            if (growingSize.getSize(lookAhead) != oldSize) {
+                newSize = growingSize.getSize(lookAhead);
+            }
+        }
+
+        if (newSize >= 0 && growthListener != null) {
+            growthListener.accept(newSize);
+        }
+
+        return rows.stream();
+    }
+
+    private void startCount(Query<T, F> query, F filter) {
+        counting = true;
+        countingFilter = filter;
+        int countGeneration = ++generation;
+
+        executor.execute(() -> {
+            int size;
+            try {
+                size = CancellableDataProvider.runInBackground(() -> count(query));
+            } catch (RuntimeException e) {
+                synchronized (sizes) {
+                    if (countGeneration != generation) {
+                        return;
+                    }
+                    counting = false;
+                }
+
+                if (failureListener == null) {
+                    throw e;
+                }
+
+                failureListener.accept(e);
+                return;
+            }
+
+            synchronized (sizes) {
+                if (countGeneration != generation) {
+                    return;
+                }
+                sizes.put(filter, size);
+                counting = false;
+            }
+
+            if (sizeListener != null) {
+                sizeListener.accept(size);
+            }
+        });
+    }
+
+    protected int count(Query<T, F> query) {
+        return counter != null ? counter.apply(query) : super.size(query);
+    }
+
+    /**
+     * Sets the function used to compute the size instead of the size of the wrapped data provider.
+     */
+    public void setCounter(SerializableFunction<Query<T, F>, Integer> counter) {
+        this.counter = counter;
+    }
+
+    /**
+     * Computes the size asynchronously using the given executor.
+     *
+     * @param executor        the executor that runs the count, or null to count synchronously
+     * @param provisionalSize the size to report while the count is running
+     * @param sizeListener    notified from the executor thread when a size has been computed, can be null
+     */
+    public void setAsyncCount(Executor executor, int provisionalSize, SerializableConsumer<Integer> sizeListener) {
+        setAsyncCount(executor, provisionalSize, sizeListener, null);
+    }
+
+    /**
+     * Computes the size asynchronously using the given executor.
+     *
+     * @param executor        the executor that runs the count, or null to count synchronously
+     * @param provisionalSize the size to report while the count is running
+     * @param sizeListener    notified from the executor thread when a size has been computed, can be null
+     * @param failureListener notified from the executor thread when a count fails or times out, can be null to let
+     *                        the failure reach the executor
+     */
+    public void setAsyncCount(Executor executor, int provisionalSize, SerializableConsumer<Integer> sizeListener,
+                              SerializableConsumer<RuntimeException> failureListener) {
+        this.executor = executor;
+        this.provisionalSize = provisionalSize;
+        this.sizeListener = sizeListener;
+        this.failureListener = failureListener;
+    }
+
+    /**
+     * Never counts the wrapped data provider and derives the size from the fetched pages instead.
+     *
+     * @param lookAhead      the number of rows reported beyond the known rows until a short page arrives, or 0 to
+     *                       count the rows
+     * @param growthListener notified in the fetching thread when the size changes, so that the rows can be refreshed
+     *                       with {@link #refreshRows()}, can be null
+     */
+    public void setGrowingSize(int lookAhead, SerializableConsumer<Integer> growthListener) {
+        synchronized (sizes) {
+            this.lookAhead = lookAhead;
+            this.growthListener = growthListener;
+            growingSizes.clear();
+        }
+    }
+
+    public boolean isGrowingSize() {
+        return lookAhead > 0;
+    }
+
+    /**
+     * Returns whether the size of the last used filter is exact, that is, whether a short page has arrived or the
+     * size is counted.
+     */
+    public boolean isSizeKnown() {
+        synchronized (sizes) {
+            if (lookAhead <= 0) {
+                return true;
+            }
+
+            GrowingSize growingSize = growingSizes.get(lastFilter);
+            return growingSize != null && growingSize.complete;
+        }
+    }
+
+    /**
+     * Returns the number of rows known to exist for the last used filter, without the look-ahead.
+     */
+    public int getKnownSize() {
+        synchronized (sizes) {
+            if (lookAhead <= 0) {
+                Integer size = sizes.get(lastFilter);
+                return size != null ? size : 0;
+            }
+
+            GrowingSize growingSize = growingSizes.get(lastFilter);
+            return growingSize != null ? growingSize.rows : 0;
+        }
+    }
+
+    /**
+     * Returns the size cached for the given filter, or -1 if it has not been counted yet. With a growing size, returns
+     * the number of rows once a short page has arrived.
+     */
+    public int getCachedSize(F filter) {
+        synchronized (sizes) {
+            if (lookAhead > 0) {
+                GrowingSize growingSize = growingSizes.get(filter);
+                return growingSize != null && growingSize.complete ? growingSize.rows : -1;
+            }
+
+            Integer size = sizes.get(filter);
+            return size != null ? size : -1;
+        }
+    }
+
+    public boolean isCounting() {
+        synchronized (sizes) {
+            return counting;
+        }
+    }
+
+    /**
+     * Adds the given delta to the cached size of the last used filter, if any. Use a negative value when items are
+     * removed. The sizes cached for other filters are discarded since the change might affect them as well.
+     *
+     * @param delta the number of items added (positive) or removed (negative)
+     */
+    public void adjustSize(int delta) {
+        synchronized (sizes) {
+            GrowingSize growingSize = growingSizes.get(lastFilter);
+            growingSizes.clear();
+            if (growingSize != null) {
+                growingSize.rows = Math.max(0, growingSize.rows + delta);
+                growingSizes.put(lastFilter, growingSize);
+            }
+
+            Integer size = sizes.get(lastFilter);
+            sizes.clear();
+            if (size != null) {
+                sizes.put(lastFilter, Math.max(0, size + delta));
+            }
+        }
+    }
+
+    public void invalidateSize() {
+        synchronized (sizes) {
+            sizes.clear();
+            growingSizes.clear();
+            counting = false;
+            generation++;
+        }
+    }
+
+    /**
+     * Also registers the listener here, so that {@link #refreshRows()} reaches it without refreshing the wrapped
+     * data provider.
+     */
+    @Override
+    public Registration addDataProviderListener(DataProviderListener<T> listener) {
+        Registration registration = super.addDataProviderListener(listener);
+        synchronized (listeners) {
+            listeners.add(listener);
+        }
+
+        return () -> {
+            registration.remove();
+            synchronized (listeners) {
+                listeners.remove(listener);
+            }
+        };
+    }
+
+    /**
+     * Notifies listeners that the size and the rows should be fetched again while keeping the cached size. The
+     * wrapped data providers are not refreshed, so their caches are kept.
+     */
+    public void refreshRows() {
+        List<DataProviderListener<T>> toNotify;
+        synchronized (listeners) {
+            toNotify = new ArrayList<>(listeners);
+        }
+
+        DataChangeEvent<T> event = new DataChangeEvent<>(this);
+        toNotify.forEach(listener -> listener.onDataChange(event));
+    }
+
+    @Override
+    public void refreshAll() {
+        invalidateSize();
+        super.refreshAll();
+    }
+
+    /**
+     * The rows known to exist for a filter and whether there are no more.
+     */
+    private static class GrowingSize implements Serializable {
+
+        private int rows;
+        private boolean complete;
+
+        private int getSize(int lookAhead) {
+            return complete ? rows : rows + lookAhead;
+        }
+
+        private void update(int offset, int limit, int fetched) {
+            if (fetched >= limit) {
+                if (offset + fetched > rows) {
+                    rows = offset + fetched;
+                    complete = false;
+                }
+            } else if (fetched > 0 || offset <= rows) {
+                rows = offset + fetched;
+                complete = true;
+            } else {
+                complete = true;
+            }
+        }
+
+    }
+
+}
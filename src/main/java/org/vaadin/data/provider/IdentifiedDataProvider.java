@@ -0,0 +1,34 @@
+package org.vaadin.data.provider;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.DataProviderWrapper;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.function.SerializableFunction;
+
+/**
+ * Wraps a {@link DataProvider} and identifies its items with an id getter, such as {@code User::getId}, instead of
+ * their {@code equals} and {@code hashCode}, so that selections and refreshed items match instances fetched again.
+ *
+ * @param <T> the data type
+ * @param <F> the filter type
+ */
+public class IdentifiedDataProvider<T, F> extends DataProviderWrapper<T, F, F> {
+
+    private final SerializableFunction<T, ?> idGetter;
+
+    public IdentifiedDataProvider(DataProvider<T, F> dataProvider, SerializableFunction<T, ?> idGetter) {
+        super(dataProvider);
+        this.idGetter = idGetter;
+    }
+
+    @Override
+    protected F getFilter(Query<T, F> query) {
+        return query.getFilter().orElse(null);
+    }
+
+    @Override
+    public Object getId(T item) {
+        return idGetter.apply(item);
+    }
+
+}
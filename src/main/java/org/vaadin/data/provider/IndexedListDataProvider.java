@@ -0,0 +1,533 @@
+package org.vaadin.data.provider;
+
+import com.vaadin.flow.data.provider.ListDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.function.SerializablePredicate;
+import org.vaadin.data.bean.BeanProperties;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A {@link ListDataProvider} that sorts and filters through indexes instead of comparing the items on every fetch.
+ * For every sorted property it builds, once, the permutation of the items in ascending order and the rank of every
+ * item, with a parallel sort and locale collation keys for strings. Filters are evaluated once, in parallel, into a
+ * {@link BitSet}, and the sorted and filtered view is kept as an {@code int[]} so that fetching a page is an array
+ * lookup.
+ * <p>
+ * Sort orders must name properties of the item type; other sort orders, a configured sort comparator or properties
+ * whose values are not {@link Comparable} fall back to the sorting of {@link ListDataProvider}. Filters must be safe to
+ * call from several threads, and are cached by equality: filters that are equal when they express the same condition,
+ * such as {@link org.vaadin.data.filter.Filter}, are evaluated once, while a new lambda is evaluated again. After {@link #refreshItem(Object)} the item is moved to its new place in every index and
+ * tested again by every cached filter. After {@link #refreshAll()} the filters are evaluated again and each sort index
+ * is patched the next time it is used: the values are read again and only the items whose values changed are moved,
+ * unless the number of items changed, which rebuilds the indexes.
+ *
+ * @param <T> the item type
+ */
+public class IndexedListDataProvider<T> extends ListDataProvider<T> {
+
+    private static final int MAX_FILTERS = 4;
+    private static final Comparable<Object> NOT_COMPARABLE = other -> 0;
+
+    private final Class<T> type;
+    private final Locale locale;
+    private Object[] items;
+    private final Map<String, SortIndex> sortIndexes = new HashMap<>();
+    private final Map<SerializablePredicate<T>, BitSet> filterBits = new LinkedHashMap<SerializablePredicate<T>, BitSet>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SerializablePredicate<T>, BitSet> eldest) {
+            return size() > MAX_FILTERS;
+        }
+    };
+    private List<Object> viewKey;
+    private int[] view;
+    private boolean filterChanging;
+    private transient Collator collator;
+
+    /**
+     * @param type   the item type, used to read the sorted properties
+     * @param items  the items
+     * @param locale the locale used to compare strings
+     */
+    public IndexedListDataProvider(Class<T> type, Collection<T> items, Locale locale) {
+        super(items);
+        this.type = type;
+        this.locale = locale;
+    }
+
+    @Override
+    public Stream<T> fetch(Query<T, SerializablePredicate<T>> query) {
+        int[] view = getView(query);
+        if (view == null) {
+            return super.fetch(query);
+        }
+
+        int from = Math.min(query.getOffset(), view.length);
+        int to = (int) Math.min((long) from + query.getLimit(), view.length);
+        Object[] items = this.items;
+        return IntStream.range(from, to).mapToObj(i -> cast(items[view[i]]));
+    }
+
+    @Override
+    public int size(Query<T, SerializablePredicate<T>> query) {
+        if (getSortComparator() != null) {
+            return super.size(query);
+        }
+
+        BitSet bits = getBits(query);
+        return bits != null ? bits.cardinality() : getItemArray().length;
+    }
+
+    @Override
+    public void setFilter(SerializablePredicate<T> filter) {
+        filterChanging = true;
+        try {
+            super.setFilter(filter);
+        } finally {
+            filterChanging = false;
+        }
+    }
+
+    @Override
+    public void refreshAll() {
+        if (!filterChanging) {
+            refreshIndexes();
+        }
+
+        super.refreshAll();
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        int position = indexOf(item);
+        if (position >= 0) {
+            refreshIndexes(position, item);
+        } else {
+            invalidate();
+        }
+
+        super.refreshItem(item);
+    }
+
+    /**
+     * Drops the indexes, to be rebuilt on the next fetch.
+     */
+    public void invalidate() {
+        items = null;
+        sortIndexes.clear();
+        filterBits.clear();
+        viewKey = null;
+        view = null;
+    }
+
+    /**
+     * Drops the filters and the view, and marks the sort indexes to be patched when next used. The indexes are dropped
+     * if the number of items changed.
+     */
+    private void refreshIndexes() {
+        Object[] previousItems = items;
+        items = null;
+        filterBits.clear();
+        viewKey = null;
+        view = null;
+
+        if (previousItems == null || getItemArray().length != previousItems.length) {
+            sortIndexes.clear();
+            return;
+        }
+
+        sortIndexes.values().removeIf(Objects::isNull);
+        sortIndexes.values().forEach(index -> index.stale = true);
+    }
+
+    /**
+     * Moves a changed item to its new place in the sort indexes and tests it again with the cached filters.
+     */
+    private void refreshIndexes(int position, T item) {
+        items[position] = item;
+        viewKey = null;
+        view = null;
+
+        for (Map.Entry<SerializablePredicate<T>, BitSet> entry : filterBits.entrySet()) {
+            entry.getValue().set(position, entry.getKey().test(item));
+        }
+
+        for (Map.Entry<String, SortIndex> entry : sortIndexes.entrySet()) {
+            SortIndex index = entry.getValue();
+            if (index != null && !index.stale) {
+                List<Method> readMethods = BeanProperties.getReadMethods(type, entry.getKey());
+                Comparable<?> key = readMethods != null && index.keys != null ? toKey(BeanProperties.read(item, readMethods)) : NOT_COMPARABLE;
+                if (key == NOT_COMPARABLE) {
+                    index.stale = true;
+                } else {
+                    index.keys[position] = key;
+                    index.reposition(new int[] {position});
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the position of an item in the indexed items, or -1 if they don't hold it.
+     */
+    private int indexOf(T item) {
+        Object[] items = getItemArray();
+        Object id = getId(item);
+        for (int i = 0; i < items.length; i++) {
+            if (Objects.equals(getId(cast(items[i])), id)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns where the item at a position of the items is shown by a query, sorted and filtered, or -1 if the query
+     * doesn't show it. The item is looked up in the view of the query, or placed by comparing it with the other items
+     * if the query cannot use the indexes.
+     */
+    public int getSortedIndex(int position, Query<T, SerializablePredicate<T>> query) {
+        int[] view = getView(query);
+        if (view == null) {
+            return getSortedIndex(this, position, query);
+        }
+
+        for (int i = 0; i < view.length; i++) {
+            if (view[i] == position) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns where the item at a position of the items of a {@link ListDataProvider} is shown by a query, or -1 if the
+     * query doesn't show it. The items shown before it are counted, which takes one pass over the items instead of
+     * sorting them. Items that compare equal keep their order, as with the stable sort of the data provider.
+     */
+    public static <T> int getSortedIndex(ListDataProvider<T> dataProvider, int position, Query<T, SerializablePredicate<T>> query) {
+        List<T> items = dataProvider.getItems() instanceof List ? (List<T>) dataProvider.getItems() : new ArrayList<>(dataProvider.getItems());
+        SerializablePredicate<T> configuredFilter = dataProvider.getFilter();
+        SerializablePredicate<T> queriedFilter = query.getFilter().orElse(null);
+        Comparator<T> sorting = Stream.of(query.getInMemorySorting(), dataProvider.getSortComparator())
+                .filter(Objects::nonNull)
+                .reduce(Comparator::thenComparing)
+                .orElse(null);
+
+        T item = items.get(position);
+        if (configuredFilter != null && !configuredFilter.test(item) || queriedFilter != null && !queriedFilter.test(item)) {
+            return -1;
+        }
+
+        int index = 0;
+        for (int i = 0; i < items.size(); i++) {
+            T other = items.get(i);
+            if (i == position || configuredFilter != null && !configuredFilter.test(other) || queriedFilter != null && !queriedFilter.test(other)) {
+                continue;
+            }
+
+            int comparison = sorting != null ? sorting.compare(other, item) : 0;
+            if (comparison < 0 || comparison == 0 && i < position) {
+                index++;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns the indexes of the items to show, sorted and filtered, or null if the query cannot use the indexes.
+     */
+    protected int[] getView(Query<T, SerializablePredicate<T>> query) {
+        if (getSortComparator() != null) {
+            return null;
+        }
+
+        List<SortIndex> indexes = new ArrayList<>();
+        List<Boolean> descending = new ArrayList<>();
+        for (QuerySortOrder sortOrder : query.getSortOrders()) {
+            SortIndex index = getSortIndex(sortOrder.getSorted());
+            if (index == null) {
+                return null;
+            }
+
+            indexes.add(index);
+            descending.add(sortOrder.getDirection() == SortDirection.DESCENDING);
+        }
+
+        if (indexes.isEmpty() && query.getInMemorySorting() != null) {
+            return null;
+        }
+
+        List<Object> key = Arrays.asList(indexes, descending, getFilter(), query.getFilter().orElse(null));
+        if (!key.equals(viewKey)) {
+            view = buildView(indexes, descending, getBits(query));
+            viewKey = key;
+        }
+
+        return view;
+    }
+
+    private int[] buildView(List<SortIndex> indexes, List<Boolean> descending, BitSet bits) {
+        int size = getItemArray().length;
+
+        if (indexes.isEmpty()) {
+            return bits != null ? bits.stream().toArray() : IntStream.range(0, size).toArray();
+        }
+
+        if (indexes.size() == 1) {
+            SortIndex index = indexes.get(0);
+            int[] view = new int[bits != null ? bits.cardinality() : size];
+            int count = 0;
+            if (!descending.get(0)) {
+                for (int item : index.permutation) {
+                    if (bits == null || bits.get(item)) {
+                        view[count++] = item;
+                    }
+                }
+            } else {
+                // walk the runs of equal values backwards, keeping the items of a run in their list order
+                for (int end = size - 1; end >= 0; ) {
+                    int start = index.ranks[index.permutation[end]];
+                    for (int i = start; i <= end; i++) {
+                        int item = index.permutation[i];
+                        if (bits == null || bits.get(item)) {
+                            view[count++] = item;
+                        }
+                    }
+                    end = start - 1;
+                }
+            }
+
+            return view;
+        }
+
+        Integer[] view = (bits != null ? bits.stream() : IntStream.range(0, size)).boxed().toArray(Integer[]::new);
+        Arrays.parallelSort(view, (a, b) -> {
+            for (int i = 0; i < indexes.size(); i++) {
+                int[] ranks = indexes.get(i).ranks;
+                int comparison = Integer.compare(ranks[a], ranks[b]);
+                if (comparison != 0) {
+                    return descending.get(i) ? -comparison : comparison;
+                }
+            }
+
+            return Integer.compare(a, b);
+        });
+
+        return Arrays.stream(view).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns the items matching the configured filter and the filter of the query, or null if all the items match.
+     */
+    private BitSet getBits(Query<T, SerializablePredicate<T>> query) {
+        BitSet configured = getBits(getFilter());
+        BitSet queried = getBits(query.getFilter().orElse(null));
+
+        if (configured == null || queried == null) {
+            return configured != null ? configured : queried;
+        }
+
+        BitSet bits = (BitSet) configured.clone();
+        bits.and(queried);
+        return bits;
+    }
+
+    private BitSet getBits(SerializablePredicate<T> filter) {
+        if (filter == null) {
+            return null;
+        }
+
+        BitSet bits = filterBits.get(filter);
+        if (bits == null) {
+            Object[] items = getItemArray();
+            bits = new BitSet(items.length);
+            for (int index : IntStream.range(0, items.length).parallel().filter(i -> filter.test(cast(items[i]))).toArray()) {
+                bits.set(index);
+            }
+            filterBits.put(filter, bits);
+        }
+
+        return bits;
+    }
+
+    private SortIndex getSortIndex(String property) {
+        SortIndex index = sortIndexes.get(property);
+        if (index != null && index.stale) {
+            sortIndexes.put(property, patchSortIndex(property, index));
+        } else if (index == null && !sortIndexes.containsKey(property)) {
+            sortIndexes.put(property, buildSortIndex(property));
+        }
+
+        return sortIndexes.get(property);
+    }
+
+    /**
+     * Sorts the items by a property, or returns null if the property cannot be read or its values are not
+     * comparable.
+     */
+    private SortIndex buildSortIndex(String property) {
+        Comparable<?>[] keys = readKeys(property);
+        return keys != null ? new SortIndex(keys) : null;
+    }
+
+    /**
+     * Reads the values of a property again and moves the items whose values changed.
+     */
+    private SortIndex patchSortIndex(String property, SortIndex index) {
+        Comparable<?>[] keys = readKeys(property);
+        if (keys == null || index.keys == null) {
+            return keys != null ? new SortIndex(keys) : null;
+        }
+
+        int[] changed = IntStream.range(0, keys.length).filter(i -> compare(index.keys[i], keys[i]) != 0).toArray();
+        index.keys = keys;
+        index.stale = false;
+        if (changed.length > 0) {
+            index.reposition(changed);
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns the sort keys of the items for a property, or null if the property cannot be read or its values are not
+     * comparable.
+     */
+    private Comparable<?>[] readKeys(String property) {
+        List<Method> readMethods = BeanProperties.getReadMethods(type, property);
+        if (readMethods == null) {
+            return null;
+        }
+
+        Object[] items = getItemArray();
+        Comparable<?>[] keys = new Comparable<?>[items.length];
+        for (int i = 0; i < items.length; i++) {
+            keys[i] = toKey(BeanProperties.read(items[i], readMethods));
+            if (keys[i] == NOT_COMPARABLE) {
+                return null;
+            }
+        }
+
+        return keys;
+    }
+
+    /**
+     * Returns the sort key of a value: a collation key for strings, the value itself if comparable, or
+     * {@link #NOT_COMPARABLE}.
+     */
+    private Comparable<?> toKey(Object value) {
+        if (value instanceof String) {
+            if (collator == null) {
+                collator = Collator.getInstance(locale != null ? locale : Locale.getDefault());
+            }
+
+            return collator.getCollationKey((String) value);
+        }
+
+        return value == null || value instanceof Comparable ? (Comparable<?>) value : NOT_COMPARABLE;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Comparable keyA, Comparable keyB) {
+        if (keyA == null || keyB == null) {
+            return keyA == keyB ? 0 : keyA == null ? -1 : 1;
+        }
+
+        return keyA.compareTo(keyB);
+    }
+
+    private Object[] getItemArray() {
+        if (items == null) {
+            items = getItems().toArray();
+        }
+
+        return items;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T cast(Object item) {
+        return (T) item;
+    }
+
+    /**
+     * The items sorted by the values of a property, ties in list order. The rank of an item is the position of the
+     * first item with an equal value.
+     */
+    private static class SortIndex implements Serializable {
+
+        private transient Comparable<?>[] keys;
+        private final int[] permutation;
+        private final int[] ranks;
+        private boolean stale;
+
+        private SortIndex(Comparable<?>[] keys) {
+            this.keys = keys;
+            Integer[] order = IntStream.range(0, keys.length).boxed().toArray(Integer[]::new);
+            Arrays.parallelSort(order, this::compareItems);
+
+            permutation = Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+            ranks = new int[keys.length];
+            updateRanks();
+        }
+
+        private int compareItems(int a, int b) {
+            int comparison = compare(keys[a], keys[b]);
+            return comparison != 0 ? comparison : Integer.compare(a, b);
+        }
+
+        /**
+         * Moves items whose keys changed to their new places: they are taken out of the permutation, sorted, and merged
+         * back with the items left, which are still in order.
+         */
+        private void reposition(int[] changedItems) {
+            BitSet changed = new BitSet(permutation.length);
+            Arrays.stream(changedItems).forEach(changed::set);
+
+            int[] unchanged = Arrays.stream(permutation).filter(item -> !changed.get(item)).toArray();
+            int[] moved = Arrays.stream(changedItems).boxed().sorted(this::compareItems).mapToInt(Integer::intValue).toArray();
+
+            int i = 0;
+            int j = 0;
+            for (int position = 0; position < permutation.length; position++) {
+                if (j == moved.length || i < unchanged.length && compareItems(unchanged[i], moved[j]) < 0) {
+                    permutation[position] = unchanged[i++];
+                } else {
+                    permutation[position] = moved[j++];
+                }
+            }
+
+            updateRanks();
+        }
+
+        private void updateRanks() {
+            for (int i = 0; i < permutation.length; i++) {
+                int item = permutation[i];
+                int previous = i > 0 ? permutation[i - 1] : -1;
+                ranks[item] = previous >= 0 && compare(keys[previous], keys[item]) == 0 ? ranks[previous] : i;
+            }
+        }
+
+    }
+
+}
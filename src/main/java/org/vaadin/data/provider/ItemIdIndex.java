@@ -0,0 +1,108 @@
+package org.vaadin.data.provider;
+
+import com.vaadin.flow.function.SerializableFunction;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the ids of the items of a list to their positions. Integral ids are kept in a primitive open-addressing table,
+ * without boxing the keys or the positions; other ids use a {@link HashMap}.
+ *
+ * @param <T> the item type
+ */
+public class ItemIdIndex<T> implements Serializable {
+
+    private final LongIndex longIndex;
+    private final Map<Object, Integer> objectIndex;
+
+    public ItemIdIndex(List<T> items, SerializableFunction<T, ?> idGetter) {
+        Object[] ids = new Object[items.size()];
+        boolean integral = true;
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idGetter.apply(items.get(i));
+            integral &= isIntegral(ids[i]);
+        }
+
+        if (integral) {
+            longIndex = new LongIndex(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                longIndex.putIfAbsent(((Number) ids[i]).longValue(), i);
+            }
+            objectIndex = null;
+
+        } else {
+            objectIndex = new HashMap<>(ids.length * 4 / 3 + 1);
+            for (int i = 0; i < ids.length; i++) {
+                objectIndex.putIfAbsent(ids[i], i);
+            }
+            longIndex = null;
+        }
+    }
+
+    /**
+     * Returns the position of the first item with the given id, or -1 if there is none.
+     */
+    public int indexOf(Object id) {
+        if (longIndex != null) {
+            return isIntegral(id) ? longIndex.get(((Number) id).longValue()) : -1;
+        }
+
+        Integer index = objectIndex.get(id);
+        return index != null ? index : -1;
+    }
+
+    private static boolean isIntegral(Object id) {
+        return id instanceof Long || id instanceof Integer || id instanceof Short || id instanceof Byte;
+    }
+
+    private static class LongIndex implements Serializable {
+
+        private final long[] keys;
+        private final int[] positions;
+        private final int mask;
+
+        private LongIndex(int size) {
+            int capacity = Integer.highestOneBit(Math.max(2, size * 2 - 1)) << 1;
+            keys = new long[capacity];
+            positions = new int[capacity];
+            mask = capacity - 1;
+            Arrays.fill(positions, -1);
+        }
+
+        private void putIfAbsent(long key, int position) {
+            int slot = slot(key);
+            while (positions[slot] >= 0) {
+                if (keys[slot] == key) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            keys[slot] = key;
+            positions[slot] = position;
+        }
+
+        private int get(long key) {
+            int slot = slot(key);
+            while (positions[slot] >= 0) {
+                if (keys[slot] == key) {
+                    return positions[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            return -1;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+    }
+
+}
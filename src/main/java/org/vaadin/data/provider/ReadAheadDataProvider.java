@@ -0,0 +1,241 @@
+package org.vaadin.data.provider;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.DataProviderWrapper;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Wraps a back-end {@link DataProvider} and prefetches the pages that follow the requested one in the direction the
+ * user is scrolling. The prefetched pages are kept in a bounded buffer and served from memory when the grid asks for
+ * them. The number of pages fetched ahead grows with the time the back end takes to return a page compared to the
+ * time between two requests, up to the configured maximum.
+ * <p>
+ * Prefetching runs on the given executor, so the wrapped data provider must not depend on the current UI or session.
+ * Pages whose prefetch failed or was cancelled are never served: they are fetched again when requested.
+ *
+ * @param <T> the data type
+ * @param <F> the filter type
+ */
+public class ReadAheadDataProvider<T, F> extends DataProviderWrapper<T, F, F> {
+
+    private static final double SMOOTHING = 0.3;
+
+    private final transient Executor executor;
+    private final int maxDepth;
+    private final int maxPages;
+    private final Map<PageKey, CompletableFuture<List<T>>> pages;
+
+    private int lastOffset = -1;
+    private int direction = 1;
+    private long lastRequestTime;
+    private double averageLatency;
+    private double averageInterval;
+
+    /**
+     * @param dataProvider the data provider to read ahead from
+     * @param executor     the executor that fetches the pages ahead
+     * @param maxDepth     the maximum number of pages to fetch ahead
+     */
+    public ReadAheadDataProvider(DataProvider<T, F> dataProvider, Executor executor, int maxDepth) {
+        super(dataProvider);
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Max depth must not be less than one!");
+        }
+
+        this.executor = Objects.requireNonNull(executor);
+        this.maxDepth = maxDepth;
+        this.maxPages = maxDepth * 2 + 1;
+        this.pages = new LinkedHashMap<PageKey, CompletableFuture<List<T>>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PageKey, CompletableFuture<List<T>>> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    @Override
+    protected F getFilter(Query<T, F> query) {
+        return query.getFilter().orElse(null);
+    }
+
+    @Override
+    public Stream<T> fetch(Query<T, F> query) {
+        if (query.getLimit() == Integer.MAX_VALUE) {
+            return super.fetch(query);
+        }
+
+        F filter = getFilter(query);
+        PageKey key = new PageKey(filter, query.getSortOrders(), query.getOffset(), query.getLimit());
+        CompletableFuture<List<T>> page;
+
+        synchronized (pages) {
+            updateDirection(query.getOffset());
+            page = pages.get(key);
+        }
+
+        List<T> rows = page == null ? null : page.exceptionally(throwable -> null).join();
+
+        if (rows == null) {
+            long start = System.nanoTime();
+            int cancelled = CancellableDataProvider.getCancelledResults();
+            rows = fetchPage(query, query.getOffset(), filter);
+            if (CancellableDataProvider.getCancelledResults() != cancelled) {
+                return rows.stream();
+            }
+            recordLatency(System.nanoTime() - start);
+
+            synchronized (pages) {
+                pages.put(key, CompletableFuture.completedFuture(rows));
+            }
+        }
+
+        if (rows.size() == query.getLimit()) {
+            readAhead(query, filter);
+        }
+
+        return new ArrayList<>(rows).stream();
+    }
+
+    protected void readAhead(Query<T, F> query, F filter) {
+        int depth = getDepth();
+
+        synchronized (pages) {
+            for (int i = 1; i <= depth; i++) {
+                int offset = query.getOffset() + direction * i * query.getLimit();
+                if (offset < 0) {
+                    break;
+                }
+
+                PageKey key = new PageKey(filter, query.getSortOrders(), offset, query.getLimit());
+                CompletableFuture<List<T>> page = pages.get(key);
+                if (page == null || page.isCompletedExceptionally()) {
+                    pages.put(key, CompletableFuture.supplyAsync(() -> {
+                        long start = System.nanoTime();
+                        List<T> rows = CancellableDataProvider.runInBackground(() -> fetchPage(query, offset, filter));
+                        recordLatency(System.nanoTime() - start);
+                        return rows;
+                    }, executor));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of pages to fetch ahead: enough to cover the back-end latency at the current request rate.
+     */
+    public int getDepth() {
+        synchronized (pages) {
+            if (averageInterval <= 0) {
+                return 1;
+            }
+
+            int depth = (int) Math.ceil(averageLatency / averageInterval);
+            return Math.max(1, Math.min(maxDepth, depth));
+        }
+    }
+
+    /**
+     * Removes all the prefetched pages without notifying the listeners.
+     */
+    public void invalidate() {
+        synchronized (pages) {
+            pages.clear();
+            lastOffset = -1;
+        }
+    }
+
+    @Override
+    public void refreshAll() {
+        invalidate();
+        super.refreshAll();
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        Object id = getId(item);
+        synchronized (pages) {
+            pages.values().stream()
+                    .filter(page -> page.isDone() && !page.isCompletedExceptionally())
+                    .forEach(page -> page.join().replaceAll(row -> Objects.equals(getId(row), id) ? item : row));
+        }
+
+        super.refreshItem(item);
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    private List<T> fetchPage(Query<T, F> query, int offset, F filter) {
+        Query<T, F> pageQuery = new Query<>(offset, query.getLimit(), query.getSortOrders(), query.getInMemorySorting(), filter);
+        return super.fetch(pageQuery).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private void updateDirection(int offset) {
+        long now = System.nanoTime();
+        if (lastOffset >= 0 && offset != lastOffset) {
+            direction = offset > lastOffset ? 1 : -1;
+            averageInterval = average(averageInterval, now - lastRequestTime);
+        }
+
+        lastOffset = offset;
+        lastRequestTime = now;
+    }
+
+    private void recordLatency(long latency) {
+        synchronized (pages) {
+            averageLatency = average(averageLatency, latency);
+        }
+    }
+
+    private static double average(double average, long sample) {
+        return average <= 0 ? sample : average + SMOOTHING * (sample - average);
+    }
+
+    private static class PageKey implements Serializable {
+
+        private final Object filter;
+        private final List<String> sortOrders;
+        private final int offset;
+        private final int limit;
+
+        private PageKey(Object filter, List<QuerySortOrder> sortOrders, int offset, int limit) {
+            this.filter = filter;
+            this.sortOrders = sortOrders.stream()
+                    .map(order -> order.getSorted() + " " + order.getDirection())
+                    .collect(Collectors.toList());
+            this.offset = offset;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            PageKey that = (PageKey) o;
+
+            return offset == that.offset && limit == that.limit && Objects.equals(filter, that.filter)
+                    && sortOrders.equals(that.sortOrders);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, sortOrders, offset, limit);
+        }
+
+    }
+
+}
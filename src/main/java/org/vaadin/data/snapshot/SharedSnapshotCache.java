@@ -0,0 +1,269 @@
+package org.vaadin.data.snapshot;
+
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializablePredicate;
+import com.vaadin.flow.function.SerializableSupplier;
+import com.vaadin.flow.shared.Registration;
+import org.vaadin.crudui.crud.CrudOperation;
+import org.vaadin.crudui.crud.event.CrudChangeBus;
+import org.vaadin.crudui.crud.event.CrudChangeEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps one {@link Snapshot} per key for the whole application, so that the grids of every session that show the same
+ * rows share them instead of each holding a copy. The key names the rows returned by a loader, for example the domain
+ * type, or the domain type and a tenant when different users see different rows. Grids acquire the snapshot of a key
+ * when attached and release it when detached; the snapshot is dropped when no grid holds it anymore.
+ * <p>
+ * The loader, the membership test and the id getter are kept as long as the snapshot is held and are called from any
+ * session, so they must not refer to the state of the session or the UI that acquired the snapshot first.
+ * <p>
+ * Reading the current snapshot doesn't lock. Changes produce a new version that shares most of the previous one, and
+ * are applied once per JVM when the snapshot follows a {@link CrudChangeBus}.
+ */
+public class SharedSnapshotCache {
+
+    private static final SharedSnapshotCache defaultCache = new SharedSnapshotCache();
+
+    private final Map<Object, Entry<?>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cache shared by the whole application.
+     */
+    public static SharedSnapshotCache getDefault() {
+        return defaultCache;
+    }
+
+    /**
+     * Returns the snapshot of a key, loading it if no grid holds it, and counts one more holder. The other arguments
+     * are only used when the snapshot is loaded.
+     *
+     * @param key        names the rows returned by the loader
+     * @param domainType the domain type, whose change events are applied to the snapshot
+     * @param loader     loads all the rows of the key, kept to reload the snapshot while it is held
+     * @param membership tells whether an item received from the change bus belongs to the rows of the key, or null to
+     *                   reload the snapshot when an item that it doesn't hold is received
+     * @param idGetter   returns the id of an item, as published in the change events
+     * @param changeBus  the bus whose events of the domain type are applied to the snapshot, or null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Snapshot<T> acquire(Object key, Class<T> domainType, SerializableSupplier<Collection<T>> loader,
+                                   SerializablePredicate<T> membership, SerializableFunction<T, Object> idGetter,
+                                   CrudChangeBus changeBus) {
+        Entry<T> entry;
+        synchronized (entries) {
+            entry = (Entry<T>) entries.computeIfAbsent(key, k -> new Entry<>(domainType, loader, membership, idGetter));
+            entry.references++;
+            if (changeBus != null && entry.changeRegistration == null) {
+                entry.changeBus = changeBus;
+                entry.changeRegistration = changeBus.subscribe(domainType, entry::applyReceived);
+            }
+        }
+
+        return entry.getSnapshot();
+    }
+
+    /**
+     * Counts one less holder of the snapshot of a key, dropping the snapshot if there are none left.
+     */
+    public void release(Object key) {
+        synchronized (entries) {
+            Entry<?> entry = entries.get(key);
+            if (entry != null && --entry.references <= 0) {
+                entries.remove(key);
+                if (entry.changeRegistration != null) {
+                    entry.changeRegistration.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the current snapshot of a key, or null if no grid holds it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Snapshot<T> get(Object key) {
+        Entry<T> entry = (Entry<T>) entries.get(key);
+        return entry != null ? entry.getSnapshot() : null;
+    }
+
+    /**
+     * Loads all the rows of a held key again, as a new version. Changes applied while the rows are loaded are applied
+     * to the new version as well.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Snapshot<T> reload(Object key) {
+        Entry<T> entry = (Entry<T>) entries.get(key);
+        return entry != null ? entry.reload() : null;
+    }
+
+    /**
+     * Applies a change made by a holder of the snapshot of a key, if held. Added items are appended. Changes without
+     * an id or an item reload the snapshot.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void apply(Object key, CrudChangeEvent<T> event) {
+        Entry<T> entry = (Entry<T>) entries.get(key);
+        if (entry != null) {
+            entry.apply(event, true);
+        }
+    }
+
+    /**
+     * Returns the bus whose events are applied to the snapshot of a key, or null if none.
+     */
+    public CrudChangeBus getChangeBus(Object key) {
+        Entry<?> entry = entries.get(key);
+        return entry != null ? entry.changeBus : null;
+    }
+
+    public int getReferenceCount(Object key) {
+        Entry<?> entry = entries.get(key);
+        return entry != null ? entry.references : 0;
+    }
+
+    private static class Entry<T> {
+
+        private final Class<T> domainType;
+        private final SerializableSupplier<Collection<T>> loader;
+        private final SerializablePredicate<T> membership;
+        private final SerializableFunction<T, Object> idGetter;
+        private final AtomicReference<Snapshot<T>> snapshot = new AtomicReference<>();
+        private final Object reloadLock = new Object();
+        private List<Change<T>> changesDuringReload;
+        private int references;
+        private CrudChangeBus changeBus;
+        private Registration changeRegistration;
+
+        private Entry(Class<T> domainType, SerializableSupplier<Collection<T>> loader, SerializablePredicate<T> membership, SerializableFunction<T, Object> idGetter) {
+            this.domainType = domainType;
+            this.loader = loader;
+            this.membership = membership;
+            this.idGetter = idGetter;
+        }
+
+        private Snapshot<T> getSnapshot() {
+            Snapshot<T> current = snapshot.get();
+            if (current != null) {
+                return current;
+            }
+
+            synchronized (this) {
+                current = snapshot.get();
+                if (current == null) {
+                    current = Snapshot.of(loader.get());
+                    snapshot.set(current);
+                }
+
+                return current;
+            }
+        }
+
+        /**
+         * Loads the rows and replaces the snapshot with them, unless a change lands in the meantime: the changes
+         * received since the load started are then applied to the loaded rows and the replacement is tried again.
+         */
+        private Snapshot<T> reload() {
+            synchronized (reloadLock) {
+                synchronized (this) {
+                    changesDuringReload = new ArrayList<>();
+                }
+
+                try {
+                    Collection<T> items = loader.get();
+                    while (true) {
+                        Snapshot<T> current = snapshot.get();
+                        List<Change<T>> missedChanges;
+                        synchronized (this) {
+                            missedChanges = new ArrayList<>(changesDuringReload);
+                        }
+
+                        Snapshot<T> reloaded = Snapshot.of(items, current != null ? current.getVersion() + 1 : 1);
+                        for (Change<T> missed : missedChanges) {
+                            Snapshot<T> changed = change(reloaded, missed.event, missed.local);
+                            reloaded = changed != null ? changed : reloaded;
+                        }
+
+                        if (snapshot.compareAndSet(current, reloaded)) {
+                            return reloaded;
+                        }
+                    }
+                } finally {
+                    synchronized (this) {
+                        changesDuringReload = null;
+                    }
+                }
+            }
+        }
+
+        private void applyReceived(CrudChangeEvent<T> event) {
+            if (event.getDomainType() == domainType) {
+                apply(event, false);
+            }
+        }
+
+        private void apply(CrudChangeEvent<T> event, boolean local) {
+            if (event.getId() == null || (event.getDomainObject() == null && event.getOperation() != CrudOperation.DELETE)) {
+                reload();
+                return;
+            }
+
+            synchronized (this) {
+                if (changesDuringReload != null) {
+                    changesDuringReload.add(new Change<>(event, local));
+                }
+            }
+
+            Snapshot<T> current;
+            Snapshot<T> changed;
+            do {
+                current = getSnapshot();
+                changed = change(current, event, local);
+                if (changed == null) {
+                    reload();
+                    return;
+                }
+            } while (changed != current && !snapshot.compareAndSet(current, changed));
+        }
+
+        /**
+         * Returns the snapshot with the change applied, or null if it cannot tell whether a received item belongs to
+         * the rows.
+         */
+        private Snapshot<T> change(Snapshot<T> current, CrudChangeEvent<T> event, boolean local) {
+            if (event.getOperation() == CrudOperation.DELETE) {
+                return current.remove(event.getId(), idGetter);
+            }
+
+            if (!local && membership != null && !membership.test(event.getDomainObject())) {
+                return current.remove(event.getId(), idGetter);
+            }
+
+            if (!local && membership == null && current.indexOfId(event.getId(), idGetter) < 0) {
+                return null;
+            }
+
+            return current.put(event.getId(), event.getDomainObject(), idGetter);
+        }
+
+    }
+
+    private static class Change<T> {
+
+        private final CrudChangeEvent<T> event;
+        private final boolean local;
+
+        private Change(CrudChangeEvent<T> event, boolean local) {
+            this.event = event;
+            this.local = local;
+        }
+
+    }
+
+}
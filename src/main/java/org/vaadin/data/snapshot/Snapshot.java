@@ -0,0 +1,163 @@
+package org.vaadin.data.snapshot;
+
+import com.vaadin.flow.function.SerializableFunction;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * An immutable, versioned list of items stored in chunks. Changing an item returns a new version that shares all the
+ * chunks but the changed one with the previous version, so that a change of a large list copies a few hundred
+ * references instead of every item.
+ *
+ * @param <T> the item type
+ */
+public final class Snapshot<T> extends AbstractList<T> implements RandomAccess, Serializable {
+
+    static final int CHUNK_SIZE = 512;
+
+    private final Object[][] chunks;
+    private final int[] ends;
+    private final long version;
+
+    private Snapshot(Object[][] chunks, long version) {
+        this.chunks = chunks;
+        this.version = version;
+        this.ends = new int[chunks.length];
+
+        int end = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            end += chunks[i].length;
+            ends[i] = end;
+        }
+    }
+
+    /**
+     * Returns the first version of a snapshot with the given items.
+     */
+    public static <T> Snapshot<T> of(Collection<? extends T> items) {
+        return of(items, 1);
+    }
+
+    static <T> Snapshot<T> of(Collection<? extends T> items, long version) {
+        Object[] array = items.toArray();
+        Object[][] chunks = new Object[(array.length + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = Arrays.copyOfRange(array, i * CHUNK_SIZE, Math.min(array.length, (i + 1) * CHUNK_SIZE));
+        }
+
+        return new Snapshot<>(chunks, version);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+
+        int chunk = getChunk(index);
+        return (T) chunks[chunk][index - getStart(chunk)];
+    }
+
+    @Override
+    public int size() {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    /**
+     * Returns the index of the item with the given id, or -1 if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public int indexOfId(Object id, SerializableFunction<T, Object> idGetter) {
+        int index = 0;
+        for (Object[] chunk : chunks) {
+            for (Object item : chunk) {
+                if (Objects.equals(idGetter.apply((T) item), id)) {
+                    return index;
+                }
+                index++;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns a new version with the item with the given id replaced, or the item appended if there is none. Returns
+     * this snapshot if it already holds the same item instance.
+     */
+    public Snapshot<T> put(Object id, T item, SerializableFunction<T, Object> idGetter) {
+        int index = indexOfId(id, idGetter);
+        if (index >= 0 && get(index) == item) {
+            return this;
+        }
+
+        Object[][] newChunks;
+        if (index >= 0) {
+            int chunk = getChunk(index);
+            newChunks = chunks.clone();
+            newChunks[chunk] = chunks[chunk].clone();
+            newChunks[chunk][index - getStart(chunk)] = item;
+
+        } else if (chunks.length > 0 && chunks[chunks.length - 1].length < CHUNK_SIZE) {
+            int last = chunks.length - 1;
+            newChunks = chunks.clone();
+            newChunks[last] = Arrays.copyOf(chunks[last], chunks[last].length + 1);
+            newChunks[last][chunks[last].length] = item;
+
+        } else {
+            newChunks = Arrays.copyOf(chunks, chunks.length + 1);
+            newChunks[chunks.length] = new Object[]{item};
+        }
+
+        return new Snapshot<>(newChunks, version + 1);
+    }
+
+    /**
+     * Returns a new version without the item with the given id, or this snapshot if there is none.
+     */
+    public Snapshot<T> remove(Object id, SerializableFunction<T, Object> idGetter) {
+        int index = indexOfId(id, idGetter);
+        if (index < 0) {
+            return this;
+        }
+
+        int chunk = getChunk(index);
+        int offset = index - getStart(chunk);
+        Object[] oldChunk = chunks[chunk];
+        Object[][] newChunks;
+
+        if (oldChunk.length == 1) {
+            newChunks = new Object[chunks.length - 1][];
+            System.arraycopy(chunks, 0, newChunks, 0, chunk);
+            System.arraycopy(chunks, chunk + 1, newChunks, chunk, chunks.length - chunk - 1);
+        } else {
+            Object[] newChunk = new Object[oldChunk.length - 1];
+            System.arraycopy(oldChunk, 0, newChunk, 0, offset);
+            System.arraycopy(oldChunk, offset + 1, newChunk, offset, oldChunk.length - offset - 1);
+            newChunks = chunks.clone();
+            newChunks[chunk] = newChunk;
+        }
+
+        return new Snapshot<>(newChunks, version + 1);
+    }
+
+    private int getChunk(int index) {
+        int chunk = Arrays.binarySearch(ends, index + 1);
+        return chunk >= 0 ? chunk : -chunk - 1;
+    }
+
+    private int getStart(int chunk) {
+        return chunk == 0 ? 0 : ends[chunk - 1];
+    }
+
+}
@@ -0,0 +1,49 @@
+package org.vaadin.data.snapshot;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A read-only list showing one version of a {@link Snapshot} at a time. A data provider built on the view shows a new
+ * version after {@link #setSnapshot(Snapshot)} and a refresh of its rows, without being replaced, so the selection and
+ * the open forms of the grid are kept.
+ *
+ * @param <T> the item type
+ */
+public class SnapshotView<T> extends AbstractList<T> implements RandomAccess, Serializable {
+
+    private volatile Snapshot<T> snapshot;
+
+    public SnapshotView(Snapshot<T> snapshot) {
+        this.snapshot = Objects.requireNonNull(snapshot);
+    }
+
+    public Snapshot<T> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Shows another version.
+     *
+     * @return whether the version changed
+     */
+    public boolean setSnapshot(Snapshot<T> snapshot) {
+        Objects.requireNonNull(snapshot);
+        boolean changed = this.snapshot != snapshot;
+        this.snapshot = snapshot;
+        return changed;
+    }
+
+    @Override
+    public T get(int index) {
+        return snapshot.get(index);
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size();
+    }
+
+}
@@ -0,0 +1,41 @@
+package org.vaadin.data.spring;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.vaadin.data.filter.Filter;
+import org.vaadin.data.jpa.JpaFilterTranslator;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+/**
+ * A Spring Data JPA {@link Specification} built from a {@link Filter}, to be passed to the {@code findAll} and
+ * {@code count} methods of a {@code JpaSpecificationExecutor}:
+ * <pre>
+ * repository.findAll(new FilterSpecification&lt;&gt;(query.getFilter().orElse(null)), pageable)
+ * </pre>
+ *
+ * @param <T> the entity type
+ */
+public class FilterSpecification<T> implements Specification<T> {
+
+    private final Filter filter;
+
+    /**
+     * @param filter the filter, or null to match all the entities
+     */
+    public FilterSpecification(Filter filter) {
+        this.filter = filter;
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    @Override
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        return JpaFilterTranslator.toPredicate(filter, root, criteriaBuilder);
+    }
+
+}
@@ -0,0 +1,178 @@
+package org.vaadin.data.spring;
+
+import com.vaadin.flow.data.provider.AbstractBackEndDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import org.springframework.data.domain.Sort;
+import org.vaadin.data.bean.BeanProperties;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * A back-end data provider that fetches the rows with {@link KeysetPageRequest}s. It remembers the values of the sort
+ * properties at the page boundaries it has seen, so that the next pages are read by seeking after the last known row
+ * instead of skipping all the preceding rows. Rows inserted while scrolling do not cause duplicated or skipped rows
+ * in the following pages.
+ * <p>
+ * Offsets that are far from any known boundary (for example when the scroll bar is dragged) are fetched from the
+ * closest boundary before them, with the remaining rows skipped by the back end.
+ *
+ * @param <T> the data type
+ * @param <F> the filter type
+ */
+public class KeysetDataProvider<T, F> extends AbstractBackEndDataProvider<T, F> {
+
+    @FunctionalInterface
+    public interface FetchCallback<T, F> extends Serializable {
+        List<T> fetch(F filter, KeysetPageRequest pageRequest);
+    }
+
+    @FunctionalInterface
+    public interface CountCallback<F> extends Serializable {
+        int count(F filter);
+    }
+
+    private static final int MAX_POSITIONS = 8;
+
+    private final Class<T> type;
+    private final String uniqueProperty;
+    private final FetchCallback<T, F> fetchCallback;
+    private final CountCallback<F> countCallback;
+    private final Map<PositionKey, TreeMap<Integer, Map<String, Object>>> positions =
+            new LinkedHashMap<PositionKey, TreeMap<Integer, Map<String, Object>>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<PositionKey, TreeMap<Integer, Map<String, Object>>> eldest) {
+                    return size() > MAX_POSITIONS;
+                }
+            };
+
+    /**
+     * @param type           the bean type, used to read the sort properties of the fetched rows
+     * @param uniqueProperty a unique property appended to every sort as the tie-breaker, usually the id
+     * @param fetchCallback  fetches the rows of a page, applying {@link KeysetPageRequest#toJpqlCondition(String)} or
+     *                       an equivalent condition
+     * @param countCallback  counts the rows matching a filter
+     */
+    public KeysetDataProvider(Class<T> type, String uniqueProperty, FetchCallback<T, F> fetchCallback, CountCallback<F> countCallback) {
+        this.type = Objects.requireNonNull(type);
+        this.uniqueProperty = Objects.requireNonNull(uniqueProperty);
+        this.fetchCallback = Objects.requireNonNull(fetchCallback);
+        this.countCallback = Objects.requireNonNull(countCallback);
+    }
+
+    @Override
+    protected Stream<T> fetchFromBackEnd(Query<T, F> query) {
+        F filter = query.getFilter().orElse(null);
+        Sort sort = toSort(query.getSortOrders());
+        TreeMap<Integer, Map<String, Object>> boundaries = getBoundaries(filter, sort);
+
+        Map.Entry<Integer, Map<String, Object>> start;
+        synchronized (positions) {
+            start = boundaries.floorEntry(query.getOffset());
+        }
+
+        int startOffset = start == null ? 0 : start.getKey();
+        Map<String, Object> keyset = start == null ? null : start.getValue();
+        KeysetPageRequest pageRequest = new KeysetPageRequest(keyset, query.getOffset() - startOffset, query.getLimit(), sort);
+
+        List<T> rows = fetchCallback.fetch(filter, pageRequest);
+
+        if (!rows.isEmpty()) {
+            Map<String, Object> lastRowKeyset = getKeyset(rows.get(rows.size() - 1), sort);
+            synchronized (positions) {
+                boundaries.put(query.getOffset() + rows.size(), lastRowKeyset);
+            }
+        }
+
+        return rows.stream();
+    }
+
+    @Override
+    protected int sizeInBackEnd(Query<T, F> query) {
+        return countCallback.count(query.getFilter().orElse(null));
+    }
+
+    @Override
+    public void refreshAll() {
+        synchronized (positions) {
+            positions.clear();
+        }
+
+        super.refreshAll();
+    }
+
+    protected Sort toSort(List<QuerySortOrder> sortOrders) {
+        List<Sort.Order> orders = new ArrayList<>();
+        boolean hasUniqueProperty = false;
+
+        for (QuerySortOrder sortOrder : sortOrders) {
+            Sort.Direction direction = sortOrder.getDirection() == SortDirection.DESCENDING ? Sort.Direction.DESC : Sort.Direction.ASC;
+            orders.add(new Sort.Order(direction, sortOrder.getSorted()));
+            hasUniqueProperty |= uniqueProperty.equals(sortOrder.getSorted());
+        }
+
+        if (!hasUniqueProperty) {
+            orders.add(new Sort.Order(Sort.Direction.ASC, uniqueProperty));
+        }
+
+        return new Sort(orders);
+    }
+
+    protected Map<String, Object> getKeyset(T row, Sort sort) {
+        Map<String, Object> keyset = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            keyset.put(order.getProperty(), getPropertyValue(row, order.getProperty()));
+        }
+
+        return keyset;
+    }
+
+    protected Object getPropertyValue(T row, String property) {
+        return BeanProperties.read(row, property);
+    }
+
+    private TreeMap<Integer, Map<String, Object>> getBoundaries(F filter, Sort sort) {
+        PositionKey key = new PositionKey(filter, sort);
+        synchronized (positions) {
+            return positions.computeIfAbsent(key, k -> new TreeMap<>());
+        }
+    }
+
+    private static class PositionKey implements Serializable {
+
+        private final Object filter;
+        private final List<String> sortOrders;
+
+        private PositionKey(Object filter, Sort sort) {
+            this.filter = filter;
+            List<String> orders = new ArrayList<>();
+            sort.forEach(order -> orders.add(order.getProperty() + " " + order.getDirection()));
+            this.sortOrders = orders;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            PositionKey that = (PositionKey) o;
+
+            return Objects.equals(filter, that.filter) && sortOrders.equals(that.sortOrders);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, sortOrders);
+        }
+
+    }
+
+}
@@ -0,0 +1,217 @@
+package org.vaadin.data.spring;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link Pageable} that seeks to the rows after a known position (the keyset) instead of skipping rows. The keyset
+ * holds the values of the sort properties of the last row of the previous page, and the back-end query restricts the
+ * rows with {@link #toJpqlCondition(String)} so the database can start reading from an index no matter how deep the
+ * page is.
+ * <p>
+ * The sort must end with a unique property (the tie-breaker) so that the order is deterministic, and the sort
+ * properties must not be {@literal null}. {@link #getOffset()} returns the number of rows to skip after the keyset,
+ * which is 0 unless the requested offset falls between two known positions.
+ */
+public class KeysetPageRequest implements Pageable, Serializable {
+
+    private static final long serialVersionUID = 4316519245883460027L;
+
+    private final int limit;
+    private final long offset;
+    private final Sort sort;
+    private final LinkedHashMap<String, Object> keyset;
+
+    /**
+     * Creates a new {@link KeysetPageRequest}.
+     *
+     * @param keyset the values of the sort properties of the row to seek after, or an empty map to start at the first row.
+     * @param offset zero-based number of rows to skip after the keyset.
+     * @param limit  the size of the elements to be returned.
+     * @param sort   the sort, which must end with a unique property.
+     */
+    public KeysetPageRequest(Map<String, Object> keyset, long offset, int limit, Sort sort) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset index must not be less than zero!");
+        }
+
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must not be less than one!");
+        }
+
+        if (sort == null || !sort.iterator().hasNext()) {
+            throw new IllegalArgumentException("Sort must contain at least the tie-breaker property!");
+        }
+
+        this.limit = limit;
+        this.offset = offset;
+        this.sort = sort;
+        this.keyset = keyset == null ? new LinkedHashMap<>() : new LinkedHashMap<>(keyset);
+    }
+
+    /**
+     * Creates a new {@link KeysetPageRequest} for the first page.
+     *
+     * @param limit the size of the elements to be returned.
+     * @param sort  the sort, which must end with a unique property.
+     */
+    public KeysetPageRequest(int limit, Sort sort) {
+        this(null, 0, limit, sort);
+    }
+
+    /**
+     * Returns the values of the sort properties of the row to seek after, in sort order, or an empty map for the
+     * first page.
+     */
+    public Map<String, Object> getKeyset() {
+        return Collections.unmodifiableMap(keyset);
+    }
+
+    public boolean isFirst() {
+        return keyset.isEmpty();
+    }
+
+    /**
+     * Returns a JPQL condition that matches the rows after the keyset, for example
+     * {@code (e.name > :keyset0) or (e.name = :keyset0 and e.id > :keyset1)}. The parameters are returned by
+     * {@link #getParameters()}. Returns {@literal null} for the first page.
+     *
+     * @param alias the alias of the queried entity.
+     */
+    public String toJpqlCondition(String alias) {
+        if (keyset.isEmpty()) {
+            return null;
+        }
+
+        List<Sort.Order> orders = getOrders();
+        List<String> disjuncts = new ArrayList<>();
+
+        for (int i = 0; i < orders.size(); i++) {
+            StringBuilder conjunct = new StringBuilder("(");
+            for (int j = 0; j < i; j++) {
+                conjunct.append(alias).append('.').append(orders.get(j).getProperty())
+                        .append(" = :keyset").append(j).append(" and ");
+            }
+
+            Sort.Order order = orders.get(i);
+            conjunct.append(alias).append('.').append(order.getProperty())
+                    .append(order.isAscending() ? " > :keyset" : " < :keyset").append(i).append(')');
+            disjuncts.add(conjunct.toString());
+        }
+
+        return "(" + String.join(" or ", disjuncts) + ")";
+    }
+
+    /**
+     * Returns the parameters used by {@link #toJpqlCondition(String)}, named {@code keyset0}, {@code keyset1}, ...
+     */
+    public Map<String, Object> getParameters() {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        List<Sort.Order> orders = getOrders();
+
+        for (int i = 0; i < orders.size(); i++) {
+            parameters.put("keyset" + i, keyset.get(orders.get(i).getProperty()));
+        }
+
+        return parameters;
+    }
+
+    private List<Sort.Order> getOrders() {
+        List<Sort.Order> orders = new ArrayList<>();
+        sort.forEach(orders::add);
+        return orders;
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / limit);
+    }
+
+    @Override
+    public int getPageSize() {
+        return limit;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return sort;
+    }
+
+    /**
+     * Returns the request for the rows after the given keyset, usually the values of the last row of this page.
+     */
+    public KeysetPageRequest next(Map<String, Object> lastRowKeyset) {
+        return new KeysetPageRequest(lastRowKeyset, 0, limit, sort);
+    }
+
+    @Override
+    public Pageable next() {
+        return new KeysetPageRequest(keyset, offset + limit, limit, sort);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new KeysetPageRequest(keyset, offset - limit, limit, sort) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new KeysetPageRequest(limit, sort);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset >= limit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+
+        if (!(o instanceof KeysetPageRequest)) return false;
+
+        KeysetPageRequest that = (KeysetPageRequest) o;
+
+        return new EqualsBuilder()
+                .append(limit, that.limit)
+                .append(offset, that.offset)
+                .append(sort, that.sort)
+                .append(keyset, that.keyset)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(17, 37)
+                .append(limit)
+                .append(offset)
+                .append(sort)
+                .append(keyset)
+                .toHashCode();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("limit", limit)
+                .append("offset", offset)
+                .append("sort", sort)
+                .append("keyset", keyset)
+                .toString();
+    }
+}
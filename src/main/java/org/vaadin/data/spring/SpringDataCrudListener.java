@@ -0,0 +1,320 @@
+package org.vaadin.data.spring;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.vaadin.crudui.crud.BatchCrudListener;
+import org.vaadin.crudui.crud.CountMode;
+import org.vaadin.crudui.crud.FilterableFindAllCrudOperationListener;
+import org.vaadin.data.filter.Filter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A lazy {@link BatchCrudListener} backed by a Spring Data repository. Rows are fetched with
+ * {@link OffsetBasedPageRequest}s, the sort of the grid is mapped to a {@link Sort} so that the database sorts the rows,
+ * and {@link Filter}s are translated into {@link FilterSpecification}s when the repository is a
+ * {@link JpaSpecificationExecutor}.
+ * <p>
+ * With an {@link EntityManager}, the rows are fetched as lists with a criteria query, so that only the count query of
+ * the grid counts them. Without it, they are fetched as {@link Page}s of the repository, which also counts the rows
+ * whenever a page comes back full.
+ * <p>
+ * In slice mode the rows are fetched as {@link Slice}s and the count query is skipped: the listener uses
+ * {@link CountMode#NONE}, and data providers used outside a crud report the number of rows seen so far plus a
+ * look-ahead while the last slice says there are more rows.
+ *
+ * @param <T>  the entity type
+ * @param <ID> the id type
+ */
+public class SpringDataCrudListener<T, ID> implements BatchCrudListener<T>, FilterableFindAllCrudOperationListener<T> {
+
+    /**
+     * Fetches a slice of the entities matching a filter, usually with a repository method that returns a
+     * {@link Slice}, such as {@code Slice<User> findAllBy(Pageable pageable)}.
+     */
+    @FunctionalInterface
+    public interface SliceFetchCallback<T> extends Serializable {
+        Slice<T> fetch(Filter filter, Pageable pageable);
+    }
+
+    private static final int MAX_SLICE_STATES = 16;
+
+    private final PagingAndSortingRepository<T, ID> repository;
+    private final EntityManager entityManager;
+    private final Class<T> domainType;
+    private final Map<String, List<String>> sortProperties = new HashMap<>();
+    private Sort defaultSort = new Sort(Sort.Direction.ASC, "id");
+    private CountMode countMode = CountMode.EXACT;
+    private SliceFetchCallback<T> sliceFetchCallback;
+    private int sliceLookAhead;
+    private final Map<Filter, SliceState> sliceStates = new LinkedHashMap<Filter, SliceState>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Filter, SliceState> eldest) {
+            return size() > MAX_SLICE_STATES;
+        }
+    };
+
+    /**
+     * @param repository the repository, which must also be a {@link JpaSpecificationExecutor} to apply filters
+     */
+    public SpringDataCrudListener(PagingAndSortingRepository<T, ID> repository) {
+        this(repository, null, null);
+    }
+
+    /**
+     * @param repository    the repository, which must also be a {@link JpaSpecificationExecutor} to count filtered rows
+     * @param entityManager fetches the rows, usually the shared entity manager of the application
+     * @param domainType    the entity type
+     */
+    public SpringDataCrudListener(PagingAndSortingRepository<T, ID> repository, EntityManager entityManager, Class<T> domainType) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.domainType = domainType;
+    }
+
+    /**
+     * Sorts a column by the given entity properties, for columns whose sort property is not an entity property (for
+     * example a "fullName" column sorted by last and first name).
+     *
+     * @param sortProperty the sort property of the column, usually its key
+     * @param properties   the entity properties to sort by, in order
+     */
+    public SpringDataCrudListener<T, ID> setSortProperties(String sortProperty, String... properties) {
+        sortProperties.put(sortProperty, Arrays.asList(properties));
+        return this;
+    }
+
+    /**
+     * Sets the sort used when the grid is not sorted. Its properties are also appended to the sort of the grid, so
+     * that rows with equal sort values keep the same order across pages. Defaults to the ascending "id".
+     */
+    public SpringDataCrudListener<T, ID> setDefaultSort(Sort defaultSort) {
+        this.defaultSort = defaultSort;
+        return this;
+    }
+
+    public SpringDataCrudListener<T, ID> setCountMode(CountMode countMode) {
+        this.countMode = countMode;
+        return this;
+    }
+
+    /**
+     * Fetches the rows as slices and skips the count query.
+     *
+     * @param sliceFetchCallback fetches a slice of rows, or null to fetch pages and count the rows
+     * @param lookAhead          the number of rows reported beyond the last fetched row while there are more rows
+     */
+    public SpringDataCrudListener<T, ID> setSliceFetchCallback(SliceFetchCallback<T> sliceFetchCallback, int lookAhead) {
+        if (sliceFetchCallback != null && lookAhead < 1) {
+            throw new IllegalArgumentException("Look-ahead must not be less than one!");
+        }
+
+        this.sliceFetchCallback = sliceFetchCallback;
+        this.sliceLookAhead = lookAhead;
+        synchronized (sliceStates) {
+            sliceStates.clear();
+        }
+        return this;
+    }
+
+    public boolean isSliceMode() {
+        return sliceFetchCallback != null;
+    }
+
+    @Override
+    public DataProvider<T, Filter> getDataProvider() {
+        return DataProvider.fromFilteringCallbacks(this::fetch, this::count);
+    }
+
+    @Override
+    public CountMode getCountMode() {
+        return isSliceMode() ? CountMode.NONE : countMode;
+    }
+
+    @Override
+    public int getEstimatedCount(Query<T, ?> query) {
+        if (!isSliceMode()) {
+            return count((Filter) query.getFilter().orElse(null));
+        }
+
+        synchronized (sliceStates) {
+            SliceState state = sliceStates.get(query.getFilter().orElse(null));
+            if (state == null) {
+                return sliceLookAhead;
+            }
+
+            return state.rows + (state.hasNext ? sliceLookAhead : 0);
+        }
+    }
+
+    protected Stream<T> fetch(Query<T, Filter> query) {
+        Filter filter = query.getFilter().orElse(null);
+        Pageable pageable = new OffsetBasedPageRequest(query.getOffset(), query.getLimit(), toSort(query.getSortOrders()));
+
+        if (isSliceMode()) {
+            Slice<T> slice = sliceFetchCallback.fetch(filter, pageable);
+            recordSlice(filter, query.getOffset(), slice);
+            return slice.getContent().stream();
+        }
+
+        return findList(filter, pageable).stream();
+    }
+
+    protected int count(Query<T, Filter> query) {
+        if (isSliceMode()) {
+            return getEstimatedCount(query);
+        }
+
+        return count(query.getFilter().orElse(null));
+    }
+
+    /**
+     * Fetches the rows of a page without counting them, if the entity manager is set.
+     */
+    protected List<T> findList(Filter filter, Pageable pageable) {
+        if (entityManager == null) {
+            return findAll(filter, pageable).getContent();
+        }
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(domainType);
+        Root<T> root = criteriaQuery.from(domainType);
+        if (filter != null) {
+            criteriaQuery.where(new FilterSpecification<T>(filter).toPredicate(root, criteriaQuery, criteriaBuilder));
+        }
+        criteriaQuery.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+
+        return entityManager.createQuery(criteriaQuery)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    protected Page<T> findAll(Filter filter, Pageable pageable) {
+        if (filter == null) {
+            return repository.findAll(pageable);
+        }
+
+        return getSpecificationExecutor().findAll(new FilterSpecification<>(filter), pageable);
+    }
+
+    protected int count(Filter filter) {
+        long count = filter == null ? repository.count() : getSpecificationExecutor().count(new FilterSpecification<>(filter));
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected JpaSpecificationExecutor<T> getSpecificationExecutor() {
+        if (!(repository instanceof JpaSpecificationExecutor)) {
+            throw new IllegalStateException("The repository must implement JpaSpecificationExecutor to apply filters.");
+        }
+
+        return (JpaSpecificationExecutor<T>) repository;
+    }
+
+    /**
+     * Maps the sort orders of a query to a {@link Sort}, applying the column mappings and appending the default sort.
+     */
+    protected Sort toSort(List<QuerySortOrder> sortOrders) {
+        List<Sort.Order> orders = new ArrayList<>();
+        List<String> sortedProperties = new ArrayList<>();
+
+        for (QuerySortOrder sortOrder : sortOrders) {
+            Sort.Direction direction = sortOrder.getDirection() == SortDirection.DESCENDING ? Sort.Direction.DESC : Sort.Direction.ASC;
+            for (String property : sortProperties.getOrDefault(sortOrder.getSorted(), Collections.singletonList(sortOrder.getSorted()))) {
+                orders.add(new Sort.Order(direction, property));
+                sortedProperties.add(property);
+            }
+        }
+
+        for (Sort.Order order : defaultSort) {
+            if (!sortedProperties.contains(order.getProperty())) {
+                orders.add(order);
+            }
+        }
+
+        return new Sort(orders);
+    }
+
+    private void recordSlice(Filter filter, int offset, Slice<T> slice) {
+        synchronized (sliceStates) {
+            SliceState state = sliceStates.computeIfAbsent(filter, key -> new SliceState());
+            int end = offset + slice.getNumberOfElements();
+            if (end >= state.rows) {
+                state.rows = end;
+                state.hasNext = slice.hasNext();
+            }
+        }
+    }
+
+    @Override
+    public Collection<T> findAll() {
+        throw new UnsupportedOperationException("Use fetch and count methods instead.");
+    }
+
+    @Override
+    public T add(T domainObjectToAdd) {
+        return repository.save(domainObjectToAdd);
+    }
+
+    @Override
+    public T update(T domainObjectToUpdate) {
+        return repository.save(domainObjectToUpdate);
+    }
+
+    @Override
+    public void delete(T domainObjectToDelete) {
+        repository.delete(domainObjectToDelete);
+    }
+
+    @Override
+    public Collection<T> addAll(Collection<T> domainObjectsToAdd) {
+        return saveAll(domainObjectsToAdd);
+    }
+
+    @Override
+    public Collection<T> updateAll(Collection<T> domainObjectsToUpdate) {
+        return saveAll(domainObjectsToUpdate);
+    }
+
+    @Override
+    public void deleteAll(Collection<T> domainObjectsToDelete) {
+        repository.deleteAll(domainObjectsToDelete);
+    }
+
+    private Collection<T> saveAll(Collection<T> domainObjects) {
+        return StreamSupport.stream(repository.saveAll(domainObjects).spliterator(), false).collect(Collectors.toList());
+    }
+
+    private static class SliceState implements Serializable {
+
+        private int rows;
+        private boolean hasNext = true;
+
+    }
+
+}
@@ -26,6 +26,8 @@ import org.vaadin.crudui.form.impl.field.provider.ComboBoxProvider;
 import org.vaadin.crudui.form.impl.field.provider.RadioButtonGroupProvider;
 import org.vaadin.crudui.form.impl.form.factory.DefaultCrudFormFactory;
 import org.vaadin.crudui.layout.impl.HorizontalSplitCrudLayout;
+import org.vaadin.data.filter.Filter;
+import org.vaadin.data.jpa.JpaCrudListener;
 
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
@@ -165,14 +167,12 @@ public class TestUI extends VerticalLayout implements CrudListener<User> { // or
         crud.setUpdateOperationVisible(false);
 
         nameFilter.setPlaceholder("filter by name...");
-        nameFilter.addValueChangeListener(e -> crud.refreshGrid());
-        crud.getCrudLayout().addFilterComponent(nameFilter);
+        crud.addFilterField(nameFilter, name -> Filter.contains("name", name));
 
         groupFilter.setPlaceholder("Group");
         groupFilter.setItems(GroupRepository.findAll());
         groupFilter.setItemLabelGenerator(Group::getName);
-        groupFilter.addValueChangeListener(e -> crud.refreshGrid());
-        crud.getCrudLayout().addFilterComponent(groupFilter);
+        crud.addFilterField(groupFilter, group -> Filter.equal("mainGroup", group));
 
         Button clearFilters = new Button(null, VaadinIcon.ERASER.create());
         clearFilters.addClickListener(event -> {
@@ -181,11 +181,10 @@ public class TestUI extends VerticalLayout implements CrudListener<User> { // or
         });
         crud.getCrudLayout().addFilterComponent(clearFilters);
 
-        crud.setFindAllOperation(
-                DataProvider.fromCallbacks(
-                        query -> UserRepository.findByNameLike(nameFilter.getValue(), groupFilter.getValue(), query.getOffset(), query.getLimit()).stream(),
-                        query -> UserRepository.countByNameLike(nameFilter.getValue(), groupFilter.getValue()))
-        );
+        crud.setFilterableFindAllOperation(new JpaCrudListener<>(JPAService.getFactory(), User.class)
+                .setFetchProperties("mainGroup", "groups")
+                .getDataProvider());
+        crud.setIdGetter(User::getId);
         return crud;
     }
 
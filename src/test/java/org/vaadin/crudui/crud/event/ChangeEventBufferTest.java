@@ -0,0 +1,99 @@
+package org.vaadin.crudui.crud.event;
+
+import org.junit.Test;
+import org.vaadin.crudui.crud.CrudOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ChangeEventBufferTest {
+
+    private final List<List<CrudChangeEvent<String>>> flushes = new ArrayList<>();
+    private final ChangeEventBuffer<String> buffer = new ChangeEventBuffer<>(60000, flushes::add);
+
+    @Test
+    public void deleteAfterAddCancelsBoth() {
+        buffer.add(event(CrudOperation.ADD, 1, "a"));
+        buffer.add(event(CrudOperation.DELETE, 1, null));
+        buffer.flush();
+
+        assertTrue(flushes.isEmpty());
+    }
+
+    @Test
+    public void deleteAfterAddLeavesOtherIds() {
+        buffer.add(event(CrudOperation.ADD, 1, "a"));
+        buffer.add(event(CrudOperation.UPDATE, 2, "b"));
+        buffer.add(event(CrudOperation.DELETE, 1, null));
+        buffer.flush();
+
+        assertEquals(1, flushes.size());
+        assertEquals(1, flushes.get(0).size());
+        assertEquals(2, flushes.get(0).get(0).getId());
+    }
+
+    @Test
+    public void updateAfterAddStaysAnAddOfTheNewerObject() {
+        buffer.add(event(CrudOperation.ADD, 1, "a"));
+        buffer.add(event(CrudOperation.UPDATE, 1, "b"));
+        buffer.flush();
+
+        CrudChangeEvent<String> event = flushes.get(0).get(0);
+        assertEquals(CrudOperation.ADD, event.getOperation());
+        assertEquals("b", event.getDomainObject());
+    }
+
+    @Test
+    public void addAfterDeleteBecomesAnUpdate() {
+        buffer.add(event(CrudOperation.DELETE, 1, null));
+        buffer.add(event(CrudOperation.ADD, 1, "a"));
+        buffer.flush();
+
+        CrudChangeEvent<String> event = flushes.get(0).get(0);
+        assertEquals(CrudOperation.UPDATE, event.getOperation());
+        assertEquals("a", event.getDomainObject());
+    }
+
+    @Test
+    public void addAfterAddAndDeleteIsAnAdd() {
+        buffer.add(event(CrudOperation.ADD, 1, "a"));
+        buffer.add(event(CrudOperation.DELETE, 1, null));
+        buffer.add(event(CrudOperation.ADD, 1, "b"));
+        buffer.flush();
+
+        CrudChangeEvent<String> event = flushes.get(0).get(0);
+        assertEquals(CrudOperation.ADD, event.getOperation());
+        assertEquals("b", event.getDomainObject());
+    }
+
+    @Test
+    public void eventsWithoutIdAreNotCoalesced() {
+        CrudChangeEvent<String> add = event(CrudOperation.ADD, null, "a");
+        CrudChangeEvent<String> delete = event(CrudOperation.DELETE, null, null);
+        buffer.add(add);
+        buffer.add(delete);
+        buffer.flush();
+
+        assertEquals(2, flushes.get(0).size());
+        assertSame(add, flushes.get(0).get(0));
+        assertSame(delete, flushes.get(0).get(1));
+    }
+
+    @Test
+    public void clearDiscardsTheEvents() {
+        buffer.add(event(CrudOperation.UPDATE, 1, "a"));
+        buffer.clear();
+        buffer.flush();
+
+        assertTrue(flushes.isEmpty());
+    }
+
+    private static CrudChangeEvent<String> event(CrudOperation operation, Object id, String domainObject) {
+        return new CrudChangeEvent<>(String.class, operation, id, domainObject, "test");
+    }
+
+}
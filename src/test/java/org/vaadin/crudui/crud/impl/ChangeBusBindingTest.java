@@ -0,0 +1,119 @@
+package org.vaadin.crudui.crud.impl;
+
+import org.junit.Test;
+import org.vaadin.crudui.crud.CrudOperation;
+import org.vaadin.crudui.crud.event.CrudChangeEvent;
+import org.vaadin.data.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ChangeBusBindingTest {
+
+    private final ChangeBusBinding<Person> binding = new ChangeBusBinding<>(Person.class);
+
+    @Test
+    public void isCompleteOnlyWithIdsAndObjectsOfEveryChange() {
+        assertTrue(binding.isComplete(Arrays.asList(event(CrudOperation.ADD, 1, "Ann"), event(CrudOperation.DELETE, 2, null))));
+        assertFalse(binding.isComplete(Collections.singletonList(event(CrudOperation.UPDATE, 1, null))));
+        assertFalse(binding.isComplete(Collections.singletonList(event(CrudOperation.ADD, null, "Ann"))));
+    }
+
+    @Test
+    public void replacesAddsAndRemovesInMemoryItems() {
+        Person ann = new Person(1, "Ann");
+        Person bob = new Person(2, "Bob");
+        List<Person> items = new ArrayList<>(Arrays.asList(ann, bob));
+        CrudChangeEvent<Person> update = event(CrudOperation.UPDATE, 1, "Anne");
+
+        binding.applyTo(items, Arrays.asList(update, event(CrudOperation.DELETE, 2, null), event(CrudOperation.ADD, 3, "Cid")),
+                null, id -> indexOf(items, id), Person::getId);
+
+        assertEquals(2, items.size());
+        assertSame(update.getDomainObject(), items.get(0));
+        assertEquals("Cid", items.get(1).getName());
+    }
+
+    @Test
+    public void removesItemsThatNoLongerPassTheLoadedFilter() {
+        List<Person> items = new ArrayList<>(Collections.singletonList(new Person(1, "Ann")));
+
+        binding.applyTo(items, Arrays.asList(event(CrudOperation.UPDATE, 1, "Bob"), event(CrudOperation.ADD, 2, "Anne")),
+                Filter.contains("name", "An"), id -> indexOf(items, id), Person::getId);
+
+        assertEquals(1, items.size());
+        assertEquals("Anne", items.get(0).getName());
+    }
+
+    @Test
+    public void countsTheAddedAndDeletedRowsThatPassTheFilter() {
+        List<CrudChangeEvent<Person>> events = Arrays.asList(event(CrudOperation.ADD, 1, "Ann"),
+                event(CrudOperation.ADD, 2, "Bob"), event(CrudOperation.DELETE, 3, "Anne"));
+
+        assertEquals(OptionalInt.of(1), binding.getSizeChange(events, null));
+        assertEquals(OptionalInt.of(0), binding.getSizeChange(events, Filter.contains("name", "An")));
+    }
+
+    @Test
+    public void recountsWhenTheFilterDoesNotTellWhetherAChangedRowWasShown() {
+        Filter filter = Filter.contains("name", "An");
+
+        assertFalse(binding.getSizeChange(Collections.singletonList(event(CrudOperation.UPDATE, 1, "Ann")), filter).isPresent());
+        assertFalse(binding.getSizeChange(Collections.singletonList(event(CrudOperation.DELETE, 1, null)), filter).isPresent());
+        assertEquals(OptionalInt.of(-1), binding.getSizeChange(Collections.singletonList(event(CrudOperation.DELETE, 1, null)), null));
+    }
+
+    private static CrudChangeEvent<Person> event(CrudOperation operation, Integer id, String name) {
+        return new CrudChangeEvent<>(Person.class, operation, id, name != null ? new Person(id, name) : null, "other");
+    }
+
+    private static int indexOf(List<Person> items, Object id) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getId().equals(id)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    public static class Person {
+
+        private Integer id;
+        private String name;
+
+        public Person() {
+        }
+
+        public Person(Integer id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+    }
+
+}
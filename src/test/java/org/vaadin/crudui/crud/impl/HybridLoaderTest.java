@@ -0,0 +1,108 @@
+package org.vaadin.crudui.crud.impl;
+
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import org.junit.Test;
+import org.vaadin.crudui.crud.CountMode;
+import org.vaadin.crudui.crud.LazyFindAllCrudOperationListener;
+import org.vaadin.data.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HybridLoaderTest {
+
+    private final List<Integer> fetchedLimits = new ArrayList<>();
+    private int rows;
+    private int estimate;
+
+    private final LazyFindAllCrudOperationListener<Integer> findAll = new LazyFindAllCrudOperationListener<Integer>() {
+        @Override
+        public DataProvider<Integer, ?> getDataProvider() {
+            return new CallbackDataProvider<Integer, Filter>(query -> {
+                fetchedLimits.add(query.getLimit());
+                return IntStream.range(0, Math.min(query.getLimit(), rows)).boxed();
+            }, query -> rows);
+        }
+
+        @Override
+        public int getEstimatedCount(Query<Integer, ?> query) {
+            return estimate;
+        }
+    };
+
+    @Test
+    public void loadsTheItemsWhenTheyAreExactlyTheThreshold() {
+        HybridLoader<Integer> loader = new HybridLoader<>(10);
+        rows = 10;
+
+        List<Integer> items = loader.load(findAll, null, CountMode.EXACT, Collections.emptySet());
+
+        assertEquals(10, items.size());
+        assertTrue(loader.isInMemory());
+        assertEquals(Collections.singletonList(11), fetchedLimits);
+    }
+
+    @Test
+    public void staysLazyWhenThereIsOneItemMoreThanTheThreshold() {
+        HybridLoader<Integer> loader = new HybridLoader<>(10);
+        rows = 11;
+
+        assertNull(loader.load(findAll, null, CountMode.EXACT, Collections.emptySet()));
+        assertFalse(loader.isInMemory());
+        assertEquals(Collections.singletonList(11), fetchedLimits);
+    }
+
+    @Test
+    public void skipsTheFetchWhenTheEstimateIsAboveTheThreshold() {
+        HybridLoader<Integer> loader = new HybridLoader<>(10);
+        rows = 5;
+        estimate = 11;
+
+        assertNull(loader.load(findAll, null, CountMode.ESTIMATED, Collections.emptySet()));
+        assertEquals(Collections.emptyList(), fetchedLimits);
+
+        estimate = 10;
+        assertEquals(5, loader.load(findAll, null, CountMode.ESTIMATED, Collections.emptySet()).size());
+    }
+
+    @Test
+    public void filtersInMemoryOnlyOnLoadedPropertiesOfAllTheItems() {
+        HybridLoader<Integer> loader = new HybridLoader<>(10);
+        rows = 3;
+
+        loader.load(findAll, null, CountMode.EXACT, new HashSet<>(Arrays.asList("name", "group")));
+
+        assertTrue(loader.canFilterInMemory(null));
+        assertTrue(loader.canFilterInMemory(Filter.contains("name", "a")));
+        assertTrue(loader.canFilterInMemory(Filter.equal("group.name", "b")));
+        assertFalse(loader.canFilterInMemory(Filter.equal("email", "c")));
+
+        loader.load(findAll, Filter.contains("name", "a"), CountMode.EXACT, new HashSet<>(Arrays.asList("name", "group")));
+        assertFalse(loader.canFilterInMemory(null));
+    }
+
+    @Test
+    public void isBelowTheThresholdOnlyForKnownSizesWhileLazy() {
+        HybridLoader<Integer> loader = new HybridLoader<>(10);
+
+        assertTrue(loader.isBelowThreshold(10));
+        assertFalse(loader.isBelowThreshold(11));
+        assertFalse(loader.isBelowThreshold(-1));
+
+        rows = 3;
+        loader.load(findAll, null, CountMode.EXACT, Collections.emptySet());
+        assertFalse(loader.isBelowThreshold(3));
+    }
+
+}
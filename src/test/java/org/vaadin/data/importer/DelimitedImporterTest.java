@@ -0,0 +1,109 @@
+package org.vaadin.data.importer;
+
+import com.vaadin.flow.data.binder.Result;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DelimitedImporterTest {
+
+    private final List<Person> imported = new ArrayList<>();
+
+    private final DelimitedImporter<Person> importer = new DelimitedImporter<>(Person.class, Arrays.asList("name", "notes"),
+            (property, value) -> value.equals("bad") ? Result.error("Bad value") : Result.ok(value),
+            imported::addAll);
+
+    @Test
+    public void readsQuotedFieldsSpanningSeveralLines() throws IOException {
+        ImportReport report = importFrom("name,notes\n\"Smith, John\",\"first line\nsecond line\"\nDoe,plain\n");
+
+        assertEquals(2, report.getImportedCount());
+        assertEquals("Smith, John", imported.get(0).getName());
+        assertEquals("first line\nsecond line", imported.get(0).getNotes());
+        assertEquals("Doe", imported.get(1).getName());
+        assertEquals("plain", imported.get(1).getNotes());
+    }
+
+    @Test
+    public void unescapesDoubledQuotes() throws IOException {
+        importFrom("name,notes\n\"Ann \"\"the boss\"\"\",\"\"\"quoted\"\"\"\n");
+
+        assertEquals("Ann \"the boss\"", imported.get(0).getName());
+        assertEquals("\"quoted\"", imported.get(0).getNotes());
+    }
+
+    @Test
+    public void acceptsCrLfAndCrLineEndings() throws IOException {
+        ImportReport report = importFrom("name,notes\r\nSmith,one\r\nDoe,two\rRoe,three");
+
+        assertEquals(3, report.getImportedCount());
+        assertEquals("one", imported.get(0).getNotes());
+        assertEquals("Doe", imported.get(1).getName());
+        assertEquals("three", imported.get(2).getNotes());
+    }
+
+    @Test
+    public void keepsCrLfInsideQuotedFields() throws IOException {
+        importFrom("name,notes\r\nSmith,\"one\r\ntwo\"\r\n");
+
+        assertEquals("one\r\ntwo", imported.get(0).getNotes());
+    }
+
+    @Test
+    public void reportsTheLineWhereARejectedRecordStarts() throws IOException {
+        ImportReport report = importFrom("\uFEFFname,notes\r\nSmith,\"one\r\ntwo\r\nthree\"\r\n\r\nbad,four\r\n");
+
+        assertEquals(1, report.getImportedCount());
+        assertEquals(1, report.getRejectedCount());
+        assertEquals(6, report.getRejectedRows().get(0).getLine());
+        assertEquals(Arrays.asList("bad", "four"), report.getRejectedRows().get(0).getValues());
+    }
+
+    @Test
+    public void matchesColumnsByCaption() throws IOException {
+        importFrom("Notes;Name\nsome;Smith\n", ';');
+
+        assertEquals("Smith", imported.get(0).getName());
+        assertEquals("some", imported.get(0).getNotes());
+    }
+
+    private ImportReport importFrom(String text) throws IOException {
+        return importFrom(text, ',');
+    }
+
+    private ImportReport importFrom(String text, char delimiter) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return importer.setDelimiter(delimiter).importFrom(new ByteArrayInputStream(bytes), bytes.length);
+    }
+
+    public static class Person {
+
+        private String name;
+        private String notes;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getNotes() {
+            return notes;
+        }
+
+        public void setNotes(String notes) {
+            this.notes = notes;
+        }
+
+    }
+
+}
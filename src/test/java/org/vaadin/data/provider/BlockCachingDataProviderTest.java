@@ -0,0 +1,64 @@
+package org.vaadin.data.provider;
+
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class BlockCachingDataProviderTest {
+
+    private final List<Integer> fetchedOffsets = new ArrayList<>();
+
+    private final CallbackDataProvider<Integer, Void> backEnd = new CallbackDataProvider<>(query -> {
+        fetchedOffsets.add(query.getOffset());
+        return IntStream.range(query.getOffset(), Math.min(query.getOffset() + query.getLimit(), 100)).boxed();
+    }, query -> 100);
+
+    @Test
+    public void evictsTheLeastRecentlyUsedBlock() {
+        CacheStatistics statistics = new CacheStatistics();
+        BlockCachingDataProvider<Integer, Void> dataProvider = new BlockCachingDataProvider<>(backEnd, 10, 2, 0, statistics);
+
+        fetch(dataProvider, 0);
+        fetch(dataProvider, 10);
+        fetch(dataProvider, 0);
+        fetch(dataProvider, 20);
+        assertEquals(1, statistics.getEvictions());
+
+        fetchedOffsets.clear();
+        fetch(dataProvider, 0);
+        assertEquals(Collections.emptyList(), fetchedOffsets);
+
+        fetch(dataProvider, 10);
+        assertEquals(Collections.singletonList(10), fetchedOffsets);
+    }
+
+    @Test
+    public void servesPagesAcrossBlocksFromTheCache() {
+        BlockCachingDataProvider<Integer, Void> dataProvider = new BlockCachingDataProvider<>(backEnd, 10, 4);
+
+        assertEquals(IntStream.range(5, 15).boxed().collect(Collectors.toList()), fetch(dataProvider, 5));
+        assertEquals(IntStream.range(8, 18).boxed().collect(Collectors.toList()), fetch(dataProvider, 8));
+        assertEquals(2, fetchedOffsets.size());
+    }
+
+    @Test
+    public void stopsAtTheLastShortBlock() {
+        BlockCachingDataProvider<Integer, Void> dataProvider = new BlockCachingDataProvider<>(backEnd, 30, 4);
+
+        assertEquals(IntStream.range(95, 100).boxed().collect(Collectors.toList()), fetch(dataProvider, 95));
+        assertEquals(Collections.singletonList(90), fetchedOffsets);
+    }
+
+    private static List<Integer> fetch(BlockCachingDataProvider<Integer, Void> dataProvider, int offset) {
+        return dataProvider.fetch(new Query<>(offset, 10, Collections.emptyList(), null, null)).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,119 @@
+package org.vaadin.data.provider;
+
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CancellableDataProviderTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile long delay;
+
+    private final CallbackDataProvider<Integer, String> backEnd = new CallbackDataProvider<>(query -> {
+        block(query.getFilter().orElse(null));
+        return IntStream.range(query.getOffset(), query.getOffset() + query.getLimit()).boxed();
+    }, query -> {
+        block(query.getFilter().orElse(null));
+        return 42;
+    });
+
+    @Test
+    public void backgroundFetchesNeverCancelAForegroundFetch() throws Exception {
+        CancellableDataProvider<Integer, String> dataProvider = new CancellableDataProvider<>(backEnd, 0, 10, new CancellationStatistics());
+
+        CompletableFuture<List<Integer>> foreground = CompletableFuture.supplyAsync(() -> fetch(dataProvider, "slow", 0));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CancellableDataProvider.runInBackground(() -> fetch(dataProvider, "other", 500));
+        release.countDown();
+
+        assertEquals(range(0, 10), foreground.get(5, TimeUnit.SECONDS));
+        assertEquals(0, dataProvider.getStatistics().getCancelled());
+    }
+
+    @Test
+    public void foregroundFetchesCancelSupersededBackgroundFetches() throws Exception {
+        CancellableDataProvider<Integer, String> dataProvider = new CancellableDataProvider<>(backEnd, 0, 10, new CancellationStatistics());
+
+        CompletableFuture<List<Integer>> background = CompletableFuture.supplyAsync(() ->
+                CancellableDataProvider.runInBackground(() -> fetch(dataProvider, "slow", 0)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertEquals(range(500, 510), fetch(dataProvider, "other", 500));
+        release.countDown();
+
+        try {
+            background.get(5, TimeUnit.SECONDS);
+            fail("The superseded background fetch returned rows");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CancellationException);
+        }
+        assertEquals(1, dataProvider.getStatistics().getSuperseded());
+    }
+
+    @Test
+    public void timedOutForegroundFetchReturnsNoRows() {
+        CancellableDataProvider<Integer, String> dataProvider = new CancellableDataProvider<>(backEnd, 20, 0, new CancellationStatistics());
+        int cancelled = CancellableDataProvider.getCancelledResults();
+
+        delay = 200;
+        assertEquals(Collections.emptyList(), fetch(dataProvider, "delayed", 0));
+        assertEquals(cancelled + 1, CancellableDataProvider.getCancelledResults());
+        assertEquals(1, dataProvider.getStatistics().getTimedOut());
+    }
+
+    @Test
+    public void timedOutForegroundCountReturnsTheLastSize() {
+        CancellableDataProvider<Integer, String> dataProvider = new CancellableDataProvider<>(backEnd, 20, 0, new CancellationStatistics());
+
+        assertEquals(42, dataProvider.size(new Query<>("delayed")));
+        delay = 200;
+        assertEquals(42, dataProvider.size(new Query<>("delayed")));
+        assertEquals(0, dataProvider.size(new Query<>("delayed too")));
+    }
+
+    @Test(expected = CancellationException.class)
+    public void timedOutBackgroundFetchFails() {
+        CancellableDataProvider<Integer, String> dataProvider = new CancellableDataProvider<>(backEnd, 20, 0, new CancellationStatistics());
+
+        delay = 200;
+        CancellableDataProvider.runInBackground(() -> fetch(dataProvider, "delayed", 0));
+    }
+
+    private void block(String filter) {
+        try {
+            if ("slow".equals(filter)) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            } else if (filter != null && filter.startsWith("delayed")) {
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().collect(Collectors.toList());
+    }
+
+    private static List<Integer> fetch(CancellableDataProvider<Integer, String> dataProvider, String filter, int offset) {
+        return dataProvider.fetch(new Query<>(offset, 10, Collections.emptyList(), null, filter)).collect(Collectors.toList());
+    }
+
+}
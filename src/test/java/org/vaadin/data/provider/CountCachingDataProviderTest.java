@@ -0,0 +1,113 @@
+package org.vaadin.data.provider;
+
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CountCachingDataProviderTest {
+
+    private final List<Integer> growth = new ArrayList<>();
+    private int rows = 25;
+    private int counts;
+
+    private final CallbackDataProvider<Integer, Void> backEnd = new CallbackDataProvider<>(
+            query -> IntStream.range(query.getOffset(), Math.min(query.getOffset() + query.getLimit(), rows)).boxed(),
+            query -> {
+                counts++;
+                return rows;
+            });
+
+    @Test
+    public void growsWhilePagesComeBackFull() {
+        CountCachingDataProvider<Integer, Void> dataProvider = growing();
+
+        assertEquals(10, size(dataProvider));
+        assertFalse(dataProvider.isSizeKnown());
+
+        fetch(dataProvider, 0);
+        assertEquals(20, size(dataProvider));
+        fetch(dataProvider, 10);
+        assertEquals(30, size(dataProvider));
+        assertEquals(20, dataProvider.getKnownSize());
+        assertEquals(0, counts);
+        assertEquals(Arrays.asList(20, 30), growth);
+    }
+
+    @Test
+    public void shrinksToTheExactSizeOnAShortPage() {
+        CountCachingDataProvider<Integer, Void> dataProvider = growing();
+
+        fetch(dataProvider, 0);
+        fetch(dataProvider, 10);
+        fetch(dataProvider, 20);
+
+        assertEquals(25, size(dataProvider));
+        assertTrue(dataProvider.isSizeKnown());
+        assertEquals(25, dataProvider.getCachedSize(null));
+        assertEquals(0, counts);
+    }
+
+    @Test
+    public void shrinksOnAnEmptyPageRightAfterTheKnownRows() {
+        rows = 20;
+        CountCachingDataProvider<Integer, Void> dataProvider = growing();
+
+        fetch(dataProvider, 0);
+        fetch(dataProvider, 10);
+        assertEquals(30, size(dataProvider));
+
+        fetch(dataProvider, 20);
+        assertEquals(20, size(dataProvider));
+        assertTrue(dataProvider.isSizeKnown());
+    }
+
+    @Test
+    public void keepsTheKnownRowsWhenAFullPageIsFetchedAgain() {
+        CountCachingDataProvider<Integer, Void> dataProvider = growing();
+
+        fetch(dataProvider, 0);
+        fetch(dataProvider, 10);
+        fetch(dataProvider, 0);
+
+        assertEquals(30, size(dataProvider));
+    }
+
+    @Test
+    public void countsOncePerFilterWithoutGrowing() {
+        CountCachingDataProvider<Integer, Void> dataProvider = new CountCachingDataProvider<>(backEnd);
+
+        assertEquals(25, size(dataProvider));
+        assertEquals(25, size(dataProvider));
+        assertEquals(1, counts);
+
+        dataProvider.adjustSize(-1);
+        assertEquals(24, size(dataProvider));
+        assertEquals(1, counts);
+    }
+
+    private CountCachingDataProvider<Integer, Void> growing() {
+        CountCachingDataProvider<Integer, Void> dataProvider = new CountCachingDataProvider<>(backEnd);
+        dataProvider.setGrowingSize(10, growth::add);
+        return dataProvider;
+    }
+
+    private static int size(CountCachingDataProvider<Integer, Void> dataProvider) {
+        return dataProvider.size(new Query<>());
+    }
+
+    private static List<Integer> fetch(CountCachingDataProvider<Integer, Void> dataProvider, int offset) {
+        return dataProvider.fetch(new Query<>(offset, 10, Collections.emptyList(), null, null)).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.vaadin.data.provider;
+
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.function.SerializablePredicate;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class IndexedListDataProviderTest {
+
+    private final List<Item> items = new ArrayList<>(Arrays.asList(
+            new Item("a", 2), new Item("b", 1), new Item("c", 2), new Item("d", 1), new Item("e", 3)));
+    private final IndexedListDataProvider<Item> dataProvider = new IndexedListDataProvider<>(Item.class, items, Locale.ENGLISH);
+
+    @Test
+    public void tiesKeepTheListOrderWhenAscending() {
+        assertEquals("bdace", fetch(sort("rank", SortDirection.ASCENDING)));
+    }
+
+    @Test
+    public void tiesKeepTheListOrderWhenDescending() {
+        assertEquals("eacbd", fetch(sort("rank", SortDirection.DESCENDING)));
+    }
+
+    @Test
+    public void tiesOfOneColumnAreSortedByTheNext() {
+        List<QuerySortOrder> sortOrders = Arrays.asList(
+                new QuerySortOrder("rank", SortDirection.DESCENDING), new QuerySortOrder("name", SortDirection.DESCENDING));
+
+        assertEquals("ecadb", fetch(sortOrders));
+    }
+
+    @Test
+    public void refreshedItemJoinsATieInListOrder() {
+        fetch(sort("rank", SortDirection.ASCENDING));
+
+        items.get(4).setRank(1);
+        dataProvider.refreshItem(items.get(4));
+
+        assertEquals("bdeac", fetch(sort("rank", SortDirection.ASCENDING)));
+        assertEquals("acbde", fetch(sort("rank", SortDirection.DESCENDING)));
+    }
+
+    @Test
+    public void refreshAllMovesTheChangedItems() {
+        fetch(sort("rank", SortDirection.ASCENDING));
+
+        items.get(0).setRank(0);
+        items.get(3).setRank(3);
+        dataProvider.refreshAll();
+
+        assertEquals("abcde", fetch(sort("rank", SortDirection.ASCENDING)));
+    }
+
+    @Test
+    public void refreshAllAfterAddingAnItem() {
+        fetch(sort("rank", SortDirection.ASCENDING));
+
+        items.add(new Item("f", 2));
+        dataProvider.refreshAll();
+
+        assertEquals("bdacfe", fetch(sort("rank", SortDirection.ASCENDING)));
+    }
+
+    @Test
+    public void sortedIndexOfATiedItem() {
+        Query<Item, SerializablePredicate<Item>> query = new Query<>(0, Integer.MAX_VALUE, sort("rank", SortDirection.DESCENDING), null, null);
+
+        assertEquals(1, dataProvider.getSortedIndex(0, query));
+        assertEquals(2, dataProvider.getSortedIndex(2, query));
+        assertEquals(4, dataProvider.getSortedIndex(3, query));
+    }
+
+    @Test
+    public void filteredOutItemHasNoSortedIndex() {
+        SerializablePredicate<Item> filter = item -> item.getRank() > 1;
+        Query<Item, SerializablePredicate<Item>> query = new Query<>(0, Integer.MAX_VALUE, sort("rank", SortDirection.ASCENDING), null, filter);
+
+        assertEquals(-1, dataProvider.getSortedIndex(1, query));
+        assertEquals(1, dataProvider.getSortedIndex(2, query));
+    }
+
+    private String fetch(List<QuerySortOrder> sortOrders) {
+        return dataProvider.fetch(new Query<>(0, Integer.MAX_VALUE, sortOrders, null, null))
+                .map(Item::getName)
+                .collect(Collectors.joining());
+    }
+
+    private static List<QuerySortOrder> sort(String property, SortDirection direction) {
+        return Arrays.asList(new QuerySortOrder(property, direction));
+    }
+
+    public static class Item {
+
+        private final String name;
+        private int rank;
+
+        public Item(String name, int rank) {
+            this.name = name;
+            this.rank = rank;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public void setRank(int rank) {
+            this.rank = rank;
+        }
+
+    }
+
+}
@@ -0,0 +1,92 @@
+package org.vaadin.data.provider;
+
+import com.vaadin.flow.function.SerializableFunction;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class ItemIdIndexTest {
+
+    private static final SerializableFunction<Object, Object> ID = item -> item;
+
+    @Test
+    public void findsEveryPairOfIdsInTheSmallestTable() {
+        // two ids share a table of four slots, so many pairs collide and some probes wrap around
+        for (long a = 0; a < 64; a++) {
+            for (long b = 0; b < 64; b++) {
+                if (a != b) {
+                    ItemIdIndex<Object> index = new ItemIdIndex<>(Arrays.<Object>asList(a, b), ID);
+
+                    assertEquals(0, index.indexOf(a));
+                    assertEquals(1, index.indexOf(b));
+                    for (long c = 0; c < 64; c++) {
+                        if (c != a && c != b) {
+                            assertEquals(-1, index.indexOf(c));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void findsRandomIdsAndMissesOthers() {
+        Random random = new Random(42);
+        List<Object> ids = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            ids.add(random.nextLong());
+        }
+        ids.add(Long.MIN_VALUE);
+        ids.add(Long.MAX_VALUE);
+        ids.add(0L);
+
+        ItemIdIndex<Object> index = new ItemIdIndex<>(ids, ID);
+
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i, index.indexOf(ids.get(i)));
+        }
+        for (int i = 0; i < 10000; i++) {
+            Long id = random.nextLong();
+            assertEquals(ids.indexOf(id), index.indexOf(id));
+        }
+    }
+
+    @Test
+    public void returnsTheFirstPositionOfARepeatedId() {
+        ItemIdIndex<Object> index = new ItemIdIndex<>(Arrays.<Object>asList(5L, 6L, 5L), ID);
+
+        assertEquals(0, index.indexOf(5L));
+        assertEquals(1, index.indexOf(6L));
+    }
+
+    @Test
+    public void matchesIntegralIdsOfAnotherType() {
+        ItemIdIndex<Object> index = new ItemIdIndex<>(Arrays.<Object>asList(1, 2L, (short) 3), ID);
+
+        assertEquals(0, index.indexOf(1L));
+        assertEquals(1, index.indexOf(2));
+        assertEquals(2, index.indexOf((byte) 3));
+        assertEquals(-1, index.indexOf("1"));
+    }
+
+    @Test
+    public void indexesOtherIdsByEquality() {
+        ItemIdIndex<Object> index = new ItemIdIndex<>(Arrays.<Object>asList("a", 1L, "b"), ID);
+
+        assertEquals(0, index.indexOf("a"));
+        assertEquals(1, index.indexOf(1L));
+        assertEquals(2, index.indexOf("b"));
+        assertEquals(-1, index.indexOf(1));
+    }
+
+    @Test
+    public void findsNothingInAnEmptyList() {
+        assertEquals(-1, new ItemIdIndex<>(new ArrayList<>(), ID).indexOf(0L));
+    }
+
+}
@@ -0,0 +1,101 @@
+package org.vaadin.data.provider;
+
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReadAheadDataProviderTest {
+
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final Executor executor = tasks::add;
+    private final List<Integer> fetchedOffsets = new ArrayList<>();
+    private int version;
+    private boolean failing;
+
+    private final CallbackDataProvider<Integer, Void> backEnd = new CallbackDataProvider<>(query -> {
+        fetchedOffsets.add(query.getOffset());
+        if (failing) {
+            throw new IllegalStateException("back end down");
+        }
+        int base = version * 1000;
+        return IntStream.range(query.getOffset(), query.getOffset() + query.getLimit()).map(i -> base + i).boxed();
+    }, query -> 1000);
+
+    @Test
+    public void servesPrefetchedPages() {
+        ReadAheadDataProvider<Integer, Void> dataProvider = new ReadAheadDataProvider<>(backEnd, executor, 1);
+
+        fetch(dataProvider, 0);
+        runTasks();
+        fetchedOffsets.clear();
+
+        assertEquals(range(10, 20), fetch(dataProvider, 10));
+        assertEquals(Collections.emptyList(), fetchedOffsets);
+    }
+
+    @Test
+    public void neverServesAPrefetchStartedBeforeAnInvalidation() {
+        ReadAheadDataProvider<Integer, Void> dataProvider = new ReadAheadDataProvider<>(backEnd, executor, 1);
+
+        fetch(dataProvider, 0);
+        List<Runnable> stalePrefetches = new ArrayList<>(tasks);
+        tasks.clear();
+
+        dataProvider.invalidate();
+        version = 1;
+        stalePrefetches.forEach(Runnable::run);
+
+        assertEquals(range(1010, 1020), fetch(dataProvider, 10));
+    }
+
+    @Test
+    public void fetchesAgainAPageWhosePrefetchFailed() {
+        ReadAheadDataProvider<Integer, Void> dataProvider = new ReadAheadDataProvider<>(backEnd, executor, 1);
+
+        fetch(dataProvider, 0);
+        failing = true;
+        runTasks();
+        failing = false;
+        fetchedOffsets.clear();
+
+        assertEquals(range(10, 20), fetch(dataProvider, 10));
+        assertEquals(Collections.singletonList(10), fetchedOffsets);
+    }
+
+    @Test
+    public void prefetchesBackwardsWhenScrollingUp() {
+        ReadAheadDataProvider<Integer, Void> dataProvider = new ReadAheadDataProvider<>(backEnd, executor, 1);
+
+        fetch(dataProvider, 50);
+        fetch(dataProvider, 40);
+        runTasks();
+        fetchedOffsets.clear();
+
+        assertEquals(range(30, 40), fetch(dataProvider, 30));
+        assertEquals(Collections.emptyList(), fetchedOffsets);
+    }
+
+    private void runTasks() {
+        List<Runnable> toRun = new ArrayList<>(tasks);
+        tasks.clear();
+        toRun.forEach(Runnable::run);
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().collect(Collectors.toList());
+    }
+
+    private static List<Integer> fetch(ReadAheadDataProvider<Integer, Void> dataProvider, int offset) {
+        return dataProvider.fetch(new Query<>(offset, 10, Collections.emptyList(), null, null)).collect(Collectors.toList());
+    }
+
+}
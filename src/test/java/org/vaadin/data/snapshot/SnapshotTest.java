@@ -0,0 +1,120 @@
+package org.vaadin.data.snapshot;
+
+import com.vaadin.flow.function.SerializableFunction;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class SnapshotTest {
+
+    private static final SerializableFunction<Integer, Object> ID = item -> item;
+
+    @Test
+    public void putAppendsToTheLastChunkUntilItIsFull() {
+        Snapshot<Integer> snapshot = Snapshot.of(items(0, Snapshot.CHUNK_SIZE - 1));
+
+        Snapshot<Integer> full = snapshot.put(Snapshot.CHUNK_SIZE - 1, Snapshot.CHUNK_SIZE - 1, ID);
+        Snapshot<Integer> grown = full.put(Snapshot.CHUNK_SIZE, Snapshot.CHUNK_SIZE, ID);
+
+        assertEquals(items(0, Snapshot.CHUNK_SIZE), full);
+        assertEquals(items(0, Snapshot.CHUNK_SIZE + 1), grown);
+        assertEquals(Snapshot.CHUNK_SIZE, (int) grown.get(Snapshot.CHUNK_SIZE));
+    }
+
+    @Test
+    public void putReplacesItemsOnBothSidesOfAChunkBoundary() {
+        Snapshot<Integer> snapshot = Snapshot.of(items(0, 2 * Snapshot.CHUNK_SIZE));
+        Integer last = Integer.valueOf(Snapshot.CHUNK_SIZE - 1);
+        Integer first = Integer.valueOf(Snapshot.CHUNK_SIZE);
+
+        Snapshot<Integer> changed = snapshot.put(last, last, ID).put(first, first, ID);
+
+        assertEquals(2 * Snapshot.CHUNK_SIZE, changed.size());
+        assertSame(last, changed.get(Snapshot.CHUNK_SIZE - 1));
+        assertSame(first, changed.get(Snapshot.CHUNK_SIZE));
+        assertEquals(snapshot.getVersion() + 2, changed.getVersion());
+    }
+
+    @Test
+    public void putKeepsThePreviousVersion() {
+        // outside the cache of Integer.valueOf, so that the replacement is another instance
+        Snapshot<Integer> snapshot = Snapshot.of(items(1000, 1003));
+        Integer replacement = Integer.valueOf(1001);
+
+        Snapshot<Integer> changed = snapshot.put(1001, replacement, ID);
+
+        assertSame(replacement, changed.get(1));
+        assertNotSame(replacement, snapshot.get(1));
+        assertEquals(1001, (int) snapshot.get(1));
+        assertEquals(1, snapshot.getVersion());
+    }
+
+    @Test
+    public void putOfTheSameInstanceReturnsTheSameVersion() {
+        Snapshot<Integer> snapshot = Snapshot.of(items(0, 3));
+
+        assertSame(snapshot, snapshot.put(2, snapshot.get(2), ID));
+    }
+
+    @Test
+    public void putAppendsToAnEmptySnapshot() {
+        Snapshot<Integer> snapshot = Snapshot.of(Collections.<Integer>emptyList());
+
+        assertEquals(Collections.singletonList(7), snapshot.put(7, 7, ID));
+    }
+
+    @Test
+    public void removeOnBothSidesOfAChunkBoundary() {
+        Snapshot<Integer> snapshot = Snapshot.of(items(0, 2 * Snapshot.CHUNK_SIZE));
+
+        Snapshot<Integer> changed = snapshot.remove(Snapshot.CHUNK_SIZE - 1, ID).remove(Snapshot.CHUNK_SIZE, ID);
+
+        List<Integer> expected = items(0, 2 * Snapshot.CHUNK_SIZE);
+        expected.remove(Snapshot.CHUNK_SIZE);
+        expected.remove(Snapshot.CHUNK_SIZE - 1);
+        assertEquals(expected, changed);
+        assertEquals(Snapshot.CHUNK_SIZE - 2, (int) changed.get(Snapshot.CHUNK_SIZE - 2));
+        assertEquals(Snapshot.CHUNK_SIZE + 1, (int) changed.get(Snapshot.CHUNK_SIZE - 1));
+        assertEquals(2 * Snapshot.CHUNK_SIZE, snapshot.size());
+    }
+
+    @Test
+    public void removeOfTheOnlyItemOfAChunkDropsTheChunk() {
+        Snapshot<Integer> snapshot = Snapshot.of(items(0, Snapshot.CHUNK_SIZE + 1));
+
+        Snapshot<Integer> changed = snapshot.remove(Snapshot.CHUNK_SIZE, ID);
+        Snapshot<Integer> regrown = changed.put(-1, -1, ID);
+
+        assertEquals(items(0, Snapshot.CHUNK_SIZE), changed);
+        assertEquals(Snapshot.CHUNK_SIZE + 1, regrown.size());
+        assertEquals(-1, (int) regrown.get(Snapshot.CHUNK_SIZE));
+    }
+
+    @Test
+    public void removeOfAMissingIdReturnsTheSameVersion() {
+        Snapshot<Integer> snapshot = Snapshot.of(items(0, 3));
+
+        assertSame(snapshot, snapshot.remove(3, ID));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getPastTheEndThrows() {
+        Snapshot.of(items(0, Snapshot.CHUNK_SIZE)).get(Snapshot.CHUNK_SIZE);
+    }
+
+    private static List<Integer> items(int from, int to) {
+        List<Integer> items = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            items.add(i);
+        }
+
+        return items;
+    }
+
+}
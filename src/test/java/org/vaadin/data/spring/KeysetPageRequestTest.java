@@ -0,0 +1,86 @@
+package org.vaadin.data.spring;
+
+import org.junit.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class KeysetPageRequestTest {
+
+    @Test
+    public void hasNoConditionOnTheFirstPage() {
+        KeysetPageRequest request = new KeysetPageRequest(20, Sort.by(Sort.Order.asc("id")));
+
+        assertTrue(request.isFirst());
+        assertNull(request.toJpqlCondition("e"));
+    }
+
+    @Test
+    public void seeksAfterTheTieBreaker() {
+        KeysetPageRequest request = new KeysetPageRequest(keyset("id", 42L), 0, 20, Sort.by(Sort.Order.asc("id")));
+
+        assertEquals("((e.id > :keyset0))", request.toJpqlCondition("e"));
+        assertEquals(keyset("keyset0", 42L), request.getParameters());
+    }
+
+    @Test
+    public void comparesEverySortPropertyAfterTheEqualOnesBeforeIt() {
+        Map<String, Object> keyset = keyset("name", "Smith");
+        keyset.put("age", 30);
+        keyset.put("id", 7L);
+        Sort sort = Sort.by(Sort.Order.asc("name"), Sort.Order.desc("age"), Sort.Order.asc("id"));
+
+        KeysetPageRequest request = new KeysetPageRequest(keyset, 0, 20, sort);
+
+        assertEquals("((u.name > :keyset0)"
+                + " or (u.name = :keyset0 and u.age < :keyset1)"
+                + " or (u.name = :keyset0 and u.age = :keyset1 and u.id > :keyset2))", request.toJpqlCondition("u"));
+
+        Map<String, Object> parameters = keyset("keyset0", "Smith");
+        parameters.put("keyset1", 30);
+        parameters.put("keyset2", 7L);
+        assertEquals(parameters, request.getParameters());
+    }
+
+    @Test
+    public void namesParametersInSortOrderWhateverTheKeysetOrder() {
+        Map<String, Object> keyset = keyset("id", 7L);
+        keyset.put("name", "Smith");
+
+        KeysetPageRequest request = new KeysetPageRequest(keyset, 0, 20, Sort.by(Sort.Order.desc("name"), Sort.Order.asc("id")));
+
+        assertEquals("((e.name < :keyset0) or (e.name = :keyset0 and e.id > :keyset1))", request.toJpqlCondition("e"));
+        assertEquals("Smith", request.getParameters().get("keyset0"));
+        assertEquals(7L, request.getParameters().get("keyset1"));
+    }
+
+    @Test
+    public void keepsTheKeysetForTheNextPagesAndSkipsTheRowsAfterIt() {
+        KeysetPageRequest request = new KeysetPageRequest(keyset("id", 42L), 0, 20, Sort.by(Sort.Order.asc("id")));
+
+        KeysetPageRequest next = (KeysetPageRequest) request.next();
+        assertEquals(20, next.getOffset());
+        assertEquals(request.toJpqlCondition("e"), next.toJpqlCondition("e"));
+
+        KeysetPageRequest seek = request.next(keyset("id", 61L));
+        assertEquals(0, seek.getOffset());
+        assertEquals(keyset("keyset0", 61L), seek.getParameters());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requiresASort() {
+        new KeysetPageRequest(20, Sort.unsorted());
+    }
+
+    private static Map<String, Object> keyset(String property, Object value) {
+        Map<String, Object> keyset = new LinkedHashMap<>();
+        keyset.put(property, value);
+        return keyset;
+    }
+
+}